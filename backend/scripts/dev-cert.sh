@@ -0,0 +1,25 @@
+#!/usr/bin/env bash
+# Creates the self-signed localhost certificate the `http2` profile serves (PKCS12, valid for
+# localhost and 127.0.0.1). Browsers will warn once; accept it or import the exported .crt.
+#
+#   scripts/dev-cert.sh                 # ~/.quincy-permit/localhost.p12, password "changeit"
+#   DEV_CERT_KEYSTORE=/tmp/dev.p12 DEV_CERT_PASSWORD=secret scripts/dev-cert.sh
+set -euo pipefail
+
+KEYSTORE=${DEV_CERT_KEYSTORE:-$HOME/.quincy-permit/localhost.p12}
+PASSWORD=${DEV_CERT_PASSWORD:-changeit}
+
+if [ -f "$KEYSTORE" ]; then
+  echo "$KEYSTORE already exists; delete it to create a new certificate" >&2
+  exit 0
+fi
+mkdir -p "$(dirname "$KEYSTORE")"
+
+keytool -genkeypair -alias localhost -keyalg EC -groupname secp256r1 -validity 825 \
+  -dname "CN=localhost, OU=Development, O=City of Quincy, L=Quincy, ST=MA, C=US" \
+  -ext "SAN=dns:localhost,ip:127.0.0.1" \
+  -storetype PKCS12 -keystore "$KEYSTORE" -storepass "$PASSWORD"
+keytool -exportcert -rfc -alias localhost -keystore "$KEYSTORE" -storepass "$PASSWORD" \
+  -file "${KEYSTORE%.p12}.crt"
+
+echo "wrote $KEYSTORE and ${KEYSTORE%.p12}.crt"
@@ -0,0 +1,56 @@
+#!/usr/bin/env bash
+# Starts the backend with the given command, then checks register, login, application create and
+# document upload over HTTP and reports time to first response and resident memory.
+#
+#   scripts/smoke.sh target/permit-portal                                  # native image
+#   scripts/smoke.sh java -Dspring.aot.enabled=true -jar target/permit-portal-0.0.1-SNAPSHOT.jar
+set -euo pipefail
+
+[ $# -gt 0 ] || { echo "usage: $0 <command to start the backend...>" >&2; exit 2; }
+PORT=${PORT:-8080}
+API=http://localhost:$PORT/api
+LOG=${LOG:-smoke.log}
+
+started=$(date +%s%N)
+"$@" --server.port="$PORT" >"$LOG" 2>&1 &
+pid=$!
+trap 'kill $pid 2>/dev/null; wait $pid 2>/dev/null || true' EXIT
+
+until curl -sf "$API/permit-types" >/dev/null; do
+  kill -0 $pid 2>/dev/null || { echo "backend exited during startup, see $LOG" >&2; exit 1; }
+  sleep 0.05
+done
+ready_ms=$(( ($(date +%s%N) - started) / 1000000 ))
+rss_startup=$(awk '/VmRSS/ {print $2}' /proc/$pid/status)
+
+fail() { echo "FAIL: $1" >&2; exit 1; }
+json() { python3 -c "import sys, json; print(json.load(sys.stdin)$1)"; }
+
+email="smoke-$RANDOM$RANDOM@example.com"
+curl -sf -X POST "$API/auth/register" -H 'Content-Type: application/json' \
+  -d "{\"email\":\"$email\",\"password\":\"secret123\",\"name\":\"Smoke Test\"}" >/dev/null || fail register
+token=$(curl -sf -X POST "$API/auth/login" -H 'Content-Type: application/json' \
+  -d "{\"email\":\"$email\",\"password\":\"secret123\"}" | json '["token"]') || fail login
+auth="Authorization: Bearer $token"
+[ "$(curl -sf "$API/auth/me" -H "$auth" | json '["email"]')" = "$email" ] || fail me
+
+# the demo seed may still be running in the background
+for _ in $(seq 1 100); do
+  type_id=$(curl -sf "$API/permit-types" | json '[0]["id"]' 2>/dev/null) && break
+  sleep 0.1
+done
+[ -n "${type_id:-}" ] || fail "no permit types"
+app_id=$(curl -sf -X POST "$API/applications" -H "$auth" -H 'Content-Type: application/json' \
+  -d "{\"permitTypeId\":$type_id,\"formData\":{\"applicantName\":\"Smoke Test\",\"units\":[1,2]}}" | json '["id"]') \
+  || fail "create application"
+[ "$(curl -sf "$API/applications/$app_id" -H "$auth" | json '["formData"]["units"][1]')" = 2 ] || fail "read form data"
+
+upload=$(mktemp)
+printf 'smoke test upload\n' >"$upload"
+curl -sf -X POST "$API/applications/$app_id/documents" -H "$auth" -F "file=@$upload;type=text/plain" >/dev/null \
+  || fail "upload document"
+rm -f "$upload"
+[ "$(curl -sf "$API/applications/$app_id/documents" -H "$auth" | json '.__len__()')" = 1 ] || fail "list documents"
+
+rss_after=$(awk '/VmRSS/ {print $2}' /proc/$pid/status)
+echo "OK: first response after ${ready_ms} ms, RSS $((rss_startup / 1024)) MB at startup, $((rss_after / 1024)) MB after the smoke flow"
@@ -0,0 +1,129 @@
+package gov.quincy.ma.permit.config;
+
+import gov.quincy.ma.permit.entity.PermitType;
+import gov.quincy.ma.permit.entity.User;
+import gov.quincy.ma.permit.service.CacheInvalidation;
+import gov.quincy.ma.permit.service.CacheInvalidationBus;
+import gov.quincy.ma.permit.service.InJvmCacheInvalidationBus;
+import gov.quincy.ma.permit.service.PostgresCacheInvalidationBus;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+
+/**
+ * Wires the cluster cache-invalidation bus. Committed updates and deletes of second-level-cached
+ * entities are published automatically from Hibernate, whichever code path made them, and every
+ * node evicts the matching cache entries when the event arrives.
+ */
+@Configuration
+public class CacheInvalidationConfig {
+
+    private static final Map<Class<?>, CacheInvalidation.Topic> CACHED_ENTITIES = Map.of(
+            PermitType.class, CacheInvalidation.Topic.PERMIT_TYPE,
+            User.class, CacheInvalidation.Topic.USER
+    );
+
+    private final SessionFactory sessionFactory;
+
+    public CacheInvalidationConfig(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    // eager even under lazy initialization: it must hook into Hibernate and start listening at startup
+    @Bean
+    @Lazy(false)
+    @ConditionalOnProperty(name = "app.cache.invalidation.transport", havingValue = "jvm", matchIfMissing = true)
+    public CacheInvalidationBus inJvmCacheInvalidationBus(ApplicationEventPublisher events, DataSourceProperties dataSource) {
+        return registerPublisher(new InJvmCacheInvalidationBus(events,
+                InJvmCacheInvalidationBus.clusterIdFor(dataSource.determineUrl())));
+    }
+
+    @Bean
+    @Lazy(false)
+    @ConditionalOnProperty(name = "app.cache.invalidation.transport", havingValue = "postgres")
+    public CacheInvalidationBus postgresCacheInvalidationBus(ApplicationEventPublisher events, JdbcTemplate jdbcTemplate,
+                                                             DataSourceProperties dataSource,
+                                                             CacheInvalidationProperties properties) {
+        return registerPublisher(new PostgresCacheInvalidationBus(events, jdbcTemplate, properties.getChannel(),
+                dataSource.determineUrl(), dataSource.determineUsername(), dataSource.determinePassword(),
+                properties.getReconnectDelay()));
+    }
+
+    private CacheInvalidationBus registerPublisher(CacheInvalidationBus bus) {
+        EntityChangePublisher publisher = new EntityChangePublisher(bus);
+        EventListenerRegistry registry = sessionFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, publisher);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, publisher);
+        return bus;
+    }
+
+    @EventListener
+    public void evict(CacheInvalidation event) {
+        Cache cache = sessionFactory.getCache();
+        switch (event.topic()) {
+            case PERMIT_TYPE -> evictEntity(cache, PermitType.class, event.key());
+            case USER -> evictEntity(cache, User.class, event.key());
+            case ALL -> cache.evictAllRegions();
+            default -> {
+            }
+        }
+    }
+
+    private static void evictEntity(Cache cache, Class<?> type, String id) {
+        if (id != null) cache.evictEntityData(type, Long.valueOf(id));
+        else cache.evictEntityData(type);
+        // natural-id entries are keyed by the (possibly changed) slug/email, so drop the region
+        cache.evictNaturalIdData(type);
+    }
+
+    private record EntityChangePublisher(CacheInvalidationBus bus)
+            implements PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            return CACHED_ENTITIES.containsKey(persister.getMappedClass());
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            publish(event.getEntity(), event.getId());
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            publish(event.getEntity(), event.getId());
+        }
+
+        private void publish(Object entity, Object id) {
+            CacheInvalidation.Topic topic = CACHED_ENTITIES.get(entity.getClass());
+            if (topic != null) bus.publish(topic, String.valueOf(id));
+        }
+
+        @Override
+        public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        }
+
+        @Override
+        public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        }
+    }
+}
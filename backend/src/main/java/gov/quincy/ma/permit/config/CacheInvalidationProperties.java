@@ -0,0 +1,40 @@
+package gov.quincy.ma.permit.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.cache.invalidation")
+public class CacheInvalidationProperties {
+
+    /** {@code jvm} (nodes in one process, e.g. on H2) or {@code postgres} (LISTEN/NOTIFY). */
+    private String transport = "jvm";
+    private String channel = "cache_invalidation";
+    private Duration reconnectDelay = Duration.ofSeconds(2);
+
+    public String getTransport() {
+        return transport;
+    }
+
+    public void setTransport(String transport) {
+        this.transport = transport;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+
+    public Duration getReconnectDelay() {
+        return reconnectDelay;
+    }
+
+    public void setReconnectDelay(Duration reconnectDelay) {
+        this.reconnectDelay = reconnectDelay;
+    }
+}
@@ -2,49 +2,120 @@ package gov.quincy.ma.permit.config;
 
 import gov.quincy.ma.permit.entity.PermitType;
 import gov.quincy.ma.permit.entity.PropertyRecord;
+import gov.quincy.ma.permit.entity.RawJson;
 import gov.quincy.ma.permit.entity.User;
 import gov.quincy.ma.permit.repository.PermitTypeRepository;
 import gov.quincy.ma.permit.repository.PropertyRecordRepository;
 import gov.quincy.ma.permit.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
+/**
+ * Demo data: the staff account, the permit types and a few property records. Idempotent: only
+ * rows missing by natural key (email, slug, parcel id) are inserted, in one batched transaction.
+ * With {@code app.seed.async} it runs on its own thread once the application is ready, so
+ * startup doesn't wait for it; the staff password's BCrypt hash is computed alongside the rest.
+ */
 @Component
+@Lazy(false)
 @Profile("!test")
+@Order(0)
 public class DataSeeder implements CommandLineRunner {
 
+    private static final Logger log = LoggerFactory.getLogger(DataSeeder.class);
+    private static final String STAFF_EMAIL = "staff@quincyma.gov";
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final PermitTypeRepository permitTypeRepository;
     private final PropertyRecordRepository propertyRecordRepository;
+    private final SeedProperties properties;
+    private final TransactionTemplate tx;
 
     public DataSeeder(UserRepository userRepository, PasswordEncoder passwordEncoder,
                       PermitTypeRepository permitTypeRepository,
-                      PropertyRecordRepository propertyRecordRepository) {
+                      PropertyRecordRepository propertyRecordRepository,
+                      SeedProperties properties,
+                      TransactionTemplate tx) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.permitTypeRepository = permitTypeRepository;
         this.propertyRecordRepository = propertyRecordRepository;
+        this.properties = properties;
+        this.tx = tx;
     }
 
     @Override
-    @Transactional
     public void run(String... args) {
-        if (userRepository.count() > 0) return;
+        if (properties.isEnabled() && !properties.isAsync()) seed();
+    }
 
-        User staff = new User();
-        staff.setEmail("staff@quincyma.gov");
-        staff.setPasswordHash(passwordEncoder.encode("staff123"));
-        staff.setName("Quincy Staff");
-        staff.setRole(User.Role.STAFF);
-        userRepository.save(staff);
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedAfterReady() {
+        if (!properties.isEnabled() || !properties.isAsync()) return;
+        Thread seeder = new Thread(() -> {
+            try {
+                seed();
+            } catch (RuntimeException e) {
+                log.error("Seeding failed", e);
+            }
+        }, "data-seeder");
+        seeder.setDaemon(true);
+        seeder.start();
+    }
+
+    void seed() {
+        long started = System.nanoTime();
+        boolean needStaff = !userRepository.existsByEmail(STAFF_EMAIL);
+        // BCrypt is deliberately slow; hash while the rows below are being built
+        CompletableFuture<String> staffPassword = needStaff
+                ? CompletableFuture.supplyAsync(() -> passwordEncoder.encode("staff123"))
+                : CompletableFuture.completedFuture(null);
+        List<PermitType> permitTypes = missingPermitTypes();
+        List<PropertyRecord> propertyRecords = missingPropertyRecords();
+        if (!needStaff && permitTypes.isEmpty() && propertyRecords.isEmpty()) return;
+
+        try {
+            tx.executeWithoutResult(status -> {
+                if (needStaff) {
+                    User staff = new User();
+                    staff.setEmail(STAFF_EMAIL);
+                    staff.setPasswordHash(staffPassword.join());
+                    staff.setName("Quincy Staff");
+                    staff.setRole(User.Role.STAFF);
+                    userRepository.save(staff);
+                }
+                permitTypeRepository.saveAll(permitTypes);
+                propertyRecordRepository.saveAll(propertyRecords);
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.info("Seed data was inserted concurrently by another node; skipping");
+            return;
+        }
+        log.info("Seeded {} permit types, {} property records{} in {} ms", permitTypes.size(), propertyRecords.size(),
+                needStaff ? " and the staff account" : "", (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private List<PermitType> missingPermitTypes() {
+        Set<String> existing = permitTypeRepository.findAll().stream().map(PermitType::getSlug).collect(Collectors.toSet());
 
         List<Map<String, Object>> permitTypes = List.of(
                 Map.of("name", "Accessory Dwelling Unit Application", "slug", "accessory-dwelling-unit", "category", "Online Permit Applications"),
@@ -68,24 +139,33 @@ public class DataSeeder implements CommandLineRunner {
                 Map.of("name", "Zoning Board of Appeal Application", "slug", "zoning-board-of-appeal", "category", "Online Permit Applications")
         );
 
+        List<PermitType> missing = new ArrayList<>();
         for (Map<String, Object> pt : permitTypes) {
+            if (existing.contains((String) pt.get("slug"))) continue;
             PermitType type = new PermitType();
             type.setName((String) pt.get("name"));
             type.setSlug((String) pt.get("slug"));
             type.setCategory((String) pt.get("category"));
             type.setDescription("Apply for " + pt.get("name"));
-            type.setFormSchema(getFormSchemaForPermit((String) pt.get("slug")));
-            permitTypeRepository.save(type);
+            type.setFormSchema(RawJson.of(getFormSchemaForPermit((String) pt.get("slug"))));
+            missing.add(type);
         }
+        return missing;
+    }
 
+    private List<PropertyRecord> missingPropertyRecords() {
+        Set<String> existing = propertyRecordRepository.findAll().stream().map(PropertyRecord::getParcelId).collect(Collectors.toSet());
+        List<PropertyRecord> missing = new ArrayList<>();
         for (int i = 1; i <= 5; i++) {
+            if (existing.contains("Q" + (1000 + i))) continue;
             PropertyRecord pr = new PropertyRecord();
             pr.setAddress(i + " Main Street, Quincy, MA");
             pr.setParcelId("Q" + (1000 + i));
             pr.setRecordType("Residential");
             pr.setMetadata(Map.of("yearBuilt", 1950 + i * 10));
-            propertyRecordRepository.save(pr);
+            missing.add(pr);
         }
+        return missing;
     }
 
     /**
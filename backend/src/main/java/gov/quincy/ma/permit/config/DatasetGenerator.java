@@ -0,0 +1,340 @@
+package gov.quincy.ma.permit.config;
+
+import gov.quincy.ma.permit.entity.Application;
+import gov.quincy.ma.permit.entity.ApplicationTransition;
+import gov.quincy.ma.permit.entity.Document;
+import gov.quincy.ma.permit.entity.PermitType;
+import gov.quincy.ma.permit.entity.PropertyRecord;
+import gov.quincy.ma.permit.entity.RawJson;
+import gov.quincy.ma.permit.entity.User;
+import gov.quincy.ma.permit.repository.ApplicationRepository;
+import gov.quincy.ma.permit.repository.ApplicationTransitionRepository;
+import gov.quincy.ma.permit.repository.DocumentRepository;
+import gov.quincy.ma.permit.repository.PermitTypeRepository;
+import gov.quincy.ma.permit.repository.PropertyRecordRepository;
+import gov.quincy.ma.permit.repository.UserRepository;
+import gov.quincy.ma.permit.service.DocumentStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Synthetic Quincy-scale data for load tests ({@code app.dataset}, usually via the {@code dataset}
+ * profile): applicants and staff who all share one password, applications in every status with
+ * form data filled from their permit type's schema and a matching status history, uploaded files
+ * with log-normal sizes, and property records. Runs after {@link DataSeeder} and only once per
+ * database; the accounts it creates are how it recognises a database it has already filled.
+ */
+@Component
+@Profile("!test")
+@Order(1)
+public class DatasetGenerator implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(DatasetGenerator.class);
+
+    /** Share of applications left in each status, in {@link Application.Status} order. */
+    private static final int[] STATUS_WEIGHTS = {25, 20, 15, 30, 10};
+    private static final List<String> FILE_NAMES = List.of("site-plan.pdf", "certified-plot-plan.pdf",
+            "construction-drawings.pdf", "insurance-certificate.pdf", "hic-registration.pdf",
+            "photo-rear-elevation.jpg", "photo-existing-conditions.jpg", "energy-compliance-report.pdf");
+    private static final List<String> PUBLIC_CATEGORIES = List.of("Building", "Zoning", "Conservation", "Licensing",
+            "Public Works");
+    private static final List<String> RECORD_TYPES = List.of("Residential", "Residential", "Residential",
+            "Two-Family", "Condominium", "Commercial", "Mixed Use", "Industrial");
+
+    private final DatasetProperties properties;
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final PermitTypeRepository permitTypeRepository;
+    private final PropertyRecordRepository propertyRecordRepository;
+    private final ApplicationRepository applicationRepository;
+    private final ApplicationTransitionRepository transitionRepository;
+    private final DocumentRepository documentRepository;
+    private final DocumentStore store;
+    private final TransactionTemplate tx;
+
+    public DatasetGenerator(DatasetProperties properties, UserRepository userRepository,
+                            PasswordEncoder passwordEncoder, PermitTypeRepository permitTypeRepository,
+                            PropertyRecordRepository propertyRecordRepository,
+                            ApplicationRepository applicationRepository,
+                            ApplicationTransitionRepository transitionRepository,
+                            DocumentRepository documentRepository, DocumentStore store, TransactionTemplate tx) {
+        this.properties = properties;
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.permitTypeRepository = permitTypeRepository;
+        this.propertyRecordRepository = propertyRecordRepository;
+        this.applicationRepository = applicationRepository;
+        this.transitionRepository = transitionRepository;
+        this.documentRepository = documentRepository;
+        this.store = store;
+        this.tx = tx;
+    }
+
+    public static String applicantEmail(int n) {
+        return "loadtest-applicant-" + n + "@example.com";
+    }
+
+    public static String staffEmail(int n) {
+        return "loadtest-staff-" + n + "@quincyma.gov";
+    }
+
+    @Override
+    public void run(String... args) {
+        if (properties.isEnabled()) generate();
+    }
+
+    void generate() {
+        List<PermitType> permitTypes = permitTypeRepository.findAll();
+        if (permitTypes.isEmpty()) {
+            log.warn("No permit types to generate applications for; the dataset needs app.seed.async=false");
+            return;
+        }
+        if (userRepository.existsByEmail(applicantEmail(0))) {
+            log.info("Load-test dataset already present; skipping");
+            return;
+        }
+        long started = System.nanoTime();
+        Random random = new Random(properties.getSeed());
+        // one BCrypt hash for every account: generating thousands would take minutes
+        String passwordHash = passwordEncoder.encode(properties.getPassword());
+        List<User> applicants = saveUsers(properties.getApplicants(), User.Role.APPLICANT, passwordHash, random);
+        List<User> staff = saveUsers(properties.getStaff(), User.Role.STAFF, passwordHash, random);
+        generatePropertyRecords(random);
+        List<Long> applicationIds = generateApplications(random, applicants, staff, permitTypes);
+        long bytes = generateDocuments(random, applicationIds, properties.getDocuments())
+                + generateDocuments(random, List.of(), properties.getPublicDocuments());
+        log.info("Generated {} applicants, {} staff, {} applications, {} documents ({} MB) and {} property records in {} s",
+                applicants.size(), staff.size(), applicationIds.size(),
+                properties.getDocuments() + properties.getPublicDocuments(), bytes >> 20,
+                properties.getPropertyRecords(), Duration.ofNanos(System.nanoTime() - started).toSeconds());
+    }
+
+    private List<User> saveUsers(int count, User.Role role, String passwordHash, Random random) {
+        List<User> saved = new ArrayList<>(count);
+        for (int from = 0; from < count; from += properties.getBatchSize()) {
+            List<User> batch = new ArrayList<>();
+            for (int n = from; n < Math.min(count, from + properties.getBatchSize()); n++) {
+                User user = new User();
+                user.setEmail(role == User.Role.STAFF ? staffEmail(n) : applicantEmail(n));
+                user.setPasswordHash(passwordHash);
+                user.setName(SyntheticData.personName(random));
+                user.setRole(role);
+                batch.add(user);
+            }
+            saved.addAll(tx.execute(status -> userRepository.saveAll(batch)));
+        }
+        return saved;
+    }
+
+    private void generatePropertyRecords(Random random) {
+        int count = properties.getPropertyRecords();
+        for (int from = 0; from < count; from += properties.getBatchSize()) {
+            List<PropertyRecord> batch = new ArrayList<>();
+            for (int n = from; n < Math.min(count, from + properties.getBatchSize()); n++) {
+                PropertyRecord record = new PropertyRecord();
+                record.setParcelId("Q" + (100_000 + n));
+                record.setAddress(SyntheticData.address(random));
+                record.setRecordType(SyntheticData.pick(random, RECORD_TYPES));
+                record.setMetadata(Map.of(
+                        "yearBuilt", 1890 + random.nextInt(134),
+                        "lotSizeSqft", 2_500 + random.nextInt(17_500),
+                        "assessedValue", 350_000 + random.nextInt(1_400_000),
+                        "zoning", SyntheticData.pick(random, List.of("RESA", "RESB", "RESC", "BUS", "IND"))));
+                batch.add(record);
+            }
+            tx.executeWithoutResult(status -> propertyRecordRepository.saveAll(batch));
+        }
+    }
+
+    private List<Long> generateApplications(Random random, List<User> applicants, List<User> staff,
+                                            List<PermitType> permitTypes) {
+        Instant now = Instant.now();
+        int count = properties.getApplications();
+        List<Long> ids = new ArrayList<>(count);
+        // stored as JSON text; parsed once per type rather than once per application
+        Map<Long, Map<String, Object>> schemas = new HashMap<>();
+        for (PermitType type : permitTypes) {
+            schemas.put(type.getId(), type.getFormSchema() != null ? type.getFormSchema().toMap() : null);
+        }
+        for (int from = 0; from < count; from += properties.getBatchSize()) {
+            List<Application> batch = new ArrayList<>();
+            for (int n = from; n < Math.min(count, from + properties.getBatchSize()); n++) {
+                batch.add(application(random, now, SyntheticData.pick(random, applicants),
+                        staff.isEmpty() ? null : SyntheticData.pick(random, staff),
+                        SyntheticData.pick(random, permitTypes), schemas));
+            }
+            tx.executeWithoutResult(status -> {
+                List<Application> saved = applicationRepository.saveAll(batch);
+                transitionRepository.saveAll(saved.stream().flatMap(app -> history(app).stream()).toList());
+                saved.forEach(app -> ids.add(app.getId()));
+            });
+        }
+        return ids;
+    }
+
+    private Application application(Random random, Instant now, User applicant, User reviewer, PermitType type,
+                                    Map<Long, Map<String, Object>> schemas) {
+        Application.Status status = status(random);
+        if (reviewer == null && status.ordinal() > Application.Status.SUBMITTED.ordinal()) {
+            status = Application.Status.SUBMITTED;
+        }
+        Application app = new Application();
+        app.setApplicant(applicant);
+        app.setPermitType(type);
+        app.setStatus(status);
+        app.setFormData(RawJson.of(SyntheticData.formData(schemas.get(type.getId()), random,
+                status == Application.Status.DRAFT ? 0.2 + random.nextDouble() * 0.7 : 1.0)));
+        Instant created = now.minus(Duration.ofMinutes(random.nextInt(365 * 24 * 60)));
+        Instant changed = created;
+        app.setCreatedAt(created);
+        if (status != Application.Status.DRAFT) {
+            changed = changed.plus(Duration.ofMinutes(10 + random.nextInt(3 * 24 * 60)));
+            app.setSubmittedAt(changed);
+        }
+        if (status.ordinal() >= Application.Status.UNDER_REVIEW.ordinal()) {
+            changed = changed.plus(Duration.ofMinutes(30 + random.nextInt(5 * 24 * 60)));
+            app.setReviewer(reviewer);
+            app.setAssignee(reviewer);
+        }
+        if (status == Application.Status.APPROVED || status == Application.Status.REJECTED) {
+            changed = changed.plus(Duration.ofMinutes(60 + random.nextInt(10 * 24 * 60)));
+            app.setReviewedAt(changed);
+        }
+        app.setStatusChangedAt(changed);
+        app.setUpdatedAt(changed);
+        return app;
+    }
+
+    private static Application.Status status(Random random) {
+        int roll = random.nextInt(100);
+        for (Application.Status status : Application.Status.values()) {
+            roll -= STATUS_WEIGHTS[status.ordinal()];
+            if (roll < 0) return status;
+        }
+        return Application.Status.DRAFT;
+    }
+
+    /** The transitions that led to the application's current status, as the lifecycle would have logged them. */
+    private static List<ApplicationTransition> history(Application app) {
+        List<ApplicationTransition> events = new ArrayList<>();
+        Long applicantId = app.getApplicant().getId();
+        Long reviewerId = app.getReviewer() != null ? app.getReviewer().getId() : null;
+        Long typeId = app.getPermitType().getId();
+        events.add(new ApplicationTransition(app.getId(), typeId, null, Application.Status.DRAFT, applicantId,
+                app.getCreatedAt(), null));
+        Instant entered = app.getCreatedAt();
+        Application.Status from = Application.Status.DRAFT;
+        if (app.getSubmittedAt() != null) {
+            events.add(new ApplicationTransition(app.getId(), typeId, from, Application.Status.SUBMITTED, applicantId,
+                    app.getSubmittedAt(), Duration.between(entered, app.getSubmittedAt()).toMillis()));
+            entered = app.getSubmittedAt();
+            from = Application.Status.SUBMITTED;
+        }
+        if (reviewerId != null) {
+            Instant reviewing = app.getReviewedAt() != null
+                    ? entered.plus(Duration.between(entered, app.getReviewedAt()).dividedBy(2))
+                    : app.getStatusChangedAt();
+            events.add(new ApplicationTransition(app.getId(), typeId, from, Application.Status.UNDER_REVIEW, reviewerId,
+                    reviewing, Duration.between(entered, reviewing).toMillis()));
+            entered = reviewing;
+            from = Application.Status.UNDER_REVIEW;
+        }
+        if (app.getReviewedAt() != null) {
+            events.add(new ApplicationTransition(app.getId(), typeId, from, app.getStatus(), reviewerId,
+                    app.getReviewedAt(), Duration.between(entered, app.getReviewedAt()).toMillis()));
+        }
+        return events;
+    }
+
+    /**
+     * Writes {@code count} files to the document store and records them, attached to random
+     * applications or, with no applications given, in the public Document Center. Returns the
+     * bytes written.
+     */
+    private long generateDocuments(Random random, List<Long> applicationIds, int count) {
+        long total = 0;
+        for (int from = 0; from < count; from += properties.getBatchSize()) {
+            List<Document> batch = new ArrayList<>();
+            List<Long> owners = new ArrayList<>();
+            for (int n = from; n < Math.min(count, from + properties.getBatchSize()); n++) {
+                String name = SyntheticData.pick(random, FILE_NAMES);
+                long size = documentSize(random);
+                Document doc = new Document();
+                doc.setName(name);
+                doc.setFilePath(UUID.randomUUID() + name.substring(name.lastIndexOf('.')));
+                doc.setMimeType(name.endsWith(".pdf") ? "application/pdf" : "image/jpeg");
+                doc.setSha256(writeFile(doc.getFilePath(), size, new SplittableRandom(random.nextLong())));
+                doc.setScanStatus(Document.ScanStatus.CLEAN);
+                doc.setUploadedAt(Instant.now().minus(Duration.ofMinutes(random.nextInt(365 * 24 * 60))));
+                if (applicationIds.isEmpty()) {
+                    doc.setCategory(SyntheticData.pick(random, PUBLIC_CATEGORIES));
+                    doc.setName(doc.getCategory() + " " + name);
+                    owners.add(null);
+                } else {
+                    owners.add(SyntheticData.pick(random, applicationIds));
+                }
+                batch.add(doc);
+                total += size;
+            }
+            tx.executeWithoutResult(status -> {
+                for (int i = 0; i < batch.size(); i++) {
+                    if (owners.get(i) != null) {
+                        batch.get(i).setApplication(applicationRepository.getReferenceById(owners.get(i)));
+                    }
+                }
+                documentRepository.saveAll(batch);
+            });
+        }
+        return total;
+    }
+
+    private long documentSize(Random random) {
+        double kb = properties.getMedianDocumentKb() * Math.exp(random.nextGaussian());
+        return (long) Math.max(2, Math.min(15 * 1024, kb)) * 1024;
+    }
+
+    /** Incompressible bytes behind a PDF or JPEG signature, like real scans; returns their SHA-256. */
+    private String writeFile(String key, long size, SplittableRandom content) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            store.write(key, out -> {
+                DigestOutputStream digest = new DigestOutputStream(out, sha256);
+                byte[] chunk = new byte[64 * 1024];
+                byte[] signature = key.endsWith(".pdf") ? "%PDF-1.7\n".getBytes() : new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+                digest.write(signature);
+                for (long left = size - signature.length; left > 0; left -= chunk.length) {
+                    content.nextBytes(chunk);
+                    digest.write(chunk, 0, (int) Math.min(chunk.length, left));
+                }
+                digest.flush();
+            });
+            return HexFormat.of().formatHex(sha256.digest());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Writing generated document " + key + " failed", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
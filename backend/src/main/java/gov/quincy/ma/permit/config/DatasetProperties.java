@@ -0,0 +1,117 @@
+package gov.quincy.ma.permit.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Volume for the synthetic load-test dataset ({@code dataset} profile). The same seed always
+ * produces the same rows, so runs against a fresh database are comparable.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.dataset")
+public class DatasetProperties {
+
+    private boolean enabled;
+    private long seed = 42;
+    private int applicants = 1000;
+    private int staff = 10;
+    private int applications = 5000;
+    /** Files attached to random applications. */
+    private int documents = 500;
+    /** Files in the public Document Center. */
+    private int publicDocuments = 100;
+    private int propertyRecords = 25000;
+    /** Password of every generated account; the load-test driver logs in with it. */
+    private String password = "loadtest123";
+    /** Median file size; sizes are log-normally distributed around it, like real uploads. */
+    private int medianDocumentKb = 180;
+    private int batchSize = 500;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public int getApplicants() {
+        return applicants;
+    }
+
+    public void setApplicants(int applicants) {
+        this.applicants = applicants;
+    }
+
+    public int getStaff() {
+        return staff;
+    }
+
+    public void setStaff(int staff) {
+        this.staff = staff;
+    }
+
+    public int getApplications() {
+        return applications;
+    }
+
+    public void setApplications(int applications) {
+        this.applications = applications;
+    }
+
+    public int getDocuments() {
+        return documents;
+    }
+
+    public void setDocuments(int documents) {
+        this.documents = documents;
+    }
+
+    public int getPublicDocuments() {
+        return publicDocuments;
+    }
+
+    public void setPublicDocuments(int publicDocuments) {
+        this.publicDocuments = publicDocuments;
+    }
+
+    public int getPropertyRecords() {
+        return propertyRecords;
+    }
+
+    public void setPropertyRecords(int propertyRecords) {
+        this.propertyRecords = propertyRecords;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public int getMedianDocumentKb() {
+        return medianDocumentKb;
+    }
+
+    public void setMedianDocumentKb(int medianDocumentKb) {
+        this.medianDocumentKb = medianDocumentKb;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+}
@@ -0,0 +1,83 @@
+package gov.quincy.ma.permit.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "app.storage.compression")
+public class DocumentCompressionProperties {
+
+    private boolean enabled = true;
+    /**
+     * Deflate level 1-9; low levels keep upload CPU close to a plain copy. Reading back decoded
+     * costs the same at any level, about 10 ms per 4 MB of text ({@code DocumentCompressionBenchmark}).
+     */
+    private int level = 1;
+    /** Smaller uploads are stored raw: the few KB saved don't pay for decoding on every read. */
+    private long minSizeBytes = 4096;
+    /** MIME types (or {@code type/*} wildcards) that are gzip-encoded at rest. */
+    private List<String> mimeTypes = new ArrayList<>(List.of(
+            "text/*",
+            "application/pdf",
+            "application/json",
+            "application/xml",
+            "image/tiff",
+            "image/bmp",
+            "application/msword",
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.document",
+            "application/vnd.ms-excel"
+    ));
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public void setLevel(int level) {
+        this.level = level;
+    }
+
+    public long getMinSizeBytes() {
+        return minSizeBytes;
+    }
+
+    public void setMinSizeBytes(long minSizeBytes) {
+        this.minSizeBytes = minSizeBytes;
+    }
+
+    public List<String> getMimeTypes() {
+        return mimeTypes;
+    }
+
+    public void setMimeTypes(List<String> mimeTypes) {
+        this.mimeTypes = mimeTypes;
+    }
+
+    public boolean isCompressible(String mimeType, long size) {
+        return size >= minSizeBytes && isCompressible(mimeType);
+    }
+
+    /** For streamed uploads whose size isn't known up front, the type alone decides. */
+    public boolean isCompressible(String mimeType) {
+        if (!enabled || mimeType == null) return false;
+        String type = mimeType.toLowerCase();
+        int params = type.indexOf(';');
+        if (params >= 0) type = type.substring(0, params).trim();
+        for (String pattern : mimeTypes) {
+            if (pattern.endsWith("/*") ? type.startsWith(pattern.substring(0, pattern.length() - 1)) : type.equals(pattern)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
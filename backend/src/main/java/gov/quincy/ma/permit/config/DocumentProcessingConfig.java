@@ -0,0 +1,17 @@
+package gov.quincy.ma.permit.config;
+
+import gov.quincy.ma.permit.entity.Document;
+import gov.quincy.ma.permit.service.DocumentScanner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class DocumentProcessingConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public DocumentScanner documentScanner() {
+        return (content, mimeType) -> Document.ScanStatus.SKIPPED;
+    }
+}
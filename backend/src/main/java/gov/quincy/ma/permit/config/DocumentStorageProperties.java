@@ -0,0 +1,126 @@
+package gov.quincy.ma.permit.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.storage")
+public class DocumentStorageProperties {
+
+    /** {@code local} (one node, {@code app.upload-dir}) or {@code s3} (shared bucket, any number of nodes). */
+    private String type = "local";
+    private final S3 s3 = new S3();
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public S3 getS3() {
+        return s3;
+    }
+
+    public static class S3 {
+
+        /** Leave unset for AWS; set for MinIO or another S3-compatible server. */
+        private String endpoint;
+        private String region = "us-east-1";
+        private String bucket = "quincy-documents";
+        /** Falls back to the default AWS credentials chain when unset. */
+        private String accessKey;
+        private String secretKey;
+        /** MinIO and most stand-ins need path-style ({@code endpoint/bucket/key}) addressing. */
+        private boolean pathStyle;
+        private boolean createBucket;
+        /** Upload part size; S3 requires at least 5 MiB for every part but the last. */
+        private int partSizeBytes = 8 * 1024 * 1024;
+        /** Redirect downloads to presigned URLs instead of proxying the bytes. */
+        private boolean redirectDownloads = true;
+        private Duration presignTtl = Duration.ofMinutes(5);
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public void setEndpoint(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        public String getRegion() {
+            return region;
+        }
+
+        public void setRegion(String region) {
+            this.region = region;
+        }
+
+        public String getBucket() {
+            return bucket;
+        }
+
+        public void setBucket(String bucket) {
+            this.bucket = bucket;
+        }
+
+        public String getAccessKey() {
+            return accessKey;
+        }
+
+        public void setAccessKey(String accessKey) {
+            this.accessKey = accessKey;
+        }
+
+        public String getSecretKey() {
+            return secretKey;
+        }
+
+        public void setSecretKey(String secretKey) {
+            this.secretKey = secretKey;
+        }
+
+        public boolean isPathStyle() {
+            return pathStyle;
+        }
+
+        public void setPathStyle(boolean pathStyle) {
+            this.pathStyle = pathStyle;
+        }
+
+        public boolean isCreateBucket() {
+            return createBucket;
+        }
+
+        public void setCreateBucket(boolean createBucket) {
+            this.createBucket = createBucket;
+        }
+
+        public int getPartSizeBytes() {
+            return partSizeBytes;
+        }
+
+        public void setPartSizeBytes(int partSizeBytes) {
+            this.partSizeBytes = partSizeBytes;
+        }
+
+        public boolean isRedirectDownloads() {
+            return redirectDownloads;
+        }
+
+        public void setRedirectDownloads(boolean redirectDownloads) {
+            this.redirectDownloads = redirectDownloads;
+        }
+
+        public Duration getPresignTtl() {
+            return presignTtl;
+        }
+
+        public void setPresignTtl(Duration presignTtl) {
+            this.presignTtl = presignTtl;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package gov.quincy.ma.permit.config;
+
+import gov.quincy.ma.permit.service.DocumentStore;
+import gov.quincy.ma.permit.service.LocalDocumentStore;
+import gov.quincy.ma.permit.service.S3DocumentStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@Configuration
+public class DocumentStoreConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.storage.type", havingValue = "local", matchIfMissing = true)
+    public DocumentStore localDocumentStore(@Value("${app.upload-dir:${java.io.tmpdir}/quincy-uploads}") String uploadDir)
+            throws IOException {
+        return new LocalDocumentStore(Path.of(uploadDir));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.storage.type", havingValue = "s3")
+    public DocumentStore s3DocumentStore(DocumentStorageProperties properties) {
+        return new S3DocumentStore(properties.getS3());
+    }
+}
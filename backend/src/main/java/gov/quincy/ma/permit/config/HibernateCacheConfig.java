@@ -0,0 +1,44 @@
+package gov.quincy.ma.permit.config;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.UUID;
+
+/**
+ * In-process JCache (Ehcache) manager backing Hibernate's second-level cache, with one
+ * heap-only cache per region sized and expired from {@link HibernateCacheProperties}.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(HibernateCacheProperties properties) {
+        ConfigurationBuilder builder = ConfigurationBuilder.newConfigurationBuilder();
+        for (var entry : properties.getRegions().entrySet()) {
+            HibernateCacheProperties.Region region = entry.getValue();
+            builder = builder.withCache(entry.getKey(), CacheConfigurationBuilder
+                    .newCacheConfigurationBuilder(Object.class, Object.class,
+                            ResourcePoolsBuilder.heap(region.getMaxEntries()))
+                    .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(region.getTtl())));
+        }
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        // A unique URI per application context so test contexts never share (or close) each other's caches
+        return provider.getCacheManager(URI.create("urn:quincy-permit-portal:" + UUID.randomUUID()), builder.build());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
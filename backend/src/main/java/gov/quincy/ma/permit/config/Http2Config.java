@@ -0,0 +1,33 @@
+package gov.quincy.ma.permit.config;
+
+import org.apache.coyote.UpgradeProtocol;
+import org.apache.coyote.http2.Http2Protocol;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Tunes the HTTP/2 protocol Spring Boot adds to the Tomcat connector when
+ * {@code server.http2.enabled} is set: h2 over TLS with the {@code http2} profile, h2c
+ * (prior knowledge or {@code Upgrade}) on a plain connector with the {@code h2c} profile.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "server.http2", name = "enabled", havingValue = "true")
+public class Http2Config {
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> http2ProtocolCustomizer(Http2Properties properties) {
+        return factory -> factory.addConnectorCustomizers(connector -> {
+            for (UpgradeProtocol protocol : connector.findUpgradeProtocols()) {
+                if (protocol instanceof Http2Protocol http2) {
+                    http2.setMaxConcurrentStreams(properties.getMaxConcurrentStreams());
+                    http2.setMaxConcurrentStreamExecution(properties.getMaxConcurrentStreamExecution());
+                    http2.setKeepAliveTimeout(properties.getKeepAliveTimeout().toMillis());
+                    http2.setInitialWindowSize(properties.getInitialWindowSize());
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,57 @@
+package gov.quincy.ma.permit.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * HTTP/2 connection settings Spring Boot doesn't expose; applied when {@code server.http2.enabled}
+ * is set. Connection-level limits (max connections, keep-alive, accept count) stay under
+ * {@code server.tomcat.*}.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.http2")
+public class Http2Properties {
+
+    /** Streams a client may have open on one connection; browsers fan a page's requests out over these. */
+    private int maxConcurrentStreams = 128;
+    /** Streams of one connection processed at the same time; the rest wait without holding a thread. */
+    private int maxConcurrentStreamExecution = 32;
+    /** How long an idle HTTP/2 connection is kept open. */
+    private Duration keepAliveTimeout = Duration.ofSeconds(60);
+    /** Per-stream flow-control window advertised to clients, in bytes. */
+    private int initialWindowSize = 1024 * 1024;
+
+    public int getMaxConcurrentStreams() {
+        return maxConcurrentStreams;
+    }
+
+    public void setMaxConcurrentStreams(int maxConcurrentStreams) {
+        this.maxConcurrentStreams = maxConcurrentStreams;
+    }
+
+    public int getMaxConcurrentStreamExecution() {
+        return maxConcurrentStreamExecution;
+    }
+
+    public void setMaxConcurrentStreamExecution(int maxConcurrentStreamExecution) {
+        this.maxConcurrentStreamExecution = maxConcurrentStreamExecution;
+    }
+
+    public Duration getKeepAliveTimeout() {
+        return keepAliveTimeout;
+    }
+
+    public void setKeepAliveTimeout(Duration keepAliveTimeout) {
+        this.keepAliveTimeout = keepAliveTimeout;
+    }
+
+    public int getInitialWindowSize() {
+        return initialWindowSize;
+    }
+
+    public void setInitialWindowSize(int initialWindowSize) {
+        this.initialWindowSize = initialWindowSize;
+    }
+}
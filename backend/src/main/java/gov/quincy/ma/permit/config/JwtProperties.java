@@ -8,7 +8,14 @@ import org.springframework.stereotype.Component;
 public class JwtProperties {
 
     private String secret;
-    private long expirationMs = 86400000;
+    /** Access-token lifetime; short, since clients renew it with the refresh token rather than a password. */
+    private long expirationMs = 900000;
+    /** Refresh-token lifetime; each use rotates it and starts a new period. */
+    private long refreshExpirationMs = 14L * 24 * 60 * 60 * 1000;
+    private final Revocation revocation = new Revocation();
+    /** HS256 signs with {@code secret}; RS256 and EdDSA sign with rotating, {@code kid}-tagged key pairs. */
+    private Algorithm algorithm = Algorithm.HS256;
+    private final Keys keys = new Keys();
 
     public String getSecret() {
         return secret;
@@ -25,4 +32,132 @@ public class JwtProperties {
     public void setExpirationMs(long expirationMs) {
         this.expirationMs = expirationMs;
     }
+
+    public long getRefreshExpirationMs() {
+        return refreshExpirationMs;
+    }
+
+    public void setRefreshExpirationMs(long refreshExpirationMs) {
+        this.refreshExpirationMs = refreshExpirationMs;
+    }
+
+    public Revocation getRevocation() {
+        return revocation;
+    }
+
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(Algorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public Keys getKeys() {
+        return keys;
+    }
+
+    public enum Algorithm {
+        HS256,
+        /** RSA 2048 key pairs. */
+        RS256,
+        /** Ed25519 key pairs. */
+        EdDSA
+    }
+
+    /** The in-memory filter over revoked access-token ids. */
+    public static class Revocation {
+
+        /** Share of unrevoked tokens the filter sends to the database for confirmation. */
+        private double falsePositiveRate = 0.001;
+        /** How often the filter is rebuilt from the database, dropping ids whose tokens have expired. */
+        private long rebuildIntervalMs = 300000;
+
+        public double getFalsePositiveRate() {
+            return falsePositiveRate;
+        }
+
+        public void setFalsePositiveRate(double falsePositiveRate) {
+            this.falsePositiveRate = falsePositiveRate;
+        }
+
+        public long getRebuildIntervalMs() {
+            return rebuildIntervalMs;
+        }
+
+        public void setRebuildIntervalMs(long rebuildIntervalMs) {
+            this.rebuildIntervalMs = rebuildIntervalMs;
+        }
+    }
+
+    /** The asymmetric signing keys, used when {@code algorithm} is RS256 or EdDSA. */
+    public static class Keys {
+
+        /** How long a key pair signs before its successor takes over; it still verifies for one token lifetime after. */
+        private long rotationIntervalMs = 30L * 24 * 60 * 60 * 1000;
+        /** How often each node checks whether the current period's key exists yet. */
+        private long checkIntervalMs = 3600000;
+        /** Slack for clocks between nodes when deciding a predecessor can no longer have live tokens. */
+        private long clockSkewMs = 60000;
+        /** Minimum gap between reloads triggered by an unknown {@code kid}, so junk tokens cannot drive lookups. */
+        private long unknownKidReloadIntervalMs = 30000;
+        /**
+         * Another node's JWKS document; when set this node only verifies, fetching public keys from
+         * there instead of the database, and never holds a private key.
+         */
+        private String jwksUri;
+        /**
+         * Whether HS256 tokens (no {@code kid}) issued before the first key pair was created are still
+         * accepted, until one token lifetime plus clock skew after that. Off unless switching from HS256.
+         */
+        private boolean legacyHmacGrace;
+
+        public long getRotationIntervalMs() {
+            return rotationIntervalMs;
+        }
+
+        public void setRotationIntervalMs(long rotationIntervalMs) {
+            this.rotationIntervalMs = rotationIntervalMs;
+        }
+
+        public long getCheckIntervalMs() {
+            return checkIntervalMs;
+        }
+
+        public void setCheckIntervalMs(long checkIntervalMs) {
+            this.checkIntervalMs = checkIntervalMs;
+        }
+
+        public long getClockSkewMs() {
+            return clockSkewMs;
+        }
+
+        public void setClockSkewMs(long clockSkewMs) {
+            this.clockSkewMs = clockSkewMs;
+        }
+
+        public long getUnknownKidReloadIntervalMs() {
+            return unknownKidReloadIntervalMs;
+        }
+
+        public void setUnknownKidReloadIntervalMs(long unknownKidReloadIntervalMs) {
+            this.unknownKidReloadIntervalMs = unknownKidReloadIntervalMs;
+        }
+
+        public String getJwksUri() {
+            return jwksUri;
+        }
+
+        public void setJwksUri(String jwksUri) {
+            this.jwksUri = jwksUri;
+        }
+
+        public boolean isLegacyHmacGrace() {
+            return legacyHmacGrace;
+        }
+
+        public void setLegacyHmacGrace(boolean legacyHmacGrace) {
+            this.legacyHmacGrace = legacyHmacGrace;
+        }
+    }
 }
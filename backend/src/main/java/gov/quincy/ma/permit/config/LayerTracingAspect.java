@@ -0,0 +1,70 @@
+package gov.quincy.ma.permit.config;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.util.ClassUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An observation, so a span in the current trace plus a timer, around every public service
+ * method ({@code app.service}), repository call ({@code app.repository}) and document-store
+ * operation ({@code app.storage}, the file or S3 I/O behind {@code DocumentService}). Spans are
+ * named {@code type.method} in lower-hyphen case, cut to 50 characters by Micrometer Tracing, e.g.
+ * {@code application-service.list-my-applications}. Calls outside a sampled trace go straight
+ * through, so most requests pay nothing here and the timers cover sampled traces only.
+ * Calls within a class are not intercepted, so a service's own helpers show as part of its span.
+ */
+@Aspect
+class LayerTracingAspect {
+
+    private final ObservationRegistry registry;
+    private final Tracer tracer;
+    /** Repository proxies answer to their interface's name, not {@code $ProxyNN}. */
+    private final Map<Class<?>, String> typeNames = new ConcurrentHashMap<>();
+
+    LayerTracingAspect(ObservationRegistry registry, Tracer tracer) {
+        this.registry = registry;
+        this.tracer = tracer;
+    }
+
+    @Around("execution(public * gov.quincy.ma.permit.service..*.*(..)) && !within(gov.quincy.ma.permit.service.DocumentStore+)")
+    public Object service(ProceedingJoinPoint call) throws Throwable {
+        return observe("app.service", call);
+    }
+
+    @Around("execution(* gov.quincy.ma.permit.service.DocumentStore+.*(..))")
+    public Object storage(ProceedingJoinPoint call) throws Throwable {
+        return observe("app.storage", call);
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object repository(ProceedingJoinPoint call) throws Throwable {
+        return observe("app.repository", call);
+    }
+
+    private Object observe(String name, ProceedingJoinPoint call) throws Throwable {
+        Span parent = tracer.currentSpan();
+        if (parent == null || !Boolean.TRUE.equals(parent.context().sampled())) return call.proceed();
+        String type = typeNames.computeIfAbsent(call.getThis().getClass(), LayerTracingAspect::typeName);
+        String method = call.getSignature().getName();
+        return Observation.createNotStarted(name, registry)
+                .contextualName(type + "." + method)
+                .lowCardinalityKeyValue("type", type)
+                .lowCardinalityKeyValue("method", method)
+                .observeChecked((Observation.CheckedCallable<Object, Throwable>) call::proceed);
+    }
+
+    private static String typeName(Class<?> proxyClass) {
+        for (Class<?> candidate : proxyClass.getInterfaces()) {
+            if (candidate.getName().startsWith("gov.quincy.ma.permit.repository.")) return candidate.getSimpleName();
+        }
+        return ClassUtils.getUserClass(proxyClass).getSimpleName();
+    }
+}
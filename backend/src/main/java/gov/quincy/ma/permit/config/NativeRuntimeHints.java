@@ -0,0 +1,58 @@
+package gov.quincy.ma.permit.config;
+
+import gov.quincy.ma.permit.dto.StageStatsDto;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Reflection a native image can't discover on its own: the Jackson format mapper Hibernate uses
+ * for {@code @JdbcTypeCode(SqlTypes.JSON)} columns and the collections it reads them into, JPQL
+ * constructor expressions, and the jjwt implementation classes that {@code Jwts}, {@code Keys} and
+ * {@code Jwks} load by name. BCrypt needs nothing: it is plain Java and its {@code SecureRandom} is created
+ * when the encoder bean is, at run time.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    static final List<String> JJWT_IMPLEMENTATION = List.of(
+            "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+            "io.jsonwebtoken.impl.security.DefaultDynamicJwkBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkSetParserBuilder",
+            "io.jsonwebtoken.impl.security.DefaultKeyOperationPolicyBuilder",
+            "io.jsonwebtoken.impl.security.JwksBridge",
+            "io.jsonwebtoken.impl.security.KeysBridge",
+            "io.jsonwebtoken.impl.security.StandardCurves",
+            "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyOperations",
+            "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer"
+    );
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.reflection().registerType(TypeReference.of("org.hibernate.type.format.jackson.JacksonJsonFormatMapper"),
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        Stream.of(LinkedHashMap.class, HashMap.class, ArrayList.class)
+                .forEach(type -> hints.reflection().registerType(type, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS));
+        hints.reflection().registerType(StageStatsDto.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+
+        JJWT_IMPLEMENTATION.forEach(name -> hints.reflection().registerType(TypeReference.of(name),
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS,
+                MemberCategory.DECLARED_FIELDS));
+        hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+    }
+}
@@ -0,0 +1,74 @@
+package gov.quincy.ma.permit.config;
+
+import io.opentelemetry.exporter.logging.otlp.OtlpJsonLoggingSpanExporter;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import java.util.logging.StreamHandler;
+
+/**
+ * Appends spans to a file as OTLP JSON, one {@code ResourceSpans} object per line. The JSON comes
+ * from OpenTelemetry's {@link OtlpJsonLoggingSpanExporter}, which writes each line to a
+ * {@code java.util.logging} logger; this points that logger at the file and keeps its lines out of
+ * the application log.
+ */
+class OtlpJsonFileSpanExporter implements SpanExporter {
+
+    /** Held so the logger, and the handler on it, are not garbage collected. */
+    private final Logger logger = Logger.getLogger(OtlpJsonLoggingSpanExporter.class.getName());
+    private final StreamHandler handler;
+    private final SpanExporter delegate;
+
+    OtlpJsonFileSpanExporter(Path file) throws IOException {
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        handler = new StreamHandler(Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND),
+                new Formatter() {
+                    @Override
+                    public String format(LogRecord record) {
+                        return record.getMessage() + System.lineSeparator();
+                    }
+                });
+        try {
+            handler.setEncoding("UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+        // the exporter logs at INFO; a quieter root level must not drop spans
+        logger.setLevel(Level.INFO);
+        logger.setUseParentHandlers(false);
+        logger.addHandler(handler);
+        delegate = OtlpJsonLoggingSpanExporter.create();
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        CompletableResultCode result = delegate.export(spans);
+        handler.flush();
+        return result;
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        handler.flush();
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        CompletableResultCode result = delegate.shutdown();
+        logger.removeHandler(handler);
+        handler.close();
+        return result;
+    }
+}
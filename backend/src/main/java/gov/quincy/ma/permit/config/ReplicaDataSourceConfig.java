@@ -0,0 +1,104 @@
+package gov.quincy.ma.permit.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Primary/replica pools behind a routing DataSource. Only active when
+ * {@code app.datasource.replica.enabled=true}; otherwise Boot's single pool is used.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaDataSourceConfig.class);
+
+    private final ReplicaDataSourceProperties replicaProperties;
+    private final AtomicLong lastLagMs = new AtomicLong();
+    private ReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate replicaJdbc;
+
+    public ReplicaDataSourceConfig(ReplicaDataSourceProperties replicaProperties) {
+        this.replicaProperties = replicaProperties;
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource ds = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        ds.setPoolName("primary");
+        return ds;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(DataSourceProperties primary) {
+        HikariDataSource ds = new HikariDataSource();
+        ds.setPoolName("replica");
+        ds.setJdbcUrl(replicaProperties.getUrl());
+        ds.setUsername(replicaProperties.getUsername() != null ? replicaProperties.getUsername() : primary.getUsername());
+        ds.setPassword(replicaProperties.getPassword() != null ? replicaProperties.getPassword() : primary.getPassword());
+        ds.setDriverClassName(replicaProperties.getDriverClassName() != null
+                ? replicaProperties.getDriverClassName()
+                : primary.determineDriverClassName());
+        ds.setMaximumPoolSize(replicaProperties.getMaximumPoolSize());
+        ds.setReadOnly(true);
+        return ds;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+                                 HikariDataSource replicaDataSource,
+                                 MeterRegistry meterRegistry) {
+        routingDataSource = new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, meterRegistry);
+        routingDataSource.afterPropertiesSet();
+        replicaJdbc = new JdbcTemplate(replicaDataSource);
+        Gauge.builder("datasource.replica.lag", lastLagMs, AtomicLong::get)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.available", routingDataSource, r -> r.isReplicaAvailable() ? 1 : 0)
+                .register(meterRegistry);
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval-ms:5000}")
+    public void checkReplicaLag() {
+        if (routingDataSource == null) return;
+        String query = replicaProperties.getLagQuery();
+        try {
+            long lag = 0;
+            if (query != null && !query.isBlank()) {
+                Number n = replicaJdbc.queryForObject(query, Number.class);
+                lag = n != null ? n.longValue() : 0;
+            } else {
+                replicaJdbc.execute("SELECT 1");
+            }
+            lastLagMs.set(lag);
+            boolean available = lag <= replicaProperties.getMaxLagMs();
+            if (available != routingDataSource.isReplicaAvailable()) {
+                log.warn("Replica {} (lag {} ms)", available ? "back in rotation" : "taken out of rotation", lag);
+            }
+            routingDataSource.setReplicaAvailable(available);
+        } catch (Exception e) {
+            if (routingDataSource.isReplicaAvailable()) {
+                log.warn("Replica unreachable, routing reads to primary: {}", e.getMessage());
+            }
+            routingDataSource.setReplicaAvailable(false);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package gov.quincy.ma.permit.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "app.single-flight")
+public class SingleFlightProperties {
+
+    private boolean enabled = true;
+    /** Per endpoint name, as passed to {@code SingleFlight.execute}; unlisted endpoints use the defaults. */
+    private Map<String, Endpoint> endpoints = new HashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Map<String, Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(Map<String, Endpoint> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    public Endpoint endpoint(String name) {
+        return endpoints.getOrDefault(name, Endpoint.DEFAULTS);
+    }
+
+    /** How request parameters become the key that decides which requests are "identical". */
+    public enum KeyMode {
+        /** Parameters as sent. */
+        EXACT,
+        /** Trimmed, whitespace collapsed and lower-cased; only for lookups that ignore case and padding. */
+        NORMALIZED;
+
+        public String apply(String key) {
+            if (this == EXACT || key == null) return key;
+            return key.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        }
+    }
+
+    public static class Endpoint {
+
+        static final Endpoint DEFAULTS = new Endpoint();
+
+        private boolean enabled = true;
+        private KeyMode key = KeyMode.EXACT;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public KeyMode getKey() {
+            return key;
+        }
+
+        public void setKey(KeyMode key) {
+            this.key = key;
+        }
+    }
+}
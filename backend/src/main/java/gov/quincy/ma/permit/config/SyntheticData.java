@@ -0,0 +1,100 @@
+package gov.quincy.ma.permit.config;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Plausible Quincy values for generated accounts, properties and permit forms. Shared by the
+ * dataset generator and the load-test driver so both fill forms the same way.
+ */
+public final class SyntheticData {
+
+    private static final List<String> FIRST_NAMES = List.of("Mary", "John", "Linh", "Patrick", "Wei", "Kathleen",
+            "Michael", "Ana", "Thomas", "Mei", "Brian", "Siobhan", "David", "Thu", "Kevin", "Maureen", "Paul", "Jia");
+    private static final List<String> LAST_NAMES = List.of("Murphy", "Sullivan", "Nguyen", "Chen", "O'Brien", "Walsh",
+            "Tran", "Kelly", "Li", "McCarthy", "Pham", "Ryan", "Wong", "Flaherty", "Lee", "Doherty", "Huang", "Keane");
+    private static final List<String> STREETS = List.of("Hancock St", "Washington St", "Quincy Shore Dr", "Sea St",
+            "Adams St", "Newport Ave", "Copeland St", "Franklin St", "Southern Artery", "Wollaston Ave", "Beale St",
+            "Granite St", "Furnace Brook Pkwy", "Willard St", "Common St", "Water St", "Billings Rd", "Hollis Ave");
+    private static final List<String> ZIP_CODES = List.of("02169", "02170", "02171");
+    private static final List<String> WORK = List.of("Replace rear deck with composite decking and new railings",
+            "Finish basement with one bedroom and a full bath", "Kitchen remodel, relocate sink, add island circuit",
+            "Install 8.4 kW rooftop solar array with new subpanel", "Replace two-family roof, strip to deck",
+            "Convert attached garage to accessory dwelling unit", "Upgrade service to 200 A and rewire first floor",
+            "Replace gas boiler and indirect water heater", "Two-story rear addition, 420 sq ft",
+            "Repave driveway and add curb cut", "Interior demolition ahead of storefront fit-out");
+
+    private SyntheticData() {
+    }
+
+    public static String personName(Random random) {
+        return pick(random, FIRST_NAMES) + " " + pick(random, LAST_NAMES);
+    }
+
+    public static String address(Random random) {
+        return (1 + random.nextInt(1200)) + " " + pick(random, STREETS) + ", Quincy, MA " + pick(random, ZIP_CODES);
+    }
+
+    public static String phone(Random random) {
+        return String.format("617-%03d-%04d", 200 + random.nextInt(800), random.nextInt(10000));
+    }
+
+    public static String email(Random random) {
+        return pick(random, FIRST_NAMES).toLowerCase() + "." + pick(random, LAST_NAMES).toLowerCase().replace("'", "")
+                + random.nextInt(100) + "@example.com";
+    }
+
+    public static String workDescription(Random random) {
+        return pick(random, WORK);
+    }
+
+    /**
+     * Values for the fields of a permit type's form schema. {@code completeness} below 1 leaves
+     * the tail of the form empty, the way a draft looks part-way through.
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> formData(Map<String, Object> formSchema, Random random, double completeness) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        if (formSchema == null || !(formSchema.get("fields") instanceof List<?> fields)) return data;
+        int filled = (int) Math.ceil(fields.size() * completeness);
+        for (Object f : fields.subList(0, Math.min(filled, fields.size()))) {
+            Map<String, Object> field = (Map<String, Object>) f;
+            data.put((String) field.get("name"), value(field, random));
+        }
+        return data;
+    }
+
+    private static Object value(Map<String, Object> field, Random random) {
+        String name = String.valueOf(field.get("name")).toLowerCase();
+        String type = String.valueOf(field.get("type"));
+        Object typed = switch (type) {
+            case "checkbox" -> true;
+            case "date" -> LocalDate.of(2025, 1, 1).plusDays(random.nextInt(540)).toString();
+            case "email" -> email(random);
+            case "tel" -> phone(random);
+            case "number" -> name.contains("value") ? 5_000 + random.nextInt(495_000)
+                    : name.contains("area") ? 400 + random.nextInt(4_600)
+                    : 1 + random.nextInt(6);
+            case "select" -> field.get("options") instanceof List<?> options && !options.isEmpty()
+                    ? options.get(random.nextInt(options.size())) : "Other";
+            case "textarea" -> workDescription(random);
+            default -> null;
+        };
+        if (typed != null) return typed;
+        if (name.contains("address") || name.contains("location")) return address(random);
+        if (name.contains("city")) return "Quincy";
+        if (name.contains("zip")) return pick(random, ZIP_CODES);
+        if (name.contains("license") || name.contains("registration") || name.contains("number")) {
+            return String.format("%s-%06d", name.contains("hic") ? "HIC" : "CS", random.nextInt(1_000_000));
+        }
+        if (name.contains("name")) return personName(random);
+        return "N/A";
+    }
+
+    public static <T> T pick(Random random, List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+}
@@ -0,0 +1,34 @@
+package gov.quincy.ma.permit.config;
+
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.Tracer;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Wiring for request tracing. Spring Boot provides the OpenTelemetry tracer, the HTTP server span
+ * that roots each trace, head-based sampling and the OTLP exporter; this adds the local file
+ * exporter and the spans for the application's own layers. Trace and span ids reach the logs
+ * through the MDC ({@code traceId}, {@code spanId}).
+ */
+@Configuration
+public class TracingConfig {
+
+    /** Picked up by Boot's span processor alongside any OTLP exporter. */
+    @Bean
+    @ConditionalOnProperty(prefix = "app.tracing", name = "file")
+    public SpanExporter otlpJsonFileSpanExporter(TracingProperties properties) throws IOException {
+        return new OtlpJsonFileSpanExporter(Path.of(properties.getFile()));
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.tracing", name = "layers", havingValue = "true", matchIfMissing = true)
+    public LayerTracingAspect layerTracingAspect(ObservationRegistry registry, Tracer tracer) {
+        return new LayerTracingAspect(registry, tracer);
+    }
+}
@@ -0,0 +1,38 @@
+package gov.quincy.ma.permit.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Application spans on top of Micrometer Tracing. Sampling is the standard
+ * {@code management.tracing.sampling.probability}, decided once at the root span and inherited.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.tracing")
+public class TracingProperties {
+
+    /** Spans around service methods, repository calls and document-store I/O. */
+    private boolean layers = true;
+    /**
+     * Appends sampled spans to this file as OTLP JSON, one {@code ResourceSpans} object per line, in
+     * the format of OpenTelemetry's logging-otlp exporter. Unset, spans go only to the OTLP
+     * endpoint, if {@code management.otlp.tracing.endpoint} is set.
+     */
+    private String file;
+
+    public boolean isLayers() {
+        return layers;
+    }
+
+    public void setLayers(boolean layers) {
+        this.layers = layers;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+}
@@ -0,0 +1,29 @@
+package gov.quincy.ma.permit.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "app.work-queue")
+public class WorkQueueProperties {
+
+    /** How long a claim lasts without a heartbeat before the application goes back in the queue. */
+    private long leaseSeconds = 600;
+    private int maxClaim = 25;
+
+    public long getLeaseSeconds() {
+        return leaseSeconds;
+    }
+
+    public void setLeaseSeconds(long leaseSeconds) {
+        this.leaseSeconds = leaseSeconds;
+    }
+
+    public int getMaxClaim() {
+        return maxClaim;
+    }
+
+    public void setMaxClaim(int maxClaim) {
+        this.maxClaim = maxClaim;
+    }
+}
@@ -1,16 +1,33 @@
 package gov.quincy.ma.permit.controller;
 
+import gov.quincy.ma.permit.dto.ApplicationDetailDto;
 import gov.quincy.ma.permit.dto.ApplicationDto;
+import gov.quincy.ma.permit.dto.ApplicationTransitionDto;
 import gov.quincy.ma.permit.dto.CreateApplicationRequest;
 import gov.quincy.ma.permit.dto.DocumentDto;
+import gov.quincy.ma.permit.dto.StageStatsDto;
 import gov.quincy.ma.permit.dto.UpdateApplicationRequest;
+import gov.quincy.ma.permit.service.ApplicationQueueService;
 import gov.quincy.ma.permit.service.ApplicationService;
 import gov.quincy.ma.permit.service.DocumentService;
+import gov.quincy.ma.permit.service.IdempotentRequests;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.apache.commons.fileupload2.core.DiskFileItem;
+import org.apache.commons.fileupload2.core.DiskFileItemFactory;
+import org.apache.commons.fileupload2.core.FileItemInputIterator;
+import org.apache.commons.fileupload2.jakarta.servlet6.JakartaServletFileUpload;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 
 @RestController
@@ -18,26 +35,81 @@ import java.util.List;
 public class ApplicationController {
 
     private final ApplicationService applicationService;
+    private final ApplicationQueueService queueService;
     private final DocumentService documentService;
+    private final MultipartProperties multipartProperties;
+    private final IdempotentRequests idempotentRequests;
 
-    public ApplicationController(ApplicationService applicationService, DocumentService documentService) {
+    public ApplicationController(ApplicationService applicationService, ApplicationQueueService queueService,
+                                 DocumentService documentService, MultipartProperties multipartProperties,
+                                 IdempotentRequests idempotentRequests) {
         this.applicationService = applicationService;
+        this.queueService = queueService;
         this.documentService = documentService;
+        this.multipartProperties = multipartProperties;
+        this.idempotentRequests = idempotentRequests;
     }
 
+    private static <T> ResponseEntity<T> ok(IdempotentRequests.Outcome<T> outcome) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (outcome.replayed()) response.header(IdempotentRequests.REPLAYED_HEADER, "true");
+        return response.body(outcome.body());
+    }
+
+    /** A retry carrying the same {@code Idempotency-Key} gets the draft the first attempt created. */
     @PostMapping
-    public ResponseEntity<ApplicationDto> create(@Valid @RequestBody CreateApplicationRequest request) {
-        return ResponseEntity.ok(applicationService.create(request));
+    public ResponseEntity<ApplicationDto> create(@Valid @RequestBody CreateApplicationRequest request,
+                                                 @RequestHeader(value = IdempotentRequests.HEADER, required = false) String idempotencyKey) {
+        return ok(idempotentRequests.execute("applications.create", idempotencyKey,
+                idempotencyKey == null ? null : idempotentRequests.fingerprint(request),
+                () -> applicationService.create(request)));
     }
 
+    /** {@code ?fields=id,status,permitTypeName} selects and returns only those {@code ApplicationDto} fields. */
     @GetMapping
-    public ResponseEntity<List<ApplicationDto>> list() {
-        return ResponseEntity.ok(applicationService.listMyApplications());
+    public ResponseEntity<List<?>> list(@RequestParam(required = false) String fields) {
+        List<String> selected = ApplicationService.parseListFields(fields);
+        return ResponseEntity.ok(selected == null
+                ? applicationService.listMyApplications()
+                : applicationService.listMyApplications(selected));
     }
 
     @GetMapping("/staff")
-    public ResponseEntity<List<ApplicationDto>> listAllForStaff() {
-        return ResponseEntity.ok(applicationService.listAllForStaff());
+    public ResponseEntity<List<?>> listAllForStaff(@RequestParam(required = false) String fields) {
+        List<String> selected = ApplicationService.parseListFields(fields);
+        return ResponseEntity.ok(selected == null
+                ? applicationService.listAllForStaff()
+                : applicationService.listAllForStaff(selected));
+    }
+
+    /**
+     * Per permit type and stage: how many applications left the stage since {@code since}
+     * (default: the last 30 days), how long they spent in it, and how many exceeded {@code slaHours}.
+     */
+    @GetMapping("/staff/stats")
+    public ResponseEntity<List<StageStatsDto>> stageStats(@RequestParam(required = false) Instant since,
+                                                          @RequestParam(defaultValue = "72") long slaHours) {
+        Instant from = since != null ? since : Instant.now().minus(Duration.ofDays(30));
+        return ResponseEntity.ok(applicationService.stageStats(from, Duration.ofHours(slaHours)));
+    }
+
+    /** Claims up to {@code count} of the oldest unclaimed submissions for the calling reviewer. */
+    @PostMapping("/queue/claim")
+    public ResponseEntity<List<ApplicationDto>> claim(@RequestParam(required = false) Long permitTypeId,
+                                                      @RequestParam(defaultValue = "1") int count) {
+        return ResponseEntity.ok(queueService.claim(permitTypeId, count));
+    }
+
+    /** Renews the caller's claims on the given ids; answers with the ids still held. */
+    @PostMapping("/queue/heartbeat")
+    public ResponseEntity<List<Long>> heartbeat(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(queueService.heartbeat(ids));
+    }
+
+    @PostMapping("/queue/release")
+    public ResponseEntity<Void> release(@RequestBody List<Long> ids) {
+        queueService.release(ids);
+        return ResponseEntity.noContent().build();
     }
 
     @GetMapping("/{id}")
@@ -45,20 +117,55 @@ public class ApplicationController {
         return ResponseEntity.ok(applicationService.getById(id));
     }
 
+    /**
+     * Application, permit type, applicant, reviewer, documents and history in one response;
+     * {@code ?fields=application,documents} limits it to the named parts.
+     */
+    @GetMapping("/{id}/detail")
+    public ResponseEntity<ApplicationDetailDto> detail(@PathVariable Long id, @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(applicationService.detail(id, ApplicationService.parseDetailFields(fields)));
+    }
+
     @PatchMapping("/{id}")
     public ResponseEntity<ApplicationDto> update(@PathVariable Long id, @RequestBody UpdateApplicationRequest request) {
         return ResponseEntity.ok(applicationService.update(id, request));
     }
 
+    @GetMapping("/{id}/events")
+    public ResponseEntity<List<ApplicationTransitionDto>> history(@PathVariable Long id) {
+        return ResponseEntity.ok(applicationService.history(id));
+    }
+
     @GetMapping("/{id}/documents")
     public ResponseEntity<List<DocumentDto>> listDocuments(@PathVariable Long id) {
-        applicationService.getById(id); // permission check
         return ResponseEntity.ok(documentService.findByApplicationId(id));
     }
 
+    /** A retry carrying the same {@code Idempotency-Key} gets the first attempt's document; the file isn't stored twice. */
     @PostMapping("/{id}/documents")
-    public ResponseEntity<DocumentDto> uploadDocument(@PathVariable Long id, @RequestParam("file") MultipartFile file) {
-        applicationService.getById(id); // permission check
-        return ResponseEntity.ok(documentService.attachToApplication(id, file));
+    public ResponseEntity<DocumentDto> uploadDocument(@PathVariable Long id, @RequestParam("file") MultipartFile file,
+                                                      @RequestHeader(value = IdempotentRequests.HEADER, required = false) String idempotencyKey) {
+        return ok(idempotentRequests.execute("applications.documents", idempotencyKey,
+                idempotencyKey == null ? null : idempotentRequests.fingerprint(
+                        List.of(id, String.valueOf(file.getOriginalFilename()), String.valueOf(file.getContentType()), file.getSize())),
+                () -> documentService.attachToApplication(id, file)));
+    }
+
+    /**
+     * Any number of {@code file} parts in one request. The body is read part by part rather than
+     * through {@link MultipartFile}, so nothing is buffered beyond the part being written.
+     */
+    @PostMapping(value = "/{id}/documents/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<List<DocumentDto>> uploadDocuments(@PathVariable Long id, HttpServletRequest request) {
+        JakartaServletFileUpload<DiskFileItem, DiskFileItemFactory> upload = new JakartaServletFileUpload<>();
+        upload.setFileSizeMax(multipartProperties.getMaxFileSize().toBytes());
+        upload.setSizeMax(multipartProperties.getMaxRequestSize().toBytes());
+        FileItemInputIterator parts;
+        try {
+            parts = upload.getItemIterator(request);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed multipart request");
+        }
+        return ResponseEntity.ok(documentService.attachAllToApplication(id, parts));
     }
 }
@@ -2,10 +2,15 @@ package gov.quincy.ma.permit.controller;
 
 import gov.quincy.ma.permit.dto.AuthResponse;
 import gov.quincy.ma.permit.dto.LoginRequest;
+import gov.quincy.ma.permit.dto.RefreshRequest;
 import gov.quincy.ma.permit.dto.RegisterRequest;
-import gov.quincy.ma.permit.repository.UserRepository;
+import gov.quincy.ma.permit.security.AuthenticatedUser;
+import gov.quincy.ma.permit.security.JwtService;
 import gov.quincy.ma.permit.service.AuthService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
@@ -17,11 +22,11 @@ import java.util.Map;
 public class AuthController {
 
     private final AuthService authService;
-    private final UserRepository userRepository;
+    private final JwtService jwtService;
 
-    public AuthController(AuthService authService, UserRepository userRepository) {
+    public AuthController(AuthService authService, JwtService jwtService) {
         this.authService = authService;
-        this.userRepository = userRepository;
+        this.jwtService = jwtService;
     }
 
     @PostMapping("/register")
@@ -40,18 +45,37 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
+    /** Trades a refresh token for a new access token and a new refresh token; the old one is spent. */
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshRequest request) {
+        return ResponseEntity.ok(authService.refresh(request.getRefreshToken()));
+    }
+
+    /** Revokes the bearer access token and, when given, the refresh token's whole session. */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                       @RequestBody(required = false) RefreshRequest request) {
+        Claims accessToken = null;
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            try {
+                accessToken = jwtService.parseToken(authorization.substring("Bearer ".length()));
+            } catch (JwtException | IllegalArgumentException ignored) {
+                // expired or invalid: nothing left to revoke
+            }
+        }
+        authService.logout(accessToken, request != null ? request.getRefreshToken() : null);
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/me")
-    public ResponseEntity<Map<String, Object>> me(@AuthenticationPrincipal(expression = "principal") Object principal) {
-        String email = principal instanceof String ? (String) principal : null;
-        if (email == null) {
+    public ResponseEntity<Map<String, Object>> me(@AuthenticationPrincipal AuthenticatedUser user) {
+        if (user == null || user.getRole() == null) {
             return ResponseEntity.status(401).build();
         }
-        return userRepository.findByEmail(email)
-                .map(user -> ResponseEntity.ok(Map.<String, Object>of(
-                        "email", user.getEmail(),
-                        "name", user.getName(),
-                        "role", user.getRole().name()
-                )))
-                .orElse(ResponseEntity.status(401).build());
+        return ResponseEntity.ok(Map.of(
+                "email", user.getEmail(),
+                "name", user.getDisplayName() != null ? user.getDisplayName() : "",
+                "role", user.getRole().name()
+        ));
     }
 }
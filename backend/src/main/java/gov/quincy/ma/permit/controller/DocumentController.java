@@ -1,48 +1,148 @@
 package gov.quincy.ma.permit.controller;
 
 import gov.quincy.ma.permit.dto.DocumentDto;
+import gov.quincy.ma.permit.service.DocumentCatalog;
+import gov.quincy.ma.permit.service.DocumentContent;
 import gov.quincy.ma.permit.service.DocumentService;
+import gov.quincy.ma.permit.service.EncodedJson;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
 import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.util.List;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/documents")
 public class DocumentController {
 
     private final DocumentService documentService;
+    private final DocumentCatalog catalog;
 
-    public DocumentController(DocumentService documentService) {
+    public DocumentController(DocumentService documentService, DocumentCatalog catalog) {
         this.documentService = documentService;
+        this.catalog = catalog;
     }
 
+    /** The list is usually served pre-serialized, so its element type isn't visible from the signature. */
     @GetMapping
-    public ResponseEntity<List<DocumentDto>> list(
+    @RegisterReflectionForBinding(DocumentDto.class)
+    public ResponseEntity<?> list(
             @RequestParam(required = false) String category,
-            @RequestParam(required = false) String search
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String mode,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest request
     ) {
+        if (search != null && !search.isBlank() && "ranked".equalsIgnoreCase(mode)) {
+            return fromCatalog(request, snapshot -> catalog.searchRanked(snapshot, search, limit));
+        }
         if (search != null && !search.isBlank()) {
-            return ResponseEntity.ok(documentService.searchByName(search));
+            return fromCatalog(request, snapshot -> catalog.search(snapshot, search));
         }
-        return ResponseEntity.ok(documentService.listByCategory(category));
+        return encodedFromCatalog(request, acceptEncoding, snapshot -> catalog.encodedList(snapshot, category));
     }
 
     @GetMapping("/categories")
-    public ResponseEntity<List<String>> categories() {
-        return ResponseEntity.ok(documentService.listCategories());
+    public ResponseEntity<byte[]> categories(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest request
+    ) {
+        return encodedFromCatalog(request, acceptEncoding, catalog::encodedCategories);
     }
 
-    @GetMapping("/{id}/file")
-    public ResponseEntity<Resource> getFile(@PathVariable Long id) {
-        Resource resource = documentService.getFile(id);
+    /**
+     * Every catalog response is derived from one snapshot, so the snapshot's tag is a valid
+     * validator for each of them; a matching If-None-Match gets a 304 without building a body.
+     */
+    private <T> ResponseEntity<T> fromCatalog(WebRequest request, Function<DocumentCatalog.Snapshot, T> body) {
+        DocumentCatalog.Snapshot snapshot = catalog.snapshot();
+        if (request.checkNotModified(snapshot.etag())) return null;
         return ResponseEntity.ok()
+                .eTag(snapshot.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(body.apply(snapshot));
+    }
+
+    /**
+     * Like {@link #fromCatalog}, for views whose body is memoized per snapshot: the bytes, already
+     * gzipped when the client accepts it, are written as-is and the container doesn't compress again.
+     */
+    private ResponseEntity<byte[]> encodedFromCatalog(WebRequest request, String acceptEncoding,
+                                                      Function<DocumentCatalog.Snapshot, EncodedJson> body) {
+        DocumentCatalog.Snapshot snapshot = catalog.snapshot();
+        if (request.checkNotModified(snapshot.etag())) return null;
+        EncodedJson encoded = body.apply(snapshot);
+        var response = ResponseEntity.ok()
+                .eTag(snapshot.etag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (encoded.gzip() != null && acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(encoded.gzip());
+        }
+        return response.body(encoded.identity());
+    }
+
+    @GetMapping("/{id}/file")
+    public ResponseEntity<Resource> getFile(@PathVariable Long id,
+                                            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        DocumentContent content = documentService.getFile(id, acceptsGzip(acceptEncoding));
+        if (content.redirect() != null) {
+            return ResponseEntity.status(HttpStatus.FOUND)
+                    .location(content.redirect())
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .cacheControl(CacheControl.noStore())
+                    .build();
+        }
+        var response = ResponseEntity.ok()
                 .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + resource.getFilename() + "\"")
-                .body(resource);
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + content.fileName() + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (content.contentEncoding() != null) response.header(HttpHeaders.CONTENT_ENCODING, content.contentEncoding());
+        return response.body(content.resource());
+    }
+
+    /**
+     * Whether the client takes a gzip body: an explicit {@code gzip} coding decides, otherwise
+     * {@code *} does; either with {@code q=0} is a refusal.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        Double gzip = null;
+        Double any = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim();
+            double q = 1.0;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim();
+                if (param.length() > 2 && param.substring(0, 2).equalsIgnoreCase("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (coding.equalsIgnoreCase("gzip") || coding.equalsIgnoreCase("x-gzip")) gzip = q;
+            else if (coding.equals("*")) any = q;
+        }
+        Double q = gzip != null ? gzip : any;
+        return q != null && q > 0;
+    }
+
+    @GetMapping("/{id}/thumbnail")
+    public ResponseEntity<Resource> getThumbnail(@PathVariable Long id) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_PNG)
+                .body(documentService.getThumbnail(id));
     }
 }
@@ -0,0 +1,39 @@
+package gov.quincy.ma.permit.controller;
+
+import gov.quincy.ma.permit.security.JwtKeyRing;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.Jwks;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The public halves of the JWT signing keys, for nodes and services that verify tokens without
+ * holding a private key. Empty while {@code jwt.algorithm} is HS256. Verifiers refetch on an
+ * unknown {@code kid}, so a short cache lifetime costs nothing at rotation.
+ */
+@RestController
+public class JwksController {
+
+    private final JwtKeyRing keyRing;
+
+    public JwksController(JwtKeyRing keyRing) {
+        this.keyRing = keyRing;
+    }
+
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, List<Jwk<?>>>> jwks() {
+        List<Jwk<?>> keys = keyRing.publicKeys().entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .<Jwk<?>>map(entry -> Jwks.builder().key(entry.getValue()).id(entry.getKey()).publicKeyUse("sig").build())
+                .toList();
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(Map.of("keys", keys));
+    }
+}
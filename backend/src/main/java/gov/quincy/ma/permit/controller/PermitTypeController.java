@@ -2,6 +2,7 @@ package gov.quincy.ma.permit.controller;
 
 import gov.quincy.ma.permit.dto.PermitTypeDto;
 import gov.quincy.ma.permit.service.PermitTypeService;
+import gov.quincy.ma.permit.service.SingleFlight;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -12,14 +13,16 @@ import java.util.List;
 public class PermitTypeController {
 
     private final PermitTypeService permitTypeService;
+    private final SingleFlight singleFlight;
 
-    public PermitTypeController(PermitTypeService permitTypeService) {
+    public PermitTypeController(PermitTypeService permitTypeService, SingleFlight singleFlight) {
         this.permitTypeService = permitTypeService;
+        this.singleFlight = singleFlight;
     }
 
     @GetMapping
     public ResponseEntity<List<PermitTypeDto>> list() {
-        return ResponseEntity.ok(permitTypeService.findAll());
+        return ResponseEntity.ok(singleFlight.execute("permit-types", "", permitTypeService::findAll));
     }
 
     @GetMapping("/{id}")
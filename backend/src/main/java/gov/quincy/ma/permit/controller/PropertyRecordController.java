@@ -2,6 +2,7 @@ package gov.quincy.ma.permit.controller;
 
 import gov.quincy.ma.permit.dto.PropertyRecordDto;
 import gov.quincy.ma.permit.repository.PropertyRecordRepository;
+import gov.quincy.ma.permit.service.SingleFlight;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -13,21 +14,24 @@ import java.util.stream.Collectors;
 public class PropertyRecordController {
 
     private final PropertyRecordRepository propertyRecordRepository;
+    private final SingleFlight singleFlight;
 
-    public PropertyRecordController(PropertyRecordRepository propertyRecordRepository) {
+    public PropertyRecordController(PropertyRecordRepository propertyRecordRepository, SingleFlight singleFlight) {
         this.propertyRecordRepository = propertyRecordRepository;
+        this.singleFlight = singleFlight;
     }
 
     @GetMapping("/search")
     public ResponseEntity<List<PropertyRecordDto>> search(@RequestParam(required = false) String q) {
         if (q == null || q.isBlank()) {
-            return ResponseEntity.ok(propertyRecordRepository.findAll().stream()
-                    .map(PropertyRecordDto::fromEntity)
-                    .collect(Collectors.toList()));
+            return ResponseEntity.ok(singleFlight.execute("property-records", "", () ->
+                    propertyRecordRepository.findAll().stream()
+                            .map(PropertyRecordDto::fromEntity)
+                            .collect(Collectors.toList())));
         }
-        List<PropertyRecordDto> results = propertyRecordRepository.searchByAddressOrParcel(q).stream()
-                .map(PropertyRecordDto::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(results);
+        return ResponseEntity.ok(singleFlight.execute("property-search", q, () ->
+                propertyRecordRepository.searchByAddressOrParcel(q).stream()
+                        .map(PropertyRecordDto::fromEntity)
+                        .collect(Collectors.toList())));
     }
 }
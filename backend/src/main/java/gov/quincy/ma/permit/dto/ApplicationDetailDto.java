@@ -0,0 +1,54 @@
+package gov.quincy.ma.permit.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import gov.quincy.ma.permit.entity.User;
+
+import java.util.List;
+
+/**
+ * Everything the application detail page shows, in one response. Parts left out with
+ * {@code ?fields=} are omitted from the JSON rather than sent as null.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ApplicationDetailDto(
+    ApplicationDto application,
+    PermitTypeDto permitType,
+    Person applicant,
+    Person reviewer,
+    List<DocumentDto> documents,
+    List<ApplicationTransitionDto> events
+) {
+    public enum Field {
+        APPLICATION("application"),
+        PERMIT_TYPE("permitType"),
+        APPLICANT("applicant"),
+        REVIEWER("reviewer"),
+        DOCUMENTS("documents"),
+        EVENTS("events");
+
+        private final String key;
+
+        Field(String key) {
+            this.key = key;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        /** The field named {@code key} as it appears in the JSON, or null when there is none. */
+        public static Field fromKey(String key) {
+            for (Field field : values()) {
+                if (field.key.equals(key)) return field;
+            }
+            return null;
+        }
+    }
+
+    /** Who filed or reviews the application: id and name only, since applicants see the reviewer too. */
+    public record Person(Long id, String name) {
+        public static Person fromEntity(User user) {
+            return user == null ? null : new Person(user.getId(), user.getName());
+        }
+    }
+}
@@ -1,9 +1,9 @@
 package gov.quincy.ma.permit.dto;
 
 import gov.quincy.ma.permit.entity.Application;
+import gov.quincy.ma.permit.entity.RawJson;
 
 import java.time.Instant;
-import java.util.Map;
 
 public record ApplicationDto(
     Long id,
@@ -13,10 +13,12 @@ public record ApplicationDto(
     String permitTypeName,
     String permitTypeSlug,
     Application.Status status,
-    Map<String, Object> formData,
+    RawJson formData,
     Instant submittedAt,
     Instant reviewedAt,
     Long reviewerId,
+    Long assigneeId,
+    Instant leaseExpiresAt,
     String staffNotes,
     Instant createdAt,
     Instant updatedAt
@@ -34,6 +36,8 @@ public record ApplicationDto(
             app.getSubmittedAt(),
             app.getReviewedAt(),
             app.getReviewer() != null ? app.getReviewer().getId() : null,
+            app.getAssignee() != null ? app.getAssignee().getId() : null,
+            app.getLeaseExpiresAt(),
             app.getStaffNotes(),
             app.getCreatedAt(),
             app.getUpdatedAt()
@@ -0,0 +1,24 @@
+package gov.quincy.ma.permit.dto;
+
+import gov.quincy.ma.permit.entity.Application;
+import gov.quincy.ma.permit.entity.ApplicationTransition;
+
+import java.time.Instant;
+
+public record ApplicationTransitionDto(
+    Application.Status fromStatus,
+    Application.Status toStatus,
+    Long actorId,
+    Instant occurredAt,
+    Long stageMillis
+) {
+    public static ApplicationTransitionDto fromEntity(ApplicationTransition event) {
+        return new ApplicationTransitionDto(
+            event.getFromStatus(),
+            event.getToStatus(),
+            event.getActorId(),
+            event.getOccurredAt(),
+            event.getStageMillis()
+        );
+    }
+}
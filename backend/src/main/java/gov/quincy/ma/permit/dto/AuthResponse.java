@@ -6,6 +6,9 @@ public class AuthResponse {
     private String email;
     private String name;
     private String role;
+    private String refreshToken;
+    /** Seconds until {@code token} expires; renew it with {@code refreshToken} before then. */
+    private long expiresIn;
 
     public AuthResponse() {
     }
@@ -17,6 +20,12 @@ public class AuthResponse {
         this.role = role;
     }
 
+    public AuthResponse(String token, String email, String name, String role, String refreshToken, long expiresIn) {
+        this(token, email, name, role);
+        this.refreshToken = refreshToken;
+        this.expiresIn = expiresIn;
+    }
+
     public String getToken() {
         return token;
     }
@@ -48,4 +57,20 @@ public class AuthResponse {
     public void setRole(String role) {
         this.role = role;
     }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    public long getExpiresIn() {
+        return expiresIn;
+    }
+
+    public void setExpiresIn(long expiresIn) {
+        this.expiresIn = expiresIn;
+    }
 }
@@ -10,6 +10,9 @@ public class DocumentDto {
     private String category;
     private String mimeType;
     private Instant uploadedAt;
+    private String sha256;
+    private Document.ScanStatus scanStatus;
+    private boolean thumbnailAvailable;
 
     public static DocumentDto fromEntity(Document doc) {
         DocumentDto dto = new DocumentDto();
@@ -18,6 +21,9 @@ public class DocumentDto {
         dto.setCategory(doc.getCategory());
         dto.setMimeType(doc.getMimeType());
         dto.setUploadedAt(doc.getUploadedAt());
+        dto.setSha256(doc.getSha256());
+        dto.setScanStatus(doc.getScanStatus());
+        dto.setThumbnailAvailable(doc.getThumbnailPath() != null);
         return dto;
     }
 
@@ -31,4 +37,10 @@ public class DocumentDto {
     public void setMimeType(String mimeType) { this.mimeType = mimeType; }
     public Instant getUploadedAt() { return uploadedAt; }
     public void setUploadedAt(Instant uploadedAt) { this.uploadedAt = uploadedAt; }
+    public String getSha256() { return sha256; }
+    public void setSha256(String sha256) { this.sha256 = sha256; }
+    public Document.ScanStatus getScanStatus() { return scanStatus; }
+    public void setScanStatus(Document.ScanStatus scanStatus) { this.scanStatus = scanStatus; }
+    public boolean isThumbnailAvailable() { return thumbnailAvailable; }
+    public void setThumbnailAvailable(boolean thumbnailAvailable) { this.thumbnailAvailable = thumbnailAvailable; }
 }
@@ -1,7 +1,7 @@
 package gov.quincy.ma.permit.dto;
 
 import gov.quincy.ma.permit.entity.PermitType;
-import java.util.Map;
+import gov.quincy.ma.permit.entity.RawJson;
 
 public class PermitTypeDto {
 
@@ -10,7 +10,7 @@ public class PermitTypeDto {
     private String slug;
     private String description;
     private String category;
-    private Map<String, Object> formSchema;
+    private RawJson formSchema;
 
     public static PermitTypeDto fromEntity(PermitType entity) {
         PermitTypeDto dto = new PermitTypeDto();
@@ -63,11 +63,11 @@ public class PermitTypeDto {
         this.category = category;
     }
 
-    public Map<String, Object> getFormSchema() {
+    public RawJson getFormSchema() {
         return formSchema;
     }
 
-    public void setFormSchema(Map<String, Object> formSchema) {
+    public void setFormSchema(RawJson formSchema) {
         this.formSchema = formSchema;
     }
 }
@@ -0,0 +1,19 @@
+package gov.quincy.ma.permit.dto;
+
+import gov.quincy.ma.permit.entity.Application;
+
+/**
+ * Time spent in one stage by the applications of one permit type that left it in the reporting
+ * window. {@code completed} is the stage's throughput; {@code overSla} those that took longer
+ * than the requested SLA.
+ */
+public record StageStatsDto(
+    Long permitTypeId,
+    String permitTypeSlug,
+    Application.Status stage,
+    Long completed,
+    Double avgMillis,
+    Long maxMillis,
+    Long overSla
+) {
+}
@@ -1,14 +1,11 @@
 package gov.quincy.ma.permit.entity;
 
 import jakarta.persistence.*;
-import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.type.SqlTypes;
 
 import java.time.Instant;
-import java.util.Map;
 
 @Entity
-@Table(name = "applications")
+@Table(name = "applications", indexes = @Index(name = "idx_applications_queue", columnList = "status, permit_type_id, submitted_at"))
 public class Application {
 
     @Id
@@ -27,17 +24,27 @@ public class Application {
     @Column(nullable = false)
     private Status status = Status.DRAFT;
 
-    @JdbcTypeCode(SqlTypes.JSON)
+    @Convert(converter = RawJsonConverter.class)
     @Column(columnDefinition = "clob")
-    private Map<String, Object> formData;
+    private RawJson formData;
 
     private Instant submittedAt;
     private Instant reviewedAt;
 
+    /** When the application entered its current status; the start of the stage now being timed. */
+    private Instant statusChangedAt;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "reviewer_id")
     private User reviewer;
 
+    /** The reviewer working this application from the queue, while {@code leaseExpiresAt} is in the future. */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "assignee_id")
+    private User assignee;
+
+    private Instant leaseExpiresAt;
+
     @Column(length = 2000)
     private String staffNotes;
 
@@ -51,7 +58,17 @@ public class Application {
         SUBMITTED,
         UNDER_REVIEW,
         APPROVED,
-        REJECTED
+        REJECTED;
+
+        /** DRAFT → SUBMITTED → UNDER_REVIEW → APPROVED | REJECTED; the last two are final. */
+        public boolean canTransitionTo(Status next) {
+            return switch (this) {
+                case DRAFT -> next == SUBMITTED;
+                case SUBMITTED -> next == UNDER_REVIEW;
+                case UNDER_REVIEW -> next == APPROVED || next == REJECTED;
+                case APPROVED, REJECTED -> false;
+            };
+        }
     }
 
     public Long getId() {
@@ -86,11 +103,11 @@ public class Application {
         this.status = status;
     }
 
-    public Map<String, Object> getFormData() {
+    public RawJson getFormData() {
         return formData;
     }
 
-    public void setFormData(Map<String, Object> formData) {
+    public void setFormData(RawJson formData) {
         this.formData = formData;
     }
 
@@ -110,6 +127,14 @@ public class Application {
         this.reviewedAt = reviewedAt;
     }
 
+    public Instant getStatusChangedAt() {
+        return statusChangedAt;
+    }
+
+    public void setStatusChangedAt(Instant statusChangedAt) {
+        this.statusChangedAt = statusChangedAt;
+    }
+
     public User getReviewer() {
         return reviewer;
     }
@@ -118,6 +143,28 @@ public class Application {
         this.reviewer = reviewer;
     }
 
+    public User getAssignee() {
+        return assignee;
+    }
+
+    public void setAssignee(User assignee) {
+        this.assignee = assignee;
+    }
+
+    public Instant getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+
+    public void setLeaseExpiresAt(Instant leaseExpiresAt) {
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+
+    /** Another reviewer holds an unexpired claim on this application. */
+    public boolean isClaimedByOtherThan(Long userId, Instant now) {
+        return assignee != null && !assignee.getId().equals(userId)
+                && leaseExpiresAt != null && leaseExpiresAt.isAfter(now);
+    }
+
     public String getStaffNotes() {
         return staffNotes;
     }
@@ -130,6 +177,10 @@ public class Application {
         return createdAt;
     }
 
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
     public Instant getUpdatedAt() {
         return updatedAt;
     }
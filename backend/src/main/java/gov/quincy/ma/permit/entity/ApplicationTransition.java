@@ -0,0 +1,93 @@
+package gov.quincy.ma.permit.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+
+/**
+ * One status change of an application, appended in the transaction that made it and never
+ * updated. {@code stageMillis} is the time spent in {@code fromStatus}, computed when the row is
+ * written, so per-stage reporting is a plain aggregate over this table.
+ */
+@Entity
+@Immutable
+@Table(name = "application_events", indexes = {
+        @Index(name = "idx_application_events_application", columnList = "application_id, occurred_at"),
+        @Index(name = "idx_application_events_stage", columnList = "permit_type_id, from_status, occurred_at")
+})
+public class ApplicationTransition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "application_events_seq")
+    @SequenceGenerator(name = "application_events_seq", sequenceName = "application_events_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "application_id", nullable = false)
+    private Long applicationId;
+
+    @Column(name = "permit_type_id", nullable = false)
+    private Long permitTypeId;
+
+    /** {@code null} for the row written when the application is created. */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "from_status")
+    private Application.Status fromStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Application.Status toStatus;
+
+    private Long actorId;
+
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+
+    private Long stageMillis;
+
+    protected ApplicationTransition() {
+    }
+
+    public ApplicationTransition(Long applicationId, Long permitTypeId, Application.Status fromStatus,
+                                 Application.Status toStatus, Long actorId, Instant occurredAt, Long stageMillis) {
+        this.applicationId = applicationId;
+        this.permitTypeId = permitTypeId;
+        this.fromStatus = fromStatus;
+        this.toStatus = toStatus;
+        this.actorId = actorId;
+        this.occurredAt = occurredAt;
+        this.stageMillis = stageMillis;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getApplicationId() {
+        return applicationId;
+    }
+
+    public Long getPermitTypeId() {
+        return permitTypeId;
+    }
+
+    public Application.Status getFromStatus() {
+        return fromStatus;
+    }
+
+    public Application.Status getToStatus() {
+        return toStatus;
+    }
+
+    public Long getActorId() {
+        return actorId;
+    }
+
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+
+    public Long getStageMillis() {
+        return stageMillis;
+    }
+}
@@ -8,8 +8,11 @@ import java.time.Instant;
 @Table(name = "documents")
 public class Document {
 
+    public static final String ENCODING_GZIP = "gzip";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "documents_seq")
+    @SequenceGenerator(name = "documents_seq", sequenceName = "documents_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -26,6 +29,10 @@ public class Document {
     @Column(length = 100)
     private String mimeType;
 
+    /** Codec the bytes are stored with ({@link #ENCODING_GZIP}), or null when stored raw. */
+    @Column(length = 20)
+    private String contentEncoding;
+
     @Column(nullable = false, updatable = false)
     private Instant uploadedAt = Instant.now();
 
@@ -33,6 +40,22 @@ public class Document {
     @JoinColumn(name = "application_id")
     private Application application;
 
+    @Column(length = 64)
+    private String sha256;
+
+    private String thumbnailPath;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private ScanStatus scanStatus = ScanStatus.PENDING;
+
+    public enum ScanStatus {
+        PENDING,
+        CLEAN,
+        INFECTED,
+        SKIPPED
+    }
+
     public Long getId() {
         return id;
     }
@@ -73,10 +96,22 @@ public class Document {
         this.mimeType = mimeType;
     }
 
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    public void setContentEncoding(String contentEncoding) {
+        this.contentEncoding = contentEncoding;
+    }
+
     public Instant getUploadedAt() {
         return uploadedAt;
     }
 
+    public void setUploadedAt(Instant uploadedAt) {
+        this.uploadedAt = uploadedAt;
+    }
+
     public Application getApplication() {
         return application;
     }
@@ -84,4 +119,28 @@ public class Document {
     public void setApplication(Application application) {
         this.application = application;
     }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    public String getThumbnailPath() {
+        return thumbnailPath;
+    }
+
+    public void setThumbnailPath(String thumbnailPath) {
+        this.thumbnailPath = thumbnailPath;
+    }
+
+    public ScanStatus getScanStatus() {
+        return scanStatus;
+    }
+
+    public void setScanStatus(ScanStatus scanStatus) {
+        this.scanStatus = scanStatus;
+    }
 }
@@ -0,0 +1,116 @@
+package gov.quincy.ma.permit.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Durable work item for background document post-processing. Workers claim rows with
+ * {@code FOR UPDATE SKIP LOCKED}; a RUNNING row whose lease has expired is claimable again.
+ */
+@Entity
+@Table(name = "document_jobs", indexes = @Index(name = "idx_document_jobs_claim", columnList = "status, available_at"))
+public class DocumentJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "document_jobs_seq")
+    @SequenceGenerator(name = "document_jobs_seq", sequenceName = "document_jobs_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long documentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status = Status.PENDING;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = false)
+    private Instant availableAt = Instant.now();
+
+    private Instant leaseExpiresAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt = Instant.now();
+
+    private Instant completedAt;
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        DONE,
+        FAILED
+    }
+
+    public DocumentJob() {
+    }
+
+    public DocumentJob(Long documentId) {
+        this.documentId = documentId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getDocumentId() {
+        return documentId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Instant getAvailableAt() {
+        return availableAt;
+    }
+
+    public void setAvailableAt(Instant availableAt) {
+        this.availableAt = availableAt;
+    }
+
+    public Instant getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+
+    public void setLeaseExpiresAt(Instant leaseExpiresAt) {
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(Instant completedAt) {
+        this.completedAt = completedAt;
+    }
+}
@@ -0,0 +1,39 @@
+package gov.quincy.ma.permit.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Text extracted from a document by background processing. Kept out of {@code documents} so the
+ * list, catalog and detail queries never load the (up to {@code app.processing.max-extracted-chars})
+ * clob. The catalog reads it into its ranked search index once a public document is processed.
+ */
+@Entity
+@Table(name = "document_texts")
+public class DocumentText {
+
+    @Id
+    private Long documentId;
+
+    @Column(columnDefinition = "clob", nullable = false)
+    private String text;
+
+    public DocumentText() {
+    }
+
+    public DocumentText(Long documentId, String text) {
+        this.documentId = documentId;
+        this.text = text;
+    }
+
+    public Long getDocumentId() {
+        return documentId;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+}
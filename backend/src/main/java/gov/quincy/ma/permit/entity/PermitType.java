@@ -2,23 +2,27 @@ package gov.quincy.ma.permit.entity;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
-import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.type.SqlTypes;
-
-import java.util.Map;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 @Entity
 @Table(name = "permit_types")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "permit-types")
+@NaturalIdCache(region = "permit-types-by-slug")
 public class PermitType {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "permit_types_seq")
+    @SequenceGenerator(name = "permit_types_seq", sequenceName = "permit_types_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
     @Column(nullable = false)
     private String name;
 
+    @NaturalId
     @NotBlank
     @Column(unique = true, nullable = false)
     private String slug;
@@ -29,9 +33,9 @@ public class PermitType {
     @Column(length = 100)
     private String category;
 
-    @JdbcTypeCode(SqlTypes.JSON)
+    @Convert(converter = RawJsonConverter.class)
     @Column(columnDefinition = "clob")
-    private Map<String, Object> formSchema;
+    private RawJson formSchema;
 
     public Long getId() {
         return id;
@@ -73,11 +77,11 @@ public class PermitType {
         this.category = category;
     }
 
-    public Map<String, Object> getFormSchema() {
+    public RawJson getFormSchema() {
         return formSchema;
     }
 
-    public void setFormSchema(Map<String, Object> formSchema) {
+    public void setFormSchema(RawJson formSchema) {
         this.formSchema = formSchema;
     }
 }
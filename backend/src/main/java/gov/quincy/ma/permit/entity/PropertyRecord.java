@@ -11,7 +11,8 @@ import java.util.Map;
 public class PropertyRecord {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "property_records_seq")
+    @SequenceGenerator(name = "property_records_seq", sequenceName = "property_records_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
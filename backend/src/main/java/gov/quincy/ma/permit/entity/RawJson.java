@@ -0,0 +1,93 @@
+package gov.quincy.ma.permit.entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * A JSON object kept as the text it is stored as, for {@code formData} and {@code formSchema}.
+ * Responses copy the text into the output verbatim instead of parsing it into maps and writing
+ * those back out; {@link #toMap} parses it for the code that needs the values. Immutable.
+ */
+public final class RawJson implements JsonSerializable, Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private static final ObjectMapper MAPPER = JsonMapper.builder().build();
+    private static final TypeReference<Map<String, Object>> MAP = new TypeReference<>() {
+    };
+
+    private final String json;
+
+    private RawJson(String json) {
+        this.json = json;
+    }
+
+    /** Wraps text that is already a JSON object, such as a column written through {@link #of}. */
+    public static RawJson ofJson(String json) {
+        return json != null ? new RawJson(json) : null;
+    }
+
+    public static RawJson of(Map<String, ?> values) {
+        if (values == null) return null;
+        try {
+            return new RawJson(MAPPER.writeValueAsString(values));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Value is not serializable as JSON", e);
+        }
+    }
+
+    /** Request bodies and clients reading responses; the tree is written back out compactly. */
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    static RawJson fromTree(JsonNode tree) {
+        return tree == null || tree.isNull() ? null : new RawJson(tree.toString());
+    }
+
+    public String json() {
+        return json;
+    }
+
+    /** Parses the document; each call returns a fresh, mutable map. */
+    public Map<String, Object> toMap() {
+        try {
+            return MAPPER.readValue(json, MAP);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored JSON is not an object", e);
+        }
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        gen.writeRawValue(json);
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer) throws IOException {
+        serialize(gen, serializers);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof RawJson other && json.equals(other.json);
+    }
+
+    @Override
+    public int hashCode() {
+        return json.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return json;
+    }
+}
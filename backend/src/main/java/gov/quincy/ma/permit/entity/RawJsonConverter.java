@@ -0,0 +1,27 @@
+package gov.quincy.ma.permit.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.hibernate.annotations.Mutability;
+import org.hibernate.type.descriptor.java.Immutability;
+
+/**
+ * Maps {@link RawJson} to its column text unchanged, where {@code @JdbcTypeCode(SqlTypes.JSON)}
+ * would parse it into a {@code LinkedHashMap} tree on every load. Immutable, so Hibernate keeps
+ * the loaded instance as its dirty-checking snapshot instead of copying it. A blank column loads as
+ * null: its text would otherwise be copied into responses as-is, which is not valid JSON.
+ */
+@Converter
+@Mutability(Immutability.class)
+public class RawJsonConverter implements AttributeConverter<RawJson, String> {
+
+    @Override
+    public String convertToDatabaseColumn(RawJson attribute) {
+        return attribute != null ? attribute.json() : null;
+    }
+
+    @Override
+    public RawJson convertToEntityAttribute(String column) {
+        return column == null || column.isBlank() ? null : RawJson.ofJson(column);
+    }
+}
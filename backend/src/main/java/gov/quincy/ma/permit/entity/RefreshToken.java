@@ -0,0 +1,80 @@
+package gov.quincy.ma.permit.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * A refresh token, stored as the SHA-256 of the opaque value handed to the client. Every use
+ * revokes it and issues its successor in the same {@code family}; presenting a revoked one again
+ * means it was copied, so the whole family is revoked.
+ */
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_family", columnList = "family")
+})
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    @Column(nullable = false, length = 36)
+    private String family;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    private Instant revokedAt;
+
+    @Column(nullable = false)
+    private Instant createdAt = Instant.now();
+
+    protected RefreshToken() {
+    }
+
+    public RefreshToken(String tokenHash, String family, Long userId, Instant expiresAt) {
+        this.tokenHash = tokenHash;
+        this.family = family;
+        this.userId = userId;
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
+    public String getFamily() {
+        return family;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public Instant getRevokedAt() {
+        return revokedAt;
+    }
+
+    public void setRevokedAt(Instant revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,75 @@
+package gov.quincy.ma.permit.entity;
+
+import gov.quincy.ma.permit.config.JwtProperties;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * A JWT signing key pair. The public half is what verifiers load by {@code kid}; the private half
+ * is stored encrypted under a key derived from {@code jwt.secret}. {@code retiresAt} is null while
+ * the key still signs, then set to when the last token it signed expires.
+ */
+@Entity
+@Table(name = "signing_keys", indexes = {
+        @Index(name = "idx_signing_keys_retires", columnList = "retires_at")
+})
+public class SigningKey {
+
+    @Id
+    @Column(length = 64)
+    private String kid;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private JwtProperties.Algorithm algorithm;
+
+    /** Base64 X.509 {@code SubjectPublicKeyInfo}. */
+    @Column(name = "public_key", nullable = false, length = 1024)
+    private String publicKey;
+
+    /** Base64 of the AES-GCM nonce followed by the encrypted PKCS#8 key. */
+    @Column(name = "private_key", nullable = false, length = 4096)
+    private String privateKey;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "retires_at")
+    private Instant retiresAt;
+
+    protected SigningKey() {
+    }
+
+    public SigningKey(String kid, JwtProperties.Algorithm algorithm, String publicKey, String privateKey, Instant createdAt) {
+        this.kid = kid;
+        this.algorithm = algorithm;
+        this.publicKey = publicKey;
+        this.privateKey = privateKey;
+        this.createdAt = createdAt;
+    }
+
+    public String getKid() {
+        return kid;
+    }
+
+    public JwtProperties.Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public String getPublicKey() {
+        return publicKey;
+    }
+
+    public String getPrivateKey() {
+        return privateKey;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getRetiresAt() {
+        return retiresAt;
+    }
+}
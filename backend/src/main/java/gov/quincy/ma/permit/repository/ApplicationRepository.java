@@ -2,11 +2,22 @@ package gov.quincy.ma.permit.repository;
 
 import gov.quincy.ma.permit.entity.Application;
 import gov.quincy.ma.permit.entity.Application.Status;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface ApplicationRepository extends JpaRepository<Application, Long> {
+public interface ApplicationRepository extends JpaRepository<Application, Long>, ApplicationRepositoryCustom {
 
     List<Application> findByApplicantIdOrderByCreatedAtDesc(Long applicantId);
 
@@ -14,4 +25,41 @@ public interface ApplicationRepository extends JpaRepository<Application, Long>
 
     @Query("SELECT a FROM Application a JOIN FETCH a.permitType JOIN FETCH a.applicant ORDER BY a.createdAt DESC")
     List<Application> findAllWithDetails();
+
+    @Query("SELECT a FROM Application a JOIN FETCH a.permitType JOIN FETCH a.applicant WHERE a.id IN :ids ORDER BY a.submittedAt, a.id")
+    List<Application> findWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT a FROM Application a JOIN FETCH a.permitType JOIN FETCH a.applicant LEFT JOIN FETCH a.reviewer WHERE a.id = :id")
+    Optional<Application> findDetailById(@Param("id") Long id);
+
+    /**
+     * Oldest unclaimed (or lease-expired) submissions, row-locked with SKIP LOCKED (lock timeout
+     * -2) so concurrent reviewers each get different rows without waiting on one another.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT a FROM Application a WHERE a.status = :status " +
+            "AND (:permitTypeId IS NULL OR a.permitType.id = :permitTypeId) " +
+            "AND (a.leaseExpiresAt IS NULL OR a.leaseExpiresAt < :now) ORDER BY a.submittedAt, a.id")
+    List<Application> findClaimable(@Param("status") Status status,
+                                    @Param("permitTypeId") Long permitTypeId,
+                                    @Param("now") Instant now,
+                                    Pageable page);
+
+    /**
+     * Extends the caller's claims. A lapsed lease is renewed too, as long as nobody has claimed the
+     * application since; a claim that took it over has already changed the assignee.
+     */
+    @Modifying
+    @Query("UPDATE Application a SET a.leaseExpiresAt = :until WHERE a.id IN :ids " +
+            "AND a.assignee.id = :assigneeId AND a.leaseExpiresAt IS NOT NULL")
+    int extendLeases(@Param("ids") Collection<Long> ids, @Param("assigneeId") Long assigneeId,
+                     @Param("until") Instant until);
+
+    @Query("SELECT a.id FROM Application a WHERE a.id IN :ids AND a.assignee.id = :assigneeId AND a.leaseExpiresAt >= :now")
+    List<Long> findHeldIds(@Param("ids") Collection<Long> ids, @Param("assigneeId") Long assigneeId, @Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE Application a SET a.assignee = NULL, a.leaseExpiresAt = NULL WHERE a.id IN :ids AND a.assignee.id = :assigneeId")
+    int releaseLeases(@Param("ids") Collection<Long> ids, @Param("assigneeId") Long assigneeId);
 }
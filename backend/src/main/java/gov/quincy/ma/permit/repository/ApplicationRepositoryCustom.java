@@ -0,0 +1,14 @@
+package gov.quincy.ma.permit.repository;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ApplicationRepositoryCustom {
+
+    /**
+     * Newest first, selecting only the named {@code ApplicationDto} fields: one map per row, keyed
+     * in the order given. Associations are joined only for the fields that need them. A null
+     * {@code applicantId} lists every application.
+     */
+    List<Map<String, Object>> findFields(Long applicantId, List<String> fields);
+}
@@ -0,0 +1,82 @@
+package gov.quincy.ma.permit.repository;
+
+import gov.quincy.ma.permit.entity.Application;
+import gov.quincy.ma.permit.entity.PermitType;
+import gov.quincy.ma.permit.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Transactional(readOnly = true)
+public class ApplicationRepositoryCustomImpl implements ApplicationRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findFields(Long applicantId, List<String> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Columns columns = new Columns(query.from(Application.class));
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (String field : fields) selections.add(columns.path(field).alias(field));
+        query.multiselect(selections).orderBy(cb.desc(columns.root.get("createdAt")));
+        if (applicantId != null) query.where(cb.equal(columns.root.get("applicant").get("id"), applicantId));
+
+        List<Tuple> rows = entityManager.createQuery(query).getResultList();
+        List<Map<String, Object>> result = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Map<String, Object> values = new LinkedHashMap<>(fields.size() * 2);
+            for (String field : fields) values.put(field, row.get(field));
+            result.add(values);
+        }
+        return result;
+    }
+
+    /** {@code ApplicationDto} field names to paths; foreign-key ids are read without a join. */
+    private static final class Columns {
+
+        final Root<Application> root;
+        private Join<Application, User> applicant;
+        private Join<Application, PermitType> permitType;
+
+        Columns(Root<Application> root) {
+            this.root = root;
+        }
+
+        Path<?> path(String field) {
+            return switch (field) {
+                case "applicantId" -> root.get("applicant").get("id");
+                case "applicantEmail" -> applicant().get("email");
+                case "permitTypeId" -> root.get("permitType").get("id");
+                case "permitTypeName" -> permitType().get("name");
+                case "permitTypeSlug" -> permitType().get("slug");
+                case "reviewerId" -> root.get("reviewer").get("id");
+                case "assigneeId" -> root.get("assignee").get("id");
+                default -> root.get(field);
+            };
+        }
+
+        private Join<Application, User> applicant() {
+            if (applicant == null) applicant = root.join("applicant");
+            return applicant;
+        }
+
+        private Join<Application, PermitType> permitType() {
+            if (permitType == null) permitType = root.join("permitType");
+            return permitType;
+        }
+    }
+}
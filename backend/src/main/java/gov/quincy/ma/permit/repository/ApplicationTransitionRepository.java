@@ -0,0 +1,26 @@
+package gov.quincy.ma.permit.repository;
+
+import gov.quincy.ma.permit.dto.StageStatsDto;
+import gov.quincy.ma.permit.entity.ApplicationTransition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ApplicationTransitionRepository extends JpaRepository<ApplicationTransition, Long> {
+
+    List<ApplicationTransition> findByApplicationIdOrderByOccurredAtAscIdAsc(Long applicationId);
+
+    /** Applications that left each stage since {@code since}, per permit type, with their time in it. */
+    @Query("""
+            SELECT new gov.quincy.ma.permit.dto.StageStatsDto(t.permitTypeId, p.slug, t.fromStatus, COUNT(t),
+                   AVG(t.stageMillis), MAX(t.stageMillis),
+                   SUM(CASE WHEN t.stageMillis > :slaMillis THEN 1 ELSE 0 END))
+            FROM ApplicationTransition t JOIN PermitType p ON p.id = t.permitTypeId
+            WHERE t.fromStatus IS NOT NULL AND t.occurredAt >= :since
+            GROUP BY t.permitTypeId, p.slug, t.fromStatus
+            ORDER BY p.slug, t.fromStatus""")
+    List<StageStatsDto> stageStats(@Param("since") Instant since, @Param("slaMillis") long slaMillis);
+}
@@ -0,0 +1,27 @@
+package gov.quincy.ma.permit.repository;
+
+import gov.quincy.ma.permit.entity.DocumentJob;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface DocumentJobRepository extends JpaRepository<DocumentJob, Long> {
+
+    /** Lock timeout -2 is Hibernate's SKIP LOCKED, so concurrent pollers never block on each other's rows. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT j FROM DocumentJob j WHERE (j.status = :pending AND j.availableAt <= :now) " +
+            "OR (j.status = :running AND j.leaseExpiresAt < :now) ORDER BY j.id")
+    List<DocumentJob> findClaimable(@Param("now") Instant now,
+                                    @Param("pending") DocumentJob.Status pending,
+                                    @Param("running") DocumentJob.Status running,
+                                    Pageable page);
+}
@@ -6,10 +6,6 @@ import java.util.List;
 
 public interface DocumentRepository extends JpaRepository<Document, Long> {
 
-    List<Document> findByApplicationIdIsNullAndCategoryOrderByNameAsc(String category);
-
-    List<Document> findByApplicationIdIsNullAndNameContainingIgnoreCaseOrderByNameAsc(String name);
-
     List<Document> findByApplicationIdIsNullOrderByNameAsc();
 
     List<Document> findByApplicationId(Long applicationId);
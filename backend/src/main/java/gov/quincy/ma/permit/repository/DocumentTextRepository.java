@@ -0,0 +1,7 @@
+package gov.quincy.ma.permit.repository;
+
+import gov.quincy.ma.permit.entity.DocumentText;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface DocumentTextRepository extends JpaRepository<DocumentText, Long> {
+}
@@ -0,0 +1,10 @@
+package gov.quincy.ma.permit.repository;
+
+import gov.quincy.ma.permit.entity.PermitType;
+import java.util.Optional;
+
+public interface PermitTypeRepositoryCustom {
+
+    /** Resolved through the natural-id cache, so repeat lookups by slug skip the database. */
+    Optional<PermitType> findBySlug(String slug);
+}
@@ -0,0 +1,22 @@
+package gov.quincy.ma.permit.repository;
+
+import gov.quincy.ma.permit.entity.PermitType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Transactional(readOnly = true)
+public class PermitTypeRepositoryCustomImpl implements PermitTypeRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<PermitType> findBySlug(String slug) {
+        if (slug == null) return Optional.empty();
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(PermitType.class).loadOptional(slug);
+    }
+}
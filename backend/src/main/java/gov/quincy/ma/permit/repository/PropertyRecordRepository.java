@@ -4,6 +4,7 @@ import gov.quincy.ma.permit.entity.PropertyRecord;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 
 public interface PropertyRecordRepository extends JpaRepository<PropertyRecord, Long> {
@@ -12,6 +13,7 @@ public interface PropertyRecordRepository extends JpaRepository<PropertyRecord,
 
     List<PropertyRecord> findByParcelId(String parcelId);
 
+    @Transactional(readOnly = true)
     @Query("SELECT p FROM PropertyRecord p WHERE LOWER(p.address) LIKE LOWER(CONCAT('%', :q, '%')) OR p.parcelId = :q")
     List<PropertyRecord> searchByAddressOrParcel(@Param("q") String query);
 }
@@ -0,0 +1,26 @@
+package gov.quincy.ma.permit.repository;
+
+import gov.quincy.ma.permit.entity.SigningKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface SigningKeyRepository extends JpaRepository<SigningKey, String> {
+
+    /** Keys that may still have live tokens, newest first. */
+    @Query("SELECT k FROM SigningKey k WHERE k.retiresAt IS NULL OR k.retiresAt > :now ORDER BY k.createdAt DESC")
+    List<SigningKey> findVerifiable(@Param("now") Instant now);
+
+    /** Stops every key but {@code current} signing; they verify until {@code retiresAt}. */
+    @Modifying
+    @Query("UPDATE SigningKey k SET k.retiresAt = :retiresAt WHERE k.kid <> :current AND k.retiresAt IS NULL")
+    int retireAllExcept(@Param("current") String current, @Param("retiresAt") Instant retiresAt);
+
+    @Modifying
+    @Query("DELETE FROM SigningKey k WHERE k.retiresAt < :now")
+    int deleteRetired(@Param("now") Instant now);
+}
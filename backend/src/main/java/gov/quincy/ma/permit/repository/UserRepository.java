@@ -2,11 +2,8 @@ package gov.quincy.ma.permit.repository;
 
 import gov.quincy.ma.permit.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
-import java.util.Optional;
 
-public interface UserRepository extends JpaRepository<User, Long> {
-
-    Optional<User> findByEmail(String email);
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
 
     boolean existsByEmail(String email);
 }
@@ -0,0 +1,10 @@
+package gov.quincy.ma.permit.repository;
+
+import gov.quincy.ma.permit.entity.User;
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+
+    /** Resolved through the natural-id cache, so repeat lookups by email skip the database. */
+    Optional<User> findByEmail(String email);
+}
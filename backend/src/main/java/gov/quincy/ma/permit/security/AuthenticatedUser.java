@@ -0,0 +1,68 @@
+package gov.quincy.ma.permit.security;
+
+import gov.quincy.ma.permit.entity.User;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Objects;
+
+/**
+ * Principal built once per request from the JWT claims, so callers can read the user's
+ * id and role without going back to the users table.
+ */
+public final class AuthenticatedUser implements AuthenticatedPrincipal {
+
+    private final Long userId;
+    private final String email;
+    private final String displayName;
+    private final User.Role role;
+
+    public AuthenticatedUser(Long userId, String email, String displayName, User.Role role) {
+        this.userId = userId;
+        this.email = email;
+        this.displayName = displayName;
+        this.role = role;
+    }
+
+    /** The principal of the current request, or {@code null} when unauthenticated. */
+    public static AuthenticatedUser current() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.getPrincipal() instanceof AuthenticatedUser user ? user : null;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public User.Role getRole() {
+        return role;
+    }
+
+    public boolean isStaff() {
+        return role == User.Role.STAFF;
+    }
+
+    /** Staff may access any application; applicants only their own. */
+    public boolean canAccess(Long applicantId) {
+        return isStaff() || Objects.equals(userId, applicantId);
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    @Override
+    public String toString() {
+        return email;
+    }
+}
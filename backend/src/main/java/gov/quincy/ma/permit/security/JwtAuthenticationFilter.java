@@ -1,5 +1,8 @@
 package gov.quincy.ma.permit.security;
 
+import gov.quincy.ma.permit.entity.User;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -23,9 +26,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final String BEARER_PREFIX = "Bearer ";
 
     private final JwtService jwtService;
+    private final TokenRevocationList revocations;
+    private final ObservationRegistry observationRegistry;
 
-    public JwtAuthenticationFilter(JwtService jwtService) {
+    public JwtAuthenticationFilter(JwtService jwtService, TokenRevocationList revocations,
+                                   ObservationRegistry observationRegistry) {
         this.jwtService = jwtService;
+        this.revocations = revocations;
+        this.observationRegistry = observationRegistry;
     }
 
     @Override
@@ -40,24 +48,40 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
         String token = authHeader.substring(BEARER_PREFIX.length());
+        // the span covers verification only; the rest of the chain runs after it has ended
+        Observation observation = Observation.createNotStarted("app.auth.jwt", observationRegistry);
+        observation.observe(() -> {
+            observation.lowCardinalityKeyValue("outcome", authenticate(token, request));
+        });
+        filterChain.doFilter(request, response);
+    }
+
+    /** Sets the security context from a valid, unrevoked token; returns the outcome for the span. */
+    private String authenticate(String token, HttpServletRequest request) {
         try {
             var claims = jwtService.parseToken(token);
-            String email = claims.getSubject();
-            @SuppressWarnings("unchecked")
+            if (revocations.isRevoked(claims.getId())) return "revoked";
             String role = claims.get("role", String.class);
+            var principal = new AuthenticatedUser(
+                    claims.get("userId", Long.class),
+                    claims.getSubject(),
+                    claims.get("name", String.class),
+                    role != null ? User.Role.valueOf(role) : null
+            );
             List<SimpleGrantedAuthority> authorities = role != null
                     ? List.of(new SimpleGrantedAuthority("ROLE_" + role))
                     : Collections.emptyList();
             var auth = new UsernamePasswordAuthenticationToken(
-                    email,
+                    principal,
                     null,
                     authorities
             );
             auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
             SecurityContextHolder.getContext().setAuthentication(auth);
+            return "authenticated";
         } catch (Exception ignored) {
             // Invalid token – leave context empty
+            return "invalid";
         }
-        filterChain.doFilter(request, response);
     }
 }
@@ -0,0 +1,272 @@
+package gov.quincy.ma.permit.security;
+
+import gov.quincy.ma.permit.config.JwtProperties;
+import gov.quincy.ma.permit.entity.SigningKey;
+import gov.quincy.ma.permit.repository.SigningKeyRepository;
+import gov.quincy.ma.permit.service.CacheInvalidation;
+import gov.quincy.ma.permit.service.CacheInvalidationBus;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The RS256/EdDSA key pairs behind {@link JwtService} when {@code jwt.algorithm} is asymmetric.
+ * Each rotation period has one key, named {@code <alg>-<period>} so nodes racing to create it
+ * collide on the primary key instead of minting two. Verifiers keep the parsed public keys in an
+ * immutable map swapped on reload, so the hot path is a map lookup; an unknown {@code kid} (a key
+ * another node just created) triggers a reload at most once per
+ * {@code jwt.keys.unknown-kid-reload-interval-ms}. With {@code jwt.keys.jwks-uri} set the node only
+ * verifies, reading public keys from that JWKS document instead of the database.
+ */
+@Component
+public class JwtKeyRing {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtKeyRing.class);
+    private static final int GCM_NONCE_BYTES = 12;
+
+    /** The key new tokens are signed with. */
+    public record Signer(String kid, PrivateKey key) {
+    }
+
+    private final JwtProperties properties;
+    private final SigningKeyRepository repository;
+    private final CacheInvalidationBus invalidationBus;
+    private final TransactionTemplate tx;
+    private final SecureRandom random = new SecureRandom();
+    private volatile Map<String, PublicKey> verificationKeys = Map.of();
+    private volatile Signer signer;
+    private volatile long lastReloadNanos;
+    private volatile Instant switchover;
+    private HttpClient httpClient;
+
+    public JwtKeyRing(JwtProperties properties, SigningKeyRepository repository,
+                      CacheInvalidationBus invalidationBus, TransactionTemplate tx) {
+        this.properties = properties;
+        this.repository = repository;
+        this.invalidationBus = invalidationBus;
+        this.tx = tx;
+    }
+
+    public boolean isEnabled() {
+        return properties.getAlgorithm() != JwtProperties.Algorithm.HS256;
+    }
+
+    private boolean isVerifyOnly() {
+        return properties.getKeys().getJwksUri() != null && !properties.getKeys().getJwksUri().isBlank();
+    }
+
+    /** The current signing key, creating this period's key if no node has yet. */
+    public Signer signer() {
+        Signer current = signer;
+        if (current != null) return current;
+        if (isVerifyOnly()) {
+            throw new IllegalStateException("This node only verifies tokens (jwt.keys.jwks-uri is set)");
+        }
+        rotateIfDue();
+        current = signer;
+        if (current == null) throw new IllegalStateException("No " + properties.getAlgorithm() + " signing key is available");
+        return current;
+    }
+
+    /** The public key for {@code kid}, or null if it is unknown even after a (rate-limited) reload. */
+    public PublicKey verificationKey(String kid) {
+        PublicKey key = verificationKeys.get(kid);
+        if (key != null || !isEnabled()) return key;
+        long minGap = Duration.ofMillis(properties.getKeys().getUnknownKidReloadIntervalMs()).toNanos();
+        if (System.nanoTime() - lastReloadNanos < minGap) return null;
+        synchronized (this) {
+            if (System.nanoTime() - lastReloadNanos >= minGap) reload();
+        }
+        return verificationKeys.get(kid);
+    }
+
+    /**
+     * When this deployment started signing with key pairs: the oldest stored key's creation time.
+     * Null until keys are loaded, and on verify-only nodes, which never see the stored keys.
+     */
+    public Instant switchover() {
+        return switchover;
+    }
+
+    /** Every public key that may still have live tokens, for the JWKS document. */
+    public Map<String, PublicKey> publicKeys() {
+        return verificationKeys;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (isEnabled()) rotateIfDue();
+    }
+
+    @EventListener
+    public void onInvalidation(CacheInvalidation event) {
+        if (isEnabled() && (event.topic() == CacheInvalidation.Topic.SIGNING_KEYS || event.topic() == CacheInvalidation.Topic.ALL)) {
+            synchronized (this) {
+                reload();
+            }
+        }
+    }
+
+    /**
+     * Makes sure this period's key exists and is the one signing: creates it if missing (losing a
+     * race to another node is fine, its row wins), retires the others for one token lifetime plus
+     * clock skew, drops keys whose retirement has passed, and reloads.
+     */
+    @Scheduled(fixedDelayString = "${jwt.keys.check-interval-ms:3600000}",
+            initialDelayString = "${jwt.keys.check-interval-ms:3600000}")
+    public synchronized void rotateIfDue() {
+        if (!isEnabled()) return;
+        if (!isVerifyOnly()) {
+            Instant now = Instant.now();
+            String kid = kidFor(now);
+            try {
+                tx.executeWithoutResult(status -> {
+                    if (!repository.existsById(kid)) repository.saveAndFlush(generate(kid, now));
+                });
+            } catch (DataIntegrityViolationException raced) {
+                log.debug("Signing key {} was created by another node", kid);
+            }
+            Instant retiresAt = now.plusMillis(properties.getExpirationMs() + properties.getKeys().getClockSkewMs());
+            tx.executeWithoutResult(status -> {
+                if (repository.retireAllExcept(kid, retiresAt) > 0) {
+                    invalidationBus.publishAfterCommit(CacheInvalidation.Topic.SIGNING_KEYS, kid);
+                }
+                repository.deleteRetired(now);
+            });
+        }
+        reload();
+    }
+
+    String kidFor(Instant now) {
+        long period = now.toEpochMilli() / properties.getKeys().getRotationIntervalMs();
+        return properties.getAlgorithm().name().toLowerCase(Locale.ROOT) + "-" + period;
+    }
+
+    private void reload() {
+        lastReloadNanos = System.nanoTime();
+        try {
+            if (isVerifyOnly()) {
+                verificationKeys = fetchJwks();
+                return;
+            }
+            List<SigningKey> keys = tx.execute(status -> repository.findVerifiable(Instant.now()));
+            Map<String, PublicKey> loaded = new HashMap<>();
+            Signer next = null;
+            Instant oldest = switchover;
+            for (SigningKey key : keys != null ? keys : List.<SigningKey>of()) {
+                loaded.put(key.getKid(), decodePublic(key));
+                if (oldest == null || key.getCreatedAt().isBefore(oldest)) oldest = key.getCreatedAt();
+                // newest first, so the first unretired key of the configured algorithm signs
+                if (next == null && key.getRetiresAt() == null && key.getAlgorithm() == properties.getAlgorithm()) {
+                    next = new Signer(key.getKid(), decodePrivate(key));
+                }
+            }
+            verificationKeys = Map.copyOf(loaded);
+            switchover = oldest;
+            if (next != null) signer = next;
+        } catch (RuntimeException | GeneralSecurityException | IOException e) {
+            log.warn("Could not reload JWT signing keys; keeping the {} loaded", verificationKeys.size(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Map<String, PublicKey> fetchJwks() throws IOException, InterruptedException {
+        if (httpClient == null) httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(properties.getKeys().getJwksUri()))
+                .timeout(Duration.ofSeconds(5)).GET().build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) throw new IOException("JWKS fetch returned " + response.statusCode());
+        JwkSet set = Jwks.setParser().build().parse(response.body());
+        Map<String, PublicKey> loaded = new HashMap<>();
+        for (Jwk<?> jwk : set) {
+            if (jwk.getId() != null && jwk.toKey() instanceof PublicKey publicKey) loaded.put(jwk.getId(), publicKey);
+        }
+        return Map.copyOf(loaded);
+    }
+
+    private SigningKey generate(String kid, Instant now) {
+        KeyPair pair = properties.getAlgorithm() == JwtProperties.Algorithm.RS256
+                ? Jwts.SIG.RS256.keyPair().build()
+                : Jwks.CRV.Ed25519.keyPair().build();
+        Base64.Encoder base64 = Base64.getEncoder();
+        return new SigningKey(kid, properties.getAlgorithm(), base64.encodeToString(pair.getPublic().getEncoded()),
+                base64.encodeToString(encrypt(pair.getPrivate().getEncoded())), now);
+    }
+
+    private static KeyFactory keyFactory(JwtProperties.Algorithm algorithm) throws GeneralSecurityException {
+        return KeyFactory.getInstance(algorithm == JwtProperties.Algorithm.RS256 ? "RSA" : "EdDSA");
+    }
+
+    private static PublicKey decodePublic(SigningKey key) throws GeneralSecurityException {
+        return keyFactory(key.getAlgorithm()).generatePublic(
+                new X509EncodedKeySpec(Base64.getDecoder().decode(key.getPublicKey())));
+    }
+
+    private PrivateKey decodePrivate(SigningKey key) throws GeneralSecurityException {
+        return keyFactory(key.getAlgorithm()).generatePrivate(
+                new PKCS8EncodedKeySpec(decrypt(Base64.getDecoder().decode(key.getPrivateKey()))));
+    }
+
+    private byte[] encrypt(byte[] plain) {
+        try {
+            byte[] nonce = new byte[GCM_NONCE_BYTES];
+            random.nextBytes(nonce);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, wrappingKey(), new GCMParameterSpec(128, nonce));
+            byte[] sealed = cipher.doFinal(plain);
+            return ByteBuffer.allocate(nonce.length + sealed.length).put(nonce).put(sealed).array();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not encrypt signing key", e);
+        }
+    }
+
+    private byte[] decrypt(byte[] stored) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, wrappingKey(), new GCMParameterSpec(128, stored, 0, GCM_NONCE_BYTES));
+        return cipher.doFinal(stored, GCM_NONCE_BYTES, stored.length - GCM_NONCE_BYTES);
+    }
+
+    private SecretKeySpec wrappingKey() throws GeneralSecurityException {
+        if (properties.getSecret() == null) throw new IllegalStateException("jwt.secret is required to store signing keys");
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(
+                ("signing-keys:" + properties.getSecret()).getBytes(StandardCharsets.UTF_8));
+        return new SecretKeySpec(digest, "AES");
+    }
+}
@@ -3,43 +3,107 @@ package gov.quincy.ma.permit.security;
 import gov.quincy.ma.permit.config.JwtProperties;
 import gov.quincy.ma.permit.entity.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.PrivateKey;
+import java.time.Instant;
 import java.util.Date;
+import java.util.UUID;
 
+/**
+ * Issues and verifies access tokens. With {@code jwt.algorithm: HS256} both use {@code jwt.secret};
+ * with RS256 or EdDSA tokens are signed by the {@link JwtKeyRing}'s current key and carry its
+ * {@code kid}, which verification resolves to a cached public key. In those modes HS256 tokens (no
+ * {@code kid}) are rejected, unless {@code jwt.keys.legacy-hmac-grace} is on while switching: then an
+ * unexpired one issued before the first key pair was created is accepted, for one token lifetime plus
+ * clock skew after that instant, so nobody is logged out.
+ */
 @Service
 public class JwtService {
 
     private final JwtProperties properties;
+    private final JwtKeyRing keyRing;
+    /** Null on verify-only nodes, which are not given the secret. */
     private final SecretKey key;
+    private final SecureDigestAlgorithm<PrivateKey, ?> asymmetric;
+    private final JwtParser parser;
 
-    public JwtService(JwtProperties properties) {
+    public JwtService(JwtProperties properties, JwtKeyRing keyRing) {
         this.properties = properties;
-        this.key = Keys.hmacShaKeyFor(properties.getSecret().getBytes(StandardCharsets.UTF_8));
+        this.keyRing = keyRing;
+        this.key = properties.getSecret() != null
+                ? Keys.hmacShaKeyFor(properties.getSecret().getBytes(StandardCharsets.UTF_8))
+                : null;
+        this.asymmetric = switch (properties.getAlgorithm()) {
+            case HS256 -> null;
+            case RS256 -> Jwts.SIG.RS256;
+            case EdDSA -> Jwts.SIG.EdDSA;
+        };
+        this.parser = Jwts.parser().keyLocator(new LocatorAdapter<Key>() {
+            @Override
+            protected Key locate(JwsHeader header) {
+                String kid = header.getKeyId();
+                if (kid != null) return keyRing.verificationKey(kid);
+                return acceptsHmac() ? key : null;
+            }
+        }).build();
     }
 
+    private boolean acceptsHmac() {
+        if (!keyRing.isEnabled()) return true;
+        if (!properties.getKeys().isLegacyHmacGrace()) return false;
+        Instant switchover = keyRing.switchover();
+        return switchover != null && Instant.now().isBefore(
+                switchover.plusMillis(properties.getExpirationMs() + properties.getKeys().getClockSkewMs()));
+    }
+
+    /** A short-lived access token; its {@code jti} is what logout revokes. */
     public String generateToken(User user) {
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(user.getEmail())
                 .claim("userId", user.getId())
                 .claim("role", user.getRole().name())
                 .claim("name", user.getName())
                 .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + properties.getExpirationMs()))
-                .signWith(key)
-                .compact();
+                .expiration(new Date(System.currentTimeMillis() + properties.getExpirationMs()));
+        return sign(builder).compact();
+    }
+
+    private JwtBuilder sign(JwtBuilder builder) {
+        if (asymmetric == null) return builder.signWith(key);
+        JwtKeyRing.Signer signer = keyRing.signer();
+        return builder.header().keyId(signer.kid()).and().signWith(signer.key(), asymmetric);
+    }
+
+    public long getExpirationMs() {
+        return properties.getExpirationMs();
     }
 
     public Claims parseToken(String token) {
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        Jws<Claims> jws = parser.parseSignedClaims(token);
+        Claims claims = jws.getPayload();
+        if (jws.getHeader().getKeyId() == null && keyRing.isEnabled()) {
+            // the locator only let it through inside the grace window; it must also predate the switch
+            Instant switchover = keyRing.switchover();
+            if (claims.getIssuedAt() == null || claims.getExpiration() == null || switchover == null
+                    || !claims.getIssuedAt().toInstant().isBefore(switchover)) {
+                throw new UnsupportedJwtException("HS256 token was not issued before the switch to " + properties.getAlgorithm());
+            }
+        }
+        return claims;
     }
 
     public String getEmailFromToken(String token) {
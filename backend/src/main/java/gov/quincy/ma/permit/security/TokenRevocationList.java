@@ -0,0 +1,118 @@
+package gov.quincy.ma.permit.security;
+
+import gov.quincy.ma.permit.config.JwtProperties;
+import gov.quincy.ma.permit.entity.RevokedToken;
+import gov.quincy.ma.permit.repository.RevokedTokenRepository;
+import gov.quincy.ma.permit.service.CacheInvalidation;
+import gov.quincy.ma.permit.service.CacheInvalidationBus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked access tokens by {@code jti}. Every authenticated request asks {@link #isRevoked}; a
+ * bloom filter over the unexpired revocations answers almost all of them in memory, and only its
+ * positives (real revocations plus about {@code jwt.revocation.false-positive-rate} of the rest)
+ * are confirmed against the database. Revocations reach other nodes over the cache-invalidation
+ * bus; the periodic rebuild drops expired ids and catches anything a node missed.
+ */
+@Component
+public class TokenRevocationList {
+
+    private final RevokedTokenRepository repository;
+    private final CacheInvalidationBus invalidationBus;
+    private final JwtProperties properties;
+    private final TransactionTemplate tx;
+    private final Counter confirmed;
+    private final Counter falsePositives;
+    /** Ids added since the last rebuild started, replayed into its filter so none slip between query and swap. */
+    private final Map<String, Instant> recent = new ConcurrentHashMap<>();
+    /** Null until first built; every check goes to the database until then. */
+    private volatile BloomFilter filter;
+
+    public TokenRevocationList(RevokedTokenRepository repository, CacheInvalidationBus invalidationBus,
+                               JwtProperties properties, TransactionTemplate tx, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.invalidationBus = invalidationBus;
+        this.properties = properties;
+        this.tx = tx;
+        this.confirmed = meterRegistry.counter("token.revocation.lookups", "outcome", "revoked");
+        this.falsePositives = meterRegistry.counter("token.revocation.lookups", "outcome", "false-positive");
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null) return false;
+        BloomFilter current = filter;
+        if (current != null && !current.mightContain(jti)) return false;
+        boolean revoked = repository.existsById(jti);
+        (revoked ? confirmed : falsePositives).increment();
+        return revoked;
+    }
+
+    /** Revokes the token until {@code expiresAt}, on this node at once and on the others after commit. */
+    public void revoke(String jti, Instant expiresAt) {
+        if (jti == null || !expiresAt.isAfter(Instant.now())) return;
+        tx.executeWithoutResult(status -> {
+            if (!repository.existsById(jti)) repository.save(new RevokedToken(jti, expiresAt));
+            invalidationBus.publishAfterCommit(CacheInvalidation.Topic.REVOKED_TOKEN, jti);
+        });
+        add(jti);
+    }
+
+    @EventListener
+    public void onInvalidation(CacheInvalidation event) {
+        if (event.topic() == CacheInvalidation.Topic.REVOKED_TOKEN && event.key() != null) {
+            add(event.key());
+        } else if (event.topic() == CacheInvalidation.Topic.ALL) {
+            rebuild();
+        }
+    }
+
+    private void add(String jti) {
+        recent.put(jti, Instant.now());
+        BloomFilter current = filter;
+        if (current != null) current.add(jti);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds from the unexpired rows through a read-write transaction, so it reads the primary,
+     * and deletes the expired ones. The filter is sized for twice the current count.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.rebuild-interval-ms:300000}",
+            initialDelayString = "${jwt.revocation.rebuild-interval-ms:300000}")
+    public synchronized void rebuild() {
+        Instant started = Instant.now();
+        List<String> jtis = tx.execute(status -> {
+            repository.deleteExpired(started);
+            return repository.findUnexpiredJtis(started);
+        });
+        List<String> revoked = jtis != null ? jtis : List.of();
+        BloomFilter next = BloomFilter.create(Math.max(2 * revoked.size(), 1024),
+                properties.getRevocation().getFalsePositiveRate());
+        revoked.forEach(next::add);
+        recent.keySet().forEach(next::add);
+        filter = next;
+        // anything added to the old filter while this one was being built
+        recent.keySet().forEach(next::add);
+        recent.values().removeIf(at -> at.isBefore(started));
+    }
+
+    long filterSizeInBytes() {
+        BloomFilter current = filter;
+        return current != null ? current.sizeInBytes() : 0;
+    }
+}
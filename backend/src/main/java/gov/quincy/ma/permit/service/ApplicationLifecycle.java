@@ -0,0 +1,74 @@
+package gov.quincy.ma.permit.service;
+
+import gov.quincy.ma.permit.entity.Application;
+import gov.quincy.ma.permit.entity.ApplicationTransition;
+import gov.quincy.ma.permit.repository.ApplicationTransitionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * The only place an application's status changes. Each change is checked against
+ * {@link Application.Status#canTransitionTo} and appended to {@code application_events} in the
+ * caller's transaction, together with how long the application sat in the stage it is leaving.
+ */
+@Component
+public class ApplicationLifecycle {
+
+    private final ApplicationTransitionRepository transitionRepository;
+    private final MeterRegistry meterRegistry;
+
+    public ApplicationLifecycle(ApplicationTransitionRepository transitionRepository, MeterRegistry meterRegistry) {
+        this.transitionRepository = transitionRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /** Logs the initial status of a just-saved application. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void created(Application app, Long actorId) {
+        Instant now = Instant.now();
+        app.setStatusChangedAt(now);
+        transitionRepository.save(new ApplicationTransition(app.getId(), app.getPermitType().getId(),
+                null, app.getStatus(), actorId, now, null));
+    }
+
+    /** Moves {@code app} to {@code next}; 409 when the lifecycle doesn't allow it. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void transition(Application app, Application.Status next, Long actorId) {
+        Application.Status from = app.getStatus();
+        if (!from.canTransitionTo(next)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Cannot move application from " + from + " to " + next);
+        }
+        Instant now = Instant.now();
+        Instant enteredAt = app.getStatusChangedAt() != null ? app.getStatusChangedAt() : app.getCreatedAt();
+        long stageMillis = Math.max(0, Duration.between(enteredAt, now).toMillis());
+        app.setStatus(next);
+        app.setStatusChangedAt(now);
+        transitionRepository.save(new ApplicationTransition(app.getId(), app.getPermitType().getId(),
+                from, next, actorId, now, stageMillis));
+        recordAfterCommit(app.getPermitType().getSlug(), from, stageMillis);
+    }
+
+    private void recordAfterCommit(String permitType, Application.Status stage, long stageMillis) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                Timer.builder("applications.stage.duration")
+                        .description("Time applications spent in a lifecycle stage before leaving it")
+                        .tag("permit_type", permitType)
+                        .tag("stage", stage.name())
+                        .register(meterRegistry)
+                        .record(Duration.ofMillis(stageMillis));
+            }
+        });
+    }
+}
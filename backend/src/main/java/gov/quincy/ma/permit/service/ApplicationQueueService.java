@@ -0,0 +1,86 @@
+package gov.quincy.ma.permit.service;
+
+import gov.quincy.ma.permit.config.WorkQueueProperties;
+import gov.quincy.ma.permit.dto.ApplicationDto;
+import gov.quincy.ma.permit.entity.Application;
+import gov.quincy.ma.permit.repository.ApplicationRepository;
+import gov.quincy.ma.permit.repository.UserRepository;
+import gov.quincy.ma.permit.security.AuthenticatedUser;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The staff review queue. A reviewer claims the oldest SUBMITTED applications, optionally of one
+ * permit type, and holds them under a lease kept alive by heartbeats; an abandoned claim simply
+ * expires and the application is claimable again. Claiming locks only the rows it takes and
+ * skips rows another reviewer is claiming, so concurrent reviewers never wait on, or get, the
+ * same application.
+ */
+@Service
+public class ApplicationQueueService {
+
+    private final ApplicationRepository applicationRepository;
+    private final UserRepository userRepository;
+    private final WorkQueueProperties properties;
+
+    public ApplicationQueueService(ApplicationRepository applicationRepository,
+                                   UserRepository userRepository,
+                                   WorkQueueProperties properties) {
+        this.applicationRepository = applicationRepository;
+        this.userRepository = userRepository;
+        this.properties = properties;
+    }
+
+    private AuthenticatedUser currentStaff() {
+        AuthenticatedUser user = AuthenticatedUser.current();
+        if (user == null || user.getUserId() == null) throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        if (!user.isStaff()) throw new ResponseStatusException(HttpStatus.FORBIDDEN);
+        return user;
+    }
+
+    @Transactional
+    public List<ApplicationDto> claim(Long permitTypeId, int count) {
+        AuthenticatedUser user = currentStaff();
+        int limit = Math.max(1, Math.min(count, properties.getMaxClaim()));
+        Instant now = Instant.now();
+        List<Application> claimed = applicationRepository.findClaimable(Application.Status.SUBMITTED, permitTypeId,
+                now, PageRequest.of(0, limit));
+        if (claimed.isEmpty()) return List.of();
+        Instant until = now.plusSeconds(properties.getLeaseSeconds());
+        for (Application app : claimed) {
+            app.setAssignee(userRepository.getReferenceById(user.getUserId()));
+            app.setLeaseExpiresAt(until);
+        }
+        List<Long> ids = claimed.stream().map(Application::getId).collect(Collectors.toList());
+        return applicationRepository.findWithDetailsByIdIn(ids).stream()
+                .map(ApplicationDto::fromEntity)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Extends the caller's claims on {@code ids}. Returns the ids still held; any missing one was
+     * released or, after its lease ran out, claimed by someone else.
+     */
+    @Transactional
+    public List<Long> heartbeat(Collection<Long> ids) {
+        AuthenticatedUser user = currentStaff();
+        if (ids.isEmpty()) return List.of();
+        Instant now = Instant.now();
+        applicationRepository.extendLeases(ids, user.getUserId(), now.plusSeconds(properties.getLeaseSeconds()));
+        return applicationRepository.findHeldIds(ids, user.getUserId(), now);
+    }
+
+    @Transactional
+    public void release(Collection<Long> ids) {
+        AuthenticatedUser user = currentStaff();
+        if (!ids.isEmpty()) applicationRepository.releaseLeases(ids, user.getUserId());
+    }
+}
@@ -1,111 +1,202 @@
 package gov.quincy.ma.permit.service;
 
+import gov.quincy.ma.permit.dto.ApplicationDetailDto;
 import gov.quincy.ma.permit.dto.ApplicationDto;
+import gov.quincy.ma.permit.dto.ApplicationTransitionDto;
 import gov.quincy.ma.permit.dto.CreateApplicationRequest;
+import gov.quincy.ma.permit.dto.DocumentDto;
+import gov.quincy.ma.permit.dto.PermitTypeDto;
+import gov.quincy.ma.permit.dto.StageStatsDto;
 import gov.quincy.ma.permit.dto.UpdateApplicationRequest;
 import gov.quincy.ma.permit.entity.Application;
-import gov.quincy.ma.permit.entity.User;
+import gov.quincy.ma.permit.entity.RawJson;
 import gov.quincy.ma.permit.repository.ApplicationRepository;
+import gov.quincy.ma.permit.repository.ApplicationTransitionRepository;
+import gov.quincy.ma.permit.repository.DocumentRepository;
 import gov.quincy.ma.permit.repository.PermitTypeRepository;
 import gov.quincy.ma.permit.repository.UserRepository;
+import gov.quincy.ma.permit.security.AuthenticatedUser;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.lang.reflect.RecordComponent;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class ApplicationService {
 
+    private static final Set<String> LIST_FIELDS = Arrays.stream(ApplicationDto.class.getRecordComponents())
+            .map(RecordComponent::getName)
+            .collect(Collectors.toUnmodifiableSet());
+
     private final ApplicationRepository applicationRepository;
     private final UserRepository userRepository;
     private final PermitTypeRepository permitTypeRepository;
+    private final ApplicationTransitionRepository transitionRepository;
+    private final DocumentRepository documentRepository;
+    private final ApplicationLifecycle lifecycle;
 
     public ApplicationService(ApplicationRepository applicationRepository,
                               UserRepository userRepository,
-                              PermitTypeRepository permitTypeRepository) {
+                              PermitTypeRepository permitTypeRepository,
+                              ApplicationTransitionRepository transitionRepository,
+                              DocumentRepository documentRepository,
+                              ApplicationLifecycle lifecycle) {
         this.applicationRepository = applicationRepository;
         this.userRepository = userRepository;
         this.permitTypeRepository = permitTypeRepository;
+        this.transitionRepository = transitionRepository;
+        this.documentRepository = documentRepository;
+        this.lifecycle = lifecycle;
     }
 
-    private String currentUserEmail() {
-        Object p = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        return p instanceof String ? (String) p : null;
-    }
-
-    private boolean isStaff() {
-        return SecurityContextHolder.getContext().getAuthentication().getAuthorities().stream()
-                .anyMatch(a -> "ROLE_STAFF".equals(a.getAuthority()));
+    private AuthenticatedUser currentUser() {
+        AuthenticatedUser user = AuthenticatedUser.current();
+        if (user == null || user.getUserId() == null) throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        return user;
     }
 
     @Transactional
     public ApplicationDto create(CreateApplicationRequest request) {
-        String email = currentUserEmail();
-        if (email == null) throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
-        User applicant = userRepository.findByEmail(email).orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED));
+        AuthenticatedUser user = currentUser();
         var permitType = permitTypeRepository.findById(request.getPermitTypeId())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid permit type"));
 
         Application app = new Application();
-        app.setApplicant(applicant);
+        app.setApplicant(userRepository.getReferenceById(user.getUserId()));
         app.setPermitType(permitType);
-        app.setFormData(request.getFormData());
+        app.setFormData(RawJson.of(request.getFormData()));
         app.setStatus(request.isSubmit() ? Application.Status.SUBMITTED : Application.Status.DRAFT);
         if (request.isSubmit()) app.setSubmittedAt(Instant.now());
         app = applicationRepository.save(app);
+        lifecycle.created(app, user.getUserId());
         return ApplicationDto.fromEntity(app);
     }
 
+    @Transactional(readOnly = true)
     public List<ApplicationDto> listMyApplications() {
-        String email = currentUserEmail();
-        if (email == null) throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
-        User user = userRepository.findByEmail(email).orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED));
-        return applicationRepository.findByApplicantIdOrderByCreatedAtDesc(user.getId()).stream()
+        AuthenticatedUser user = currentUser();
+        return applicationRepository.findByApplicantIdOrderByCreatedAtDesc(user.getUserId()).stream()
                 .map(ApplicationDto::fromEntity)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<ApplicationDto> listAllForStaff() {
-        if (!isStaff()) throw new ResponseStatusException(HttpStatus.FORBIDDEN);
+        if (!currentUser().isStaff()) throw new ResponseStatusException(HttpStatus.FORBIDDEN);
         return applicationRepository.findAllWithDetails().stream()
                 .map(ApplicationDto::fromEntity)
                 .collect(Collectors.toList());
     }
 
+    /** The caller's applications with only the given fields (see {@link #parseListFields}). */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> listMyApplications(List<String> fields) {
+        return applicationRepository.findFields(currentUser().getUserId(), fields);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> listAllForStaff(List<String> fields) {
+        if (!currentUser().isStaff()) throw new ResponseStatusException(HttpStatus.FORBIDDEN);
+        return applicationRepository.findFields(null, fields);
+    }
+
+    /**
+     * Parses a comma-separated {@code ?fields=} value of {@code ApplicationDto} field names,
+     * keeping their order; null when absent or blank, meaning the full DTO.
+     */
+    public static List<String> parseListFields(String fields) {
+        if (fields == null || fields.isBlank()) return null;
+        Set<String> selected = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            if (field.isBlank()) continue;
+            if (!LIST_FIELDS.contains(field.trim())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown field " + field.trim());
+            }
+            selected.add(field.trim());
+        }
+        return List.copyOf(selected);
+    }
+
+    @Transactional(readOnly = true)
     public ApplicationDto getById(Long id) {
         Application app = applicationRepository.findById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
-        String email = currentUserEmail();
-        if (email == null) throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
-        if (!isStaff() && !app.getApplicant().getEmail().equals(email)) {
+        if (!currentUser().canAccess(app.getApplicant().getId())) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN);
         }
         return ApplicationDto.fromEntity(app);
     }
 
+    /**
+     * The detail page in one call: the application with its permit type, applicant and reviewer
+     * in one select, then documents and history only when asked for, behind a single access check.
+     */
+    @Transactional(readOnly = true)
+    public ApplicationDetailDto detail(Long id, Set<ApplicationDetailDto.Field> fields) {
+        Application app = applicationRepository.findDetailById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        if (!currentUser().canAccess(app.getApplicant().getId())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN);
+        }
+        return new ApplicationDetailDto(
+            fields.contains(ApplicationDetailDto.Field.APPLICATION) ? ApplicationDto.fromEntity(app) : null,
+            fields.contains(ApplicationDetailDto.Field.PERMIT_TYPE) ? PermitTypeDto.fromEntity(app.getPermitType()) : null,
+            fields.contains(ApplicationDetailDto.Field.APPLICANT) ? ApplicationDetailDto.Person.fromEntity(app.getApplicant()) : null,
+            fields.contains(ApplicationDetailDto.Field.REVIEWER) ? ApplicationDetailDto.Person.fromEntity(app.getReviewer()) : null,
+            fields.contains(ApplicationDetailDto.Field.DOCUMENTS)
+                ? documentRepository.findByApplicationId(id).stream().map(DocumentDto::fromEntity).toList() : null,
+            fields.contains(ApplicationDetailDto.Field.EVENTS)
+                ? transitionRepository.findByApplicationIdOrderByOccurredAtAscIdAsc(id).stream().map(ApplicationTransitionDto::fromEntity).toList() : null
+        );
+    }
+
+    /** Parses a comma-separated {@code ?fields=} value; absent or blank means every field. */
+    public static Set<ApplicationDetailDto.Field> parseDetailFields(String fields) {
+        if (fields == null || fields.isBlank()) return EnumSet.allOf(ApplicationDetailDto.Field.class);
+        Set<ApplicationDetailDto.Field> selected = EnumSet.noneOf(ApplicationDetailDto.Field.class);
+        for (String key : fields.split(",")) {
+            if (key.isBlank()) continue;
+            ApplicationDetailDto.Field field = ApplicationDetailDto.Field.fromKey(key.trim());
+            if (field == null) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown field " + key.trim());
+            selected.add(field);
+        }
+        return selected;
+    }
+
     @Transactional
     public ApplicationDto update(Long id, UpdateApplicationRequest request) {
         Application app = applicationRepository.findById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
-        String email = currentUserEmail();
-        if (email == null) throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        AuthenticatedUser user = currentUser();
 
-        if (isStaff()) {
-            if (request.getStatus() != null) {
-                app.setStatus(Application.Status.valueOf(request.getStatus()));
+        if (user.isStaff()) {
+            if (app.isClaimedByOtherThan(user.getUserId(), Instant.now())) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Claimed by another reviewer");
+            }
+            Application.Status next = parseStatus(request.getStatus());
+            if (next != null && next != app.getStatus()) {
+                lifecycle.transition(app, next, user.getUserId());
                 app.setReviewedAt(Instant.now());
-                app.setReviewer(userRepository.findByEmail(email).orElse(null));
+                app.setReviewer(userRepository.getReferenceById(user.getUserId()));
+                // out of the queue: the reviewer who moved it owns it from here on
+                app.setAssignee(app.getReviewer());
+                app.setLeaseExpiresAt(null);
             }
             if (request.getStaffNotes() != null) app.setStaffNotes(request.getStaffNotes());
         } else {
-            if (!app.getApplicant().getEmail().equals(email)) throw new ResponseStatusException(HttpStatus.FORBIDDEN);
+            if (!user.canAccess(app.getApplicant().getId())) throw new ResponseStatusException(HttpStatus.FORBIDDEN);
             if (app.getStatus() != Application.Status.DRAFT) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot edit submitted application");
-            if (request.getFormData() != null) app.setFormData(request.getFormData());
+            if (request.getFormData() != null) app.setFormData(RawJson.of(request.getFormData()));
             if (Boolean.TRUE.equals(request.getSubmit())) {
-                app.setStatus(Application.Status.SUBMITTED);
+                lifecycle.transition(app, Application.Status.SUBMITTED, user.getUserId());
                 app.setSubmittedAt(Instant.now());
             }
         }
@@ -113,4 +204,30 @@ public class ApplicationService {
         app = applicationRepository.save(app);
         return ApplicationDto.fromEntity(app);
     }
+
+    private static Application.Status parseStatus(String status) {
+        if (status == null) return null;
+        try {
+            return Application.Status.valueOf(status);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown status " + status);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<ApplicationTransitionDto> history(Long id) {
+        Application app = applicationRepository.findById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        if (!currentUser().canAccess(app.getApplicant().getId())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN);
+        }
+        return transitionRepository.findByApplicationIdOrderByOccurredAtAscIdAsc(id).stream()
+                .map(ApplicationTransitionDto::fromEntity)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<StageStatsDto> stageStats(Instant since, Duration sla) {
+        if (!currentUser().isStaff()) throw new ResponseStatusException(HttpStatus.FORBIDDEN);
+        return transitionRepository.stageStats(since, sla.toMillis());
+    }
 }
@@ -6,10 +6,14 @@ import gov.quincy.ma.permit.dto.RegisterRequest;
 import gov.quincy.ma.permit.entity.User;
 import gov.quincy.ma.permit.repository.UserRepository;
 import gov.quincy.ma.permit.security.JwtService;
+import gov.quincy.ma.permit.security.TokenRevocationList;
+import io.jsonwebtoken.Claims;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 @Service
 public class AuthService {
@@ -17,11 +21,16 @@ public class AuthService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
+    private final RefreshTokenService refreshTokens;
+    private final TokenRevocationList revocations;
 
-    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtService jwtService) {
+    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtService jwtService,
+                       RefreshTokenService refreshTokens, TokenRevocationList revocations) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtService = jwtService;
+        this.refreshTokens = refreshTokens;
+        this.revocations = revocations;
     }
 
     @Transactional
@@ -35,8 +44,7 @@ public class AuthService {
         user.setName(request.getName());
         user.setRole(User.Role.APPLICANT);
         user = userRepository.save(user);
-        String token = jwtService.generateToken(user);
-        return new AuthResponse(token, user.getEmail(), user.getName(), user.getRole().name());
+        return tokens(user, refreshTokens.issue(user.getId()));
     }
 
     public AuthResponse login(LoginRequest request) {
@@ -45,7 +53,25 @@ public class AuthService {
         if (!passwordEncoder.matches(request.getPassword(), user.getPasswordHash())) {
             throw new BadCredentialsException("Invalid email or password");
         }
-        String token = jwtService.generateToken(user);
-        return new AuthResponse(token, user.getEmail(), user.getName(), user.getRole().name());
+        return tokens(user, refreshTokens.issue(user.getId()));
+    }
+
+    /** A new access token and the refresh token replacing {@code refreshToken}; no password involved. */
+    public AuthResponse refresh(String refreshToken) {
+        RefreshTokenService.Rotation rotation = refreshTokens.rotate(refreshToken);
+        User user = userRepository.findById(rotation.userId())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED));
+        return tokens(user, rotation.token());
+    }
+
+    /** Ends the session: the access token stops working now, the refresh token and its successors too. */
+    public void logout(Claims accessToken, String refreshToken) {
+        if (accessToken != null) revocations.revoke(accessToken.getId(), accessToken.getExpiration().toInstant());
+        if (refreshToken != null) refreshTokens.revoke(refreshToken);
+    }
+
+    private AuthResponse tokens(User user, String refreshToken) {
+        return new AuthResponse(jwtService.generateToken(user), user.getEmail(), user.getName(), user.getRole().name(),
+                refreshToken, jwtService.getExpirationMs() / 1000);
     }
 }
@@ -0,0 +1,42 @@
+package gov.quincy.ma.permit.service;
+
+/**
+ * Tells every node that cached data derived from the database is stale. {@code key} narrows the
+ * eviction (an entity id) or is null for the whole topic; {@code origin} is the publishing node.
+ */
+public record CacheInvalidation(Topic topic, String key, String origin) {
+
+    public enum Topic {
+        /** The public Document Center catalog and its search index. */
+        PUBLIC_DOCUMENTS,
+        /** A {@code PermitType} row (second-level and natural-id caches). */
+        PERMIT_TYPE,
+        /** A {@code User} row (second-level and natural-id caches). */
+        USER,
+        /** A revoked access token; {@code key} is its {@code jti}, added to every node's revocation filter. */
+        REVOKED_TOKEN,
+        /** The JWT signing keys; {@code key} is the new key's {@code kid}, and every node reloads its key ring. */
+        SIGNING_KEYS,
+        /** Property records; published by imports so future property caches can listen. */
+        PROPERTY_RECORDS,
+        /** Everything, e.g. after a node may have missed messages. */
+        ALL
+    }
+
+    /**
+     * Wire format: {@code TOPIC|key|origin}, well under Postgres' 8000-byte NOTIFY limit. Topic
+     * and origin (a UUID) never contain {@code |}, so the key may.
+     */
+    public String encode() {
+        return topic + "|" + (key != null ? key : "") + "|" + origin;
+    }
+
+    public static CacheInvalidation decode(String payload) {
+        int topicEnd = payload.indexOf('|');
+        int originStart = payload.lastIndexOf('|');
+        if (topicEnd < 0 || originStart == topicEnd) throw new IllegalArgumentException("Not a cache invalidation: " + payload);
+        String key = payload.substring(topicEnd + 1, originStart);
+        return new CacheInvalidation(Topic.valueOf(payload.substring(0, topicEnd)), key.isEmpty() ? null : key,
+                payload.substring(originStart + 1));
+    }
+}
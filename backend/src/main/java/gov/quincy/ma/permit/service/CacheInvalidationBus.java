@@ -0,0 +1,75 @@
+package gov.quincy.ma.permit.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+/**
+ * Fans {@link CacheInvalidation}s out to every backend node. The publishing node handles its own
+ * event synchronously; the others receive it through {@link #broadcast}. Either way it arrives as
+ * a Spring application event, so caches just declare an {@code @EventListener}.
+ */
+public abstract class CacheInvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ApplicationEventPublisher events;
+
+    protected CacheInvalidationBus(ApplicationEventPublisher events) {
+        this.events = events;
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /** Publishes now; use from code that runs after the data change is committed. */
+    public void publish(CacheInvalidation.Topic topic, String key) {
+        CacheInvalidation event = new CacheInvalidation(topic, key, nodeId);
+        events.publishEvent(event);
+        try {
+            broadcast(event);
+        } catch (RuntimeException e) {
+            // other nodes fall back to their cache TTLs; the write itself has already succeeded
+            log.warn("Could not broadcast {}: {}", event.encode(), e.toString());
+        }
+    }
+
+    /** Publishes once the current transaction commits (immediately when there is none). */
+    public void publishAfterCommit(CacheInvalidation.Topic topic, String key) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(topic, key);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(topic, key);
+            }
+        });
+    }
+
+    protected abstract void broadcast(CacheInvalidation event);
+
+    /** Called by transports for each message received; this node's own messages are dropped. */
+    protected void receive(String payload) {
+        CacheInvalidation event;
+        try {
+            event = CacheInvalidation.decode(payload);
+        } catch (RuntimeException e) {
+            log.warn("Ignoring malformed cache invalidation '{}'", payload);
+            return;
+        }
+        if (!nodeId.equals(event.origin())) events.publishEvent(event);
+    }
+
+    /** For transports that lost their connection and may have missed messages. */
+    protected void invalidateEverything() {
+        events.publishEvent(new CacheInvalidation(CacheInvalidation.Topic.ALL, null, nodeId));
+    }
+}
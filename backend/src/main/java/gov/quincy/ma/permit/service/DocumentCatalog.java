@@ -0,0 +1,239 @@
+package gov.quincy.ma.permit.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gov.quincy.ma.permit.dto.DocumentDto;
+import gov.quincy.ma.permit.repository.DocumentRepository;
+import gov.quincy.ma.permit.repository.DocumentTextRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory view of the public Document Center. Reads are served from an immutable snapshot
+ * with no database access; a change to a public document on any node rebuilds the snapshot
+ * after commit and swaps it in atomically, so readers always see one consistent version.
+ */
+@Service
+public class DocumentCatalog {
+
+    /** Upper bound on ranked search results, whatever the caller asks for. */
+    public static final int MAX_RANKED_RESULTS = 50;
+
+    private final DocumentRepository documentRepository;
+    private final DocumentTextRepository documentTextRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate tx;
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+    private final DocumentNameIndex nameIndex = new DocumentNameIndex();
+    /** The {@code sha256} each document's extracted text was indexed for; processing sets both together. */
+    private final Map<Long, String> textIndexedFor = new HashMap<>();
+
+    public DocumentCatalog(DocumentRepository documentRepository, DocumentTextRepository documentTextRepository,
+                           ObjectMapper objectMapper, TransactionTemplate tx) {
+        this.documentRepository = documentRepository;
+        this.documentTextRepository = documentTextRepository;
+        this.objectMapper = objectMapper;
+        // its own transaction: refreshes run from the publishing transaction's afterCommit callback
+        this.tx = new TransactionTemplate(tx.getTransactionManager());
+        this.tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * One version of the catalog. {@code searchIndex} maps every word-boundary suffix of each
+     * lowercased name to its documents, so a prefix query is a single {@code subMap} range.
+     * {@code encoded} memoizes the serialized (and gzipped) bodies of this version's fixed views;
+     * it goes away with the snapshot, so it never needs invalidating.
+     */
+    public record Snapshot(String etag,
+                           List<DocumentDto> documents,
+                           Map<Long, DocumentDto> byId,
+                           List<String> categories,
+                           Map<String, List<DocumentDto>> byCategory,
+                           NavigableMap<String, List<DocumentDto>> searchIndex,
+                           ConcurrentMap<String, EncodedJson> encoded) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        refresh();
+    }
+
+    public Snapshot snapshot() {
+        Snapshot snapshot = current.get();
+        return snapshot != null ? snapshot : refresh();
+    }
+
+    public List<DocumentDto> list(Snapshot snapshot, String category) {
+        if (category == null || category.isBlank()) return snapshot.documents();
+        return snapshot.byCategory().getOrDefault(category, List.of());
+    }
+
+    /**
+     * The list view for {@code category}, serialized once per snapshot. Only the full list and
+     * existing categories are memoized, so arbitrary parameters can't grow the memo.
+     */
+    public EncodedJson encodedList(Snapshot snapshot, String category) {
+        boolean all = category == null || category.isBlank();
+        if (!all && !snapshot.byCategory().containsKey(category)) return encode(list(snapshot, category));
+        return encoded(snapshot, all ? "list" : "list:" + category, s -> list(s, category));
+    }
+
+    public EncodedJson encodedCategories(Snapshot snapshot) {
+        return encoded(snapshot, "categories", Snapshot::categories);
+    }
+
+    private EncodedJson encoded(Snapshot snapshot, String view, Function<Snapshot, ?> body) {
+        return snapshot.encoded().computeIfAbsent(view, v -> encode(body.apply(snapshot)));
+    }
+
+    private EncodedJson encode(Object body) {
+        try {
+            return EncodedJson.of(objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize catalog view", e);
+        }
+    }
+
+    /** Documents whose name, or any word in it onwards, starts with {@code query} (case-insensitive). */
+    public List<DocumentDto> search(Snapshot snapshot, String query) {
+        if (query == null || query.isBlank()) return snapshot.documents();
+        String prefix = query.trim().toLowerCase(Locale.ROOT);
+        Set<DocumentDto> hits = new LinkedHashSet<>();
+        snapshot.searchIndex().subMap(prefix, true, prefix + Character.MAX_VALUE, false)
+                .values().forEach(hits::addAll);
+        // documents is name-sorted; filtering it keeps that order without re-sorting
+        return snapshot.documents().stream().filter(hits::contains).collect(Collectors.toList());
+    }
+
+    /**
+     * Typo-tolerant search ("buidling permit", "cert occupancy") over names and the text extracted
+     * from each document, best match first, at most {@code limit} results.
+     */
+    public List<DocumentDto> searchRanked(Snapshot snapshot, String query, int limit) {
+        if (query == null || query.isBlank()) return List.of();
+        int cap = Math.max(1, Math.min(limit, MAX_RANKED_RESULTS));
+        List<DocumentDto> results = new ArrayList<>(cap);
+        // the index can run ahead of this snapshot; ask for a few extra to cover ids it doesn't have yet
+        for (DocumentNameIndex.Hit hit : nameIndex.search(query, cap + 8)) {
+            DocumentDto doc = snapshot.byId().get(hit.documentId());
+            if (doc != null) results.add(doc);
+            if (results.size() == cap) break;
+        }
+        return results;
+    }
+
+    /** Rebuilds when any node changes a public document. */
+    @EventListener
+    public void onInvalidation(CacheInvalidation event) {
+        if (event.topic() == CacheInvalidation.Topic.PUBLIC_DOCUMENTS || event.topic() == CacheInvalidation.Topic.ALL) {
+            refresh();
+        }
+    }
+
+    /**
+     * Reads through a read-write transaction so the rebuild sees the primary, not a lagging replica.
+     * Serialized so an older rebuild can never be swapped in over a newer one. The search index is
+     * updated in place: only new or renamed documents are re-tokenized, and extracted text is read
+     * only for documents processed since the last rebuild.
+     */
+    public synchronized Snapshot refresh() {
+        List<DocumentDto> documents = tx.execute(status -> documentRepository.findByApplicationIdIsNullOrderByNameAsc()
+                .stream().map(DocumentDto::fromEntity).toList());
+        Snapshot snapshot = build(documents != null ? documents : List.of());
+        snapshot.documents().forEach(d -> nameIndex.index(d.getId(), d.getName()));
+        indexProcessedText(snapshot.documents());
+        List.copyOf(nameIndex.documentIds()).stream()
+                .filter(id -> !snapshot.byId().containsKey(id))
+                .forEach(id -> {
+                    nameIndex.remove(id);
+                    textIndexedFor.remove(id);
+                });
+        current.set(snapshot);
+        return snapshot;
+    }
+
+    private void indexProcessedText(List<DocumentDto> documents) {
+        Map<Long, String> processed = new HashMap<>();
+        for (DocumentDto doc : documents) {
+            if (doc.getSha256() != null && !doc.getSha256().equals(textIndexedFor.get(doc.getId()))) {
+                processed.put(doc.getId(), doc.getSha256());
+            }
+        }
+        if (processed.isEmpty()) return;
+        Map<Long, String> texts = new HashMap<>();
+        tx.executeWithoutResult(status -> documentTextRepository.findAllById(processed.keySet())
+                .forEach(t -> texts.put(t.getDocumentId(), t.getText())));
+        processed.forEach((id, sha256) -> {
+            nameIndex.indexText(id, texts.get(id));
+            textIndexedFor.put(id, sha256);
+        });
+    }
+
+    static Snapshot build(List<DocumentDto> documents) {
+        Map<Long, DocumentDto> byId = new HashMap<>();
+        Map<String, List<DocumentDto>> byCategory = new LinkedHashMap<>();
+        NavigableMap<String, List<DocumentDto>> searchIndex = new TreeMap<>();
+        for (DocumentDto doc : documents) {
+            byId.put(doc.getId(), doc);
+            if (doc.getCategory() != null && !doc.getCategory().isBlank()) {
+                byCategory.computeIfAbsent(doc.getCategory(), c -> new ArrayList<>()).add(doc);
+            }
+            String name = doc.getName().toLowerCase(Locale.ROOT);
+            for (int i = 0; i < name.length(); i++) {
+                if (i == 0 || !Character.isLetterOrDigit(name.charAt(i - 1)) && Character.isLetterOrDigit(name.charAt(i))) {
+                    searchIndex.computeIfAbsent(name.substring(i), k -> new ArrayList<>(1)).add(doc);
+                }
+            }
+        }
+        byCategory.replaceAll((c, docs) -> List.copyOf(docs));
+        searchIndex.replaceAll((k, docs) -> List.copyOf(docs));
+        List<String> categories = byCategory.keySet().stream().sorted().toList();
+        return new Snapshot(etag(documents), List.copyOf(documents), Map.copyOf(byId), categories,
+                Collections.unmodifiableMap(byCategory), Collections.unmodifiableNavigableMap(searchIndex),
+                new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Content hash, so identical catalogs get the same tag across restarts and nodes. Weak, because
+     * the same version is sent both gzipped and as-is.
+     */
+    private static String etag(List<DocumentDto> documents) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (DocumentDto d : documents) {
+                String row = String.join("\u0000", String.valueOf(d.getId()), d.getName(), String.valueOf(d.getCategory()),
+                        String.valueOf(d.getMimeType()), String.valueOf(d.getUploadedAt()), String.valueOf(d.getSha256()),
+                        String.valueOf(d.getScanStatus()), String.valueOf(d.isThumbnailAvailable()));
+                digest.update(row.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            return "W/\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package gov.quincy.ma.permit.service;
+
+import org.springframework.core.io.Resource;
+
+import java.net.URI;
+
+/**
+ * A stored file ready to stream. {@code contentEncoding} is set when the resource holds the
+ * encoded bytes as stored (for a client that accepted that encoding), otherwise it is null.
+ * When {@code redirect} is set the client should fetch the bytes from there instead.
+ */
+public record DocumentContent(Resource resource, String fileName, String contentEncoding, URI redirect) {
+
+    public DocumentContent(Resource resource, String fileName, String contentEncoding) {
+        this(resource, fileName, contentEncoding, null);
+    }
+
+    public static DocumentContent redirect(URI location) {
+        return new DocumentContent(null, null, null, location);
+    }
+}
@@ -0,0 +1,220 @@
+package gov.quincy.ma.permit.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Typo-tolerant name search. Names are split into lowercase terms; each distinct term goes into
+ * a BK-tree (Levenshtein) for edit-distance lookup and a sorted set for prefix lookup, with a
+ * posting set of document ids per term. Text extracted from a document's content is indexed the
+ * same way in postings of its own, and a match there counts for less than one in the name.
+ * Indexing is incremental and single-writer; searches run concurrently without locking.
+ */
+class DocumentNameIndex {
+
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "for", "in", "of", "on", "or", "the", "to");
+    /** A query word found only in a document's text scores this share of the same match in its name. */
+    static final double TEXT_WEIGHT = 0.5;
+
+    private final Map<Long, String> names = new ConcurrentHashMap<>();
+    private final Map<Long, List<String>> termsByDocument = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> textTermsByDocument = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> textPostings = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<String> sortedTerms = new ConcurrentSkipListSet<>();
+    private volatile Node root;
+
+    record Hit(Long documentId, double score) {
+    }
+
+    /** Adds or re-indexes a document; a no-op when its name hasn't changed. */
+    synchronized void index(Long documentId, String name) {
+        if (name.equals(names.put(documentId, name))) return;
+        List<String> terms = tokenize(name);
+        List<String> previous = termsByDocument.put(documentId, terms);
+        if (terms.equals(previous)) return;
+        if (previous != null) {
+            for (String term : previous) {
+                Set<Long> ids = postings.get(term);
+                if (ids != null) ids.remove(documentId);
+            }
+        }
+        for (String term : terms) post(postings, term, documentId);
+    }
+
+    /** Replaces the document's extracted-text terms; null or blank text clears them. */
+    synchronized void indexText(Long documentId, String text) {
+        Set<String> terms = new HashSet<>(tokenize(text));
+        Set<String> previous = terms.isEmpty() ? textTermsByDocument.remove(documentId) : textTermsByDocument.put(documentId, terms);
+        if (previous != null) {
+            for (String term : previous) {
+                if (terms.contains(term)) continue;
+                Set<Long> ids = textPostings.get(term);
+                if (ids != null) ids.remove(documentId);
+            }
+        }
+        for (String term : terms) post(textPostings, term, documentId);
+    }
+
+    private void post(Map<String, Set<Long>> target, String term, Long documentId) {
+        target.computeIfAbsent(term, t -> {
+            if (!postings.containsKey(t) && !textPostings.containsKey(t)) addTerm(t);
+            return ConcurrentHashMap.newKeySet();
+        }).add(documentId);
+    }
+
+    synchronized void remove(Long documentId) {
+        names.remove(documentId);
+        indexText(documentId, null);
+        List<String> previous = termsByDocument.remove(documentId);
+        if (previous == null) return;
+        for (String term : previous) {
+            Set<Long> ids = postings.get(term);
+            if (ids != null) ids.remove(documentId);
+        }
+    }
+
+    Set<Long> documentIds() {
+        return termsByDocument.keySet();
+    }
+
+    /**
+     * Scores each document by how well its terms cover the query terms: an exact term counts 1,
+     * a term the query word is a prefix of 0.8, and an edit-distance match less per edit. Documents
+     * matching more query words always rank above those matching fewer. A word matched only in the
+     * extracted text scores {@link #TEXT_WEIGHT} of the same match in the name.
+     */
+    List<Hit> search(String query, int limit) {
+        List<String> queryTerms = tokenize(query);
+        Map<Long, double[]> scores = new HashMap<>();
+        for (int i = 0; i < queryTerms.size(); i++) {
+            String q = queryTerms.get(i);
+            Map<String, Double> matches = new HashMap<>();
+            for (String term : sortedTerms.subSet(q, true, q + Character.MAX_VALUE, false)) {
+                matches.put(term, term.length() == q.length() ? 1.0 : 0.8);
+            }
+            int maxDistance = maxDistance(q);
+            if (maxDistance > 0 && root != null) {
+                collect(root, q, maxDistance, (term, d) -> matches.merge(term, 0.7 - 0.2 * (d - 1), Math::max));
+            }
+            for (Map.Entry<String, Double> match : matches.entrySet()) {
+                score(scores, postings.get(match.getKey()), i, queryTerms.size(), match.getValue());
+                score(scores, textPostings.get(match.getKey()), i, queryTerms.size(), match.getValue() * TEXT_WEIGHT);
+            }
+        }
+        // keep only the best `limit` in a min-heap instead of sorting every candidate
+        Comparator<Hit> ranking = Comparator.comparingDouble(Hit::score).thenComparing(Hit::documentId, Comparator.reverseOrder());
+        PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, ranking);
+        for (Map.Entry<Long, double[]> e : scores.entrySet()) {
+            double total = 0;
+            int matched = 0;
+            for (double s : e.getValue()) {
+                total += s;
+                if (s > 0) matched++;
+            }
+            Hit hit = new Hit(e.getKey(), matched * 10 + total);
+            if (best.size() < limit) {
+                best.add(hit);
+            } else if (ranking.compare(hit, best.peek()) > 0) {
+                best.poll();
+                best.add(hit);
+            }
+        }
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(ranking.reversed());
+        return hits;
+    }
+
+    private static void score(Map<Long, double[]> scores, Set<Long> ids, int queryTerm, int queryTerms, double score) {
+        if (ids == null) return;
+        for (Long id : ids) {
+            double[] perTerm = scores.computeIfAbsent(id, k -> new double[queryTerms]);
+            perTerm[queryTerm] = Math.max(perTerm[queryTerm], score);
+        }
+    }
+
+    /** Short words must match exactly; longer ones tolerate one or two typos. */
+    private static int maxDistance(String term) {
+        if (term.length() <= 3) return 0;
+        return term.length() <= 6 ? 1 : 2;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) return terms;
+        for (String raw : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!raw.isEmpty() && !STOP_WORDS.contains(raw)) terms.add(raw);
+        }
+        return terms;
+    }
+
+    // BK-tree: children are keyed by their distance to the parent, so a lookup with tolerance k
+    // only descends into children whose key lies within k of the query's distance to the node.
+
+    private static final class Node {
+        final String term;
+        final Map<Integer, Node> children = new ConcurrentHashMap<>();
+
+        Node(String term) {
+            this.term = term;
+        }
+    }
+
+    private interface MatchConsumer {
+        void accept(String term, int distance);
+    }
+
+    private void addTerm(String term) {
+        sortedTerms.add(term);
+        if (root == null) {
+            root = new Node(term);
+            return;
+        }
+        Node node = root;
+        while (true) {
+            int d = levenshtein(term, node.term);
+            if (d == 0) return;
+            Node child = node.children.get(d);
+            if (child == null) {
+                node.children.put(d, new Node(term));
+                return;
+            }
+            node = child;
+        }
+    }
+
+    private static void collect(Node node, String query, int maxDistance, MatchConsumer consumer) {
+        int d = levenshtein(query, node.term);
+        if (d <= maxDistance) consumer.accept(node.term, d);
+        for (Map.Entry<Integer, Node> child : node.children.entrySet()) {
+            if (Math.abs(child.getKey() - d) <= maxDistance) collect(child.getValue(), query, maxDistance, consumer);
+        }
+    }
+
+    static int levenshtein(String a, String b) {
+        int[] prev = new int[b.length() + 1];
+        int[] curr = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) prev[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            curr[0] = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                curr[j] = Math.min(Math.min(curr[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+            }
+            int[] tmp = prev;
+            prev = curr;
+            curr = tmp;
+        }
+        return prev[b.length()];
+    }
+}
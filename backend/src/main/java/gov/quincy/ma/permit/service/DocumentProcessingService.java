@@ -0,0 +1,249 @@
+package gov.quincy.ma.permit.service;
+
+import gov.quincy.ma.permit.config.DocumentProcessingProperties;
+import gov.quincy.ma.permit.entity.Document;
+import gov.quincy.ma.permit.entity.DocumentJob;
+import gov.quincy.ma.permit.entity.DocumentText;
+import gov.quincy.ma.permit.repository.DocumentJobRepository;
+import gov.quincy.ma.permit.repository.DocumentRepository;
+import gov.quincy.ma.permit.repository.DocumentTextRepository;
+import jakarta.annotation.PreDestroy;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background post-processing of uploaded documents: hash, text extraction, page-1 thumbnail
+ * and malware scan. Jobs live in {@code document_jobs}; each poll claims at most as many jobs
+ * as there are idle workers, so a backlog stays in the table instead of in memory. Every step
+ * overwrites its own output, so a retried or re-leased job is harmless.
+ */
+@Service
+@Lazy(false) // nothing injects it; under lazy initialization it would otherwise never start polling
+public class DocumentProcessingService {
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentProcessingService.class);
+
+    private final DocumentJobRepository jobRepository;
+    private final DocumentRepository documentRepository;
+    private final DocumentTextRepository documentTextRepository;
+    private final DocumentService documentService;
+    private final DocumentScanner scanner;
+    private final CacheInvalidationBus invalidationBus;
+    private final DocumentProcessingProperties properties;
+    private final TransactionTemplate tx;
+    private final ExecutorService workers;
+    private final Semaphore idleWorkers;
+
+    public DocumentProcessingService(DocumentJobRepository jobRepository,
+                                     DocumentRepository documentRepository,
+                                     DocumentTextRepository documentTextRepository,
+                                     DocumentService documentService,
+                                     DocumentScanner scanner,
+                                     CacheInvalidationBus invalidationBus,
+                                     DocumentProcessingProperties properties,
+                                     TransactionTemplate tx) {
+        this.jobRepository = jobRepository;
+        this.documentRepository = documentRepository;
+        this.documentTextRepository = documentTextRepository;
+        this.documentService = documentService;
+        this.scanner = scanner;
+        this.invalidationBus = invalidationBus;
+        this.properties = properties;
+        this.tx = tx;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(properties.getWorkers(), r -> {
+            Thread t = new Thread(r, "document-worker-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.idleWorkers = new Semaphore(properties.getWorkers());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${app.processing.poll-interval-ms:1000}")
+    public void poll() {
+        if (!properties.isEnabled()) return;
+        int free = idleWorkers.availablePermits();
+        if (free == 0) return;
+        for (DocumentJob job : claim(free)) {
+            idleWorkers.acquireUninterruptibly();
+            workers.execute(() -> {
+                try {
+                    run(job);
+                } finally {
+                    idleWorkers.release();
+                }
+            });
+        }
+    }
+
+    /**
+     * Leases up to {@code limit} pending or lapsed jobs to this node, counting the attempt. A lapsed
+     * job whose attempts are used up is marked FAILED instead: its worker died or hung on it, and
+     * {@link #run}'s failure path never got the chance to.
+     */
+    List<DocumentJob> claim(int limit) {
+        List<DocumentJob> claimed = tx.execute(status -> {
+            Instant now = Instant.now();
+            List<DocumentJob> jobs = new ArrayList<>();
+            for (DocumentJob job : jobRepository.findClaimable(now, DocumentJob.Status.PENDING,
+                    DocumentJob.Status.RUNNING, PageRequest.of(0, limit))) {
+                if (job.getAttempts() >= properties.getMaxAttempts()) {
+                    log.warn("Document job {} (document {}) lost its worker on the last of {} attempts",
+                            job.getId(), job.getDocumentId(), job.getAttempts());
+                    job.setStatus(DocumentJob.Status.FAILED);
+                    job.setLastError("Lease expired on attempt " + job.getAttempts());
+                    continue;
+                }
+                job.setStatus(DocumentJob.Status.RUNNING);
+                job.setAttempts(job.getAttempts() + 1);
+                job.setLeaseExpiresAt(now.plusSeconds(properties.getLeaseSeconds()));
+                jobs.add(job);
+            }
+            return jobs;
+        });
+        return claimed != null ? claimed : List.of();
+    }
+
+    /**
+     * Processes a claimed job and records the outcome: DONE, back to PENDING after a backoff that
+     * grows with each attempt, or FAILED once {@code app.processing.max-attempts} is used up.
+     */
+    void run(DocumentJob job) {
+        try {
+            Document doc = documentRepository.findById(job.getDocumentId()).orElse(null);
+            Result result = doc != null ? process(doc) : null;
+            tx.executeWithoutResult(status -> {
+                if (result != null) {
+                    documentRepository.findById(job.getDocumentId()).ifPresent(d -> {
+                        d.setSha256(result.sha256());
+                        d.setThumbnailPath(result.thumbnailPath());
+                        d.setScanStatus(result.scanStatus());
+                        if (result.text() != null) documentTextRepository.save(new DocumentText(d.getId(), result.text()));
+                        if (d.getApplication() == null) invalidationBus.publishAfterCommit(CacheInvalidation.Topic.PUBLIC_DOCUMENTS, null);
+                    });
+                }
+                jobRepository.findById(job.getId()).ifPresent(j -> {
+                    j.setStatus(DocumentJob.Status.DONE);
+                    j.setCompletedAt(Instant.now());
+                    j.setLastError(null);
+                });
+            });
+        } catch (Exception e) {
+            log.warn("Document job {} (document {}) failed on attempt {}: {}",
+                    job.getId(), job.getDocumentId(), job.getAttempts(), e.toString());
+            tx.executeWithoutResult(status -> jobRepository.findById(job.getId()).ifPresent(j -> {
+                boolean exhausted = j.getAttempts() >= properties.getMaxAttempts();
+                j.setStatus(exhausted ? DocumentJob.Status.FAILED : DocumentJob.Status.PENDING);
+                j.setAvailableAt(Instant.now().plusSeconds(properties.getRetryBackoffSeconds() * j.getAttempts()));
+                j.setLastError(String.valueOf(e.getMessage()));
+            }));
+        }
+    }
+
+    private record Result(String sha256, String text, String thumbnailPath, Document.ScanStatus scanStatus) {
+    }
+
+    private Result process(Document doc) throws IOException {
+        String mime = doc.getMimeType() != null ? doc.getMimeType() : "";
+        String sha256;
+        try (InputStream in = documentService.openStored(doc)) {
+            sha256 = sha256(in);
+        }
+        String text = null;
+        BufferedImage page1 = null;
+        if (mime.equals("application/pdf")) {
+            try (PDDocument pdf = loadPdf(doc)) {
+                PDFTextStripper stripper = new PDFTextStripper();
+                text = stripper.getText(pdf);
+                if (pdf.getNumberOfPages() > 0) page1 = new PDFRenderer(pdf).renderImageWithDPI(0, 72);
+            }
+        } else if (mime.startsWith("image/")) {
+            try (InputStream in = documentService.openStored(doc)) {
+                page1 = ImageIO.read(in);
+            }
+        } else if (mime.startsWith("text/")) {
+            try (InputStream in = documentService.openStored(doc)) {
+                text = new String(in.readNBytes(properties.getMaxExtractedChars() * 4), StandardCharsets.UTF_8);
+            }
+        }
+        if (text != null && text.length() > properties.getMaxExtractedChars()) {
+            text = text.substring(0, properties.getMaxExtractedChars());
+        }
+        String thumbnailPath = null;
+        if (page1 != null) {
+            BufferedImage thumbnail = scaleToWidth(page1, properties.getThumbnailWidth());
+            thumbnailPath = documentService.writeThumbnail(doc.getId(), out -> ImageIO.write(thumbnail, "png", out));
+        }
+        Document.ScanStatus scanStatus;
+        try (InputStream in = documentService.openStored(doc)) {
+            scanStatus = scanner.scan(in, mime);
+        }
+        return new Result(sha256, text, thumbnailPath, scanStatus);
+    }
+
+    /** Raw PDFs on local disk are opened in place; anything else is read into memory first. */
+    private PDDocument loadPdf(Document doc) throws IOException {
+        Optional<Path> local = doc.getContentEncoding() == null ? documentService.localFile(doc) : Optional.empty();
+        if (local.isPresent()) return Loader.loadPDF(local.get().toFile());
+        try (InputStream in = documentService.openStored(doc)) {
+            return Loader.loadPDF(new RandomAccessReadBuffer(in));
+        }
+    }
+
+    private static String sha256(InputStream content) throws IOException {
+        try (DigestInputStream in = new DigestInputStream(content, MessageDigest.getInstance("SHA-256"))) {
+            in.transferTo(OutputStream.nullOutputStream());
+            return HexFormat.of().formatHex(in.getMessageDigest().digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static BufferedImage scaleToWidth(BufferedImage src, int width) {
+        if (src.getWidth() <= width) return src;
+        int height = Math.max(1, src.getHeight() * width / src.getWidth());
+        BufferedImage out = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = out.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(src, 0, 0, width, height, null);
+        g.dispose();
+        return out;
+    }
+}
@@ -0,0 +1,17 @@
+package gov.quincy.ma.permit.service;
+
+import gov.quincy.ma.permit.entity.Document;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Hook for malware scanning of uploaded files. Register a bean of this type (ClamAV, a vendor
+ * API, ...) to replace the default, which marks every document {@link Document.ScanStatus#SKIPPED}.
+ * The stream carries the original bytes even when the file is stored compressed.
+ * Implementations must be safe to call more than once for the same file.
+ */
+public interface DocumentScanner {
+
+    Document.ScanStatus scan(InputStream content, String mimeType) throws IOException;
+}
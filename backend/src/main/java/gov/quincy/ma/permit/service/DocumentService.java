@@ -1,136 +1,279 @@
 package gov.quincy.ma.permit.service;
 
+import gov.quincy.ma.permit.config.DocumentCompressionProperties;
 import gov.quincy.ma.permit.dto.DocumentDto;
 import gov.quincy.ma.permit.entity.Application;
 import gov.quincy.ma.permit.entity.Document;
+import gov.quincy.ma.permit.entity.DocumentJob;
 import gov.quincy.ma.permit.repository.ApplicationRepository;
+import gov.quincy.ma.permit.repository.DocumentJobRepository;
 import gov.quincy.ma.permit.repository.DocumentRepository;
-import org.springframework.beans.factory.annotation.Value;
+import gov.quincy.ma.permit.security.AuthenticatedUser;
+import org.apache.commons.fileupload2.core.FileItemInput;
+import org.apache.commons.fileupload2.core.FileItemInputIterator;
+import org.apache.commons.fileupload2.core.FileUploadSizeException;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
-import jakarta.annotation.PostConstruct;
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.nio.file.Files;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 import java.util.stream.Collectors;
 
 @Service
 public class DocumentService {
 
+    private static final String THUMBNAIL_PREFIX = "thumbnails/";
+
     private final DocumentRepository documentRepository;
     private final ApplicationRepository applicationRepository;
-    private final Path uploadRoot;
+    private final DocumentJobRepository documentJobRepository;
+    private final DocumentCompressionProperties compression;
+    private final CacheInvalidationBus invalidationBus;
+    private final TransactionTemplate tx;
+    private final DocumentStore store;
 
     public DocumentService(DocumentRepository documentRepository,
                            ApplicationRepository applicationRepository,
-                           @Value("${app.upload-dir:${java.io.tmpdir}/quincy-uploads}") String uploadDir) {
+                           DocumentJobRepository documentJobRepository,
+                           DocumentCompressionProperties compression,
+                           CacheInvalidationBus invalidationBus,
+                           TransactionTemplate tx,
+                           DocumentStore store) {
         this.documentRepository = documentRepository;
         this.applicationRepository = applicationRepository;
-        this.uploadRoot = Path.of(uploadDir);
+        this.documentJobRepository = documentJobRepository;
+        this.compression = compression;
+        this.invalidationBus = invalidationBus;
+        this.tx = tx;
+        this.store = store;
     }
 
-    @PostConstruct
-    public void init() throws IOException {
-        Files.createDirectories(uploadRoot);
+    private Application requireAccessibleApplication(Long applicationId) {
+        AuthenticatedUser user = AuthenticatedUser.current();
+        if (user == null) throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        Application app = applicationRepository.findById(applicationId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        if (!user.canAccess(app.getApplicant().getId())) throw new ResponseStatusException(HttpStatus.FORBIDDEN);
+        return app;
     }
 
-    public List<DocumentDto> listByCategory(String category) {
-        if (category == null || category.isBlank()) {
-            return documentRepository.findByApplicationIdIsNullOrderByNameAsc().stream()
-                    .map(DocumentDto::fromEntity)
-                    .collect(Collectors.toList());
+    /** Public documents are readable by anyone signed in; an application's only by its applicant and staff. */
+    private Document requireReadableDocument(Long id) {
+        Document doc = documentRepository.findById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        if (doc.getApplication() != null) requireAccessibleApplication(doc.getApplication().getId());
+        return doc;
+    }
+
+    private String encodingFor(MultipartFile file) {
+        return compression.isCompressible(file.getContentType(), file.getSize()) ? Document.ENCODING_GZIP : null;
+    }
+
+    /**
+     * Streams the upload into the store, gzip-encoding it on the way when {@code encoding} is set;
+     * the request only returns once the bytes are durable.
+     */
+    private void storeDurably(InputStream in, String key, String encoding) throws IOException {
+        try (in) {
+            store.write(key, out -> encode(in, out, encoding, compression.getLevel()));
         }
-        return documentRepository.findByApplicationIdIsNullAndCategoryOrderByNameAsc(category).stream()
-                .map(DocumentDto::fromEntity)
-                .collect(Collectors.toList());
     }
 
-    public List<DocumentDto> searchByName(String name) {
-        if (name == null || name.isBlank()) {
-            return documentRepository.findByApplicationIdIsNullOrderByNameAsc().stream()
-                    .map(DocumentDto::fromEntity)
-                    .collect(Collectors.toList());
+    static void encode(InputStream in, OutputStream out, String encoding, int level) throws IOException {
+        if (Document.ENCODING_GZIP.equals(encoding)) {
+            GZIPOutputStream gzip = new GZIPOutputStream(out, 64 * 1024) {
+                {
+                    def.setLevel(level);
+                }
+            };
+            in.transferTo(gzip);
+            gzip.finish();
+        } else {
+            in.transferTo(out);
         }
-        return documentRepository.findByApplicationIdIsNullAndNameContainingIgnoreCaseOrderByNameAsc(name).stream()
-                .map(DocumentDto::fromEntity)
-                .collect(Collectors.toList());
     }
 
-    public List<String> listCategories() {
-        return documentRepository.findByApplicationIdIsNullOrderByNameAsc().stream()
-                .map(Document::getCategory)
-                .filter(c -> c != null && !c.isBlank())
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
+    /** The stored object as a local file, when the store keeps one (random-access readers). */
+    public Optional<Path> localFile(Document doc) {
+        return store.localPath(doc.getFilePath());
     }
 
-    public Resource getFile(Long id) {
-        Document doc = documentRepository.findById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    /** The original (decoded) bytes of a stored document. */
+    public InputStream openStored(Document doc) throws IOException {
+        return decode(store.open(doc.getFilePath()), doc.getContentEncoding());
+    }
+
+    static InputStream decode(InputStream in, String encoding) throws IOException {
+        return Document.ENCODING_GZIP.equals(encoding) ? new GZIPInputStream(in, 64 * 1024) : in;
+    }
+
+    /** Stores a PNG thumbnail and returns the name to record in {@code Document.thumbnailPath}. */
+    public String writeThumbnail(Long documentId, DocumentStore.ContentWriter writer) throws IOException {
+        String name = documentId + ".png";
+        store.write(THUMBNAIL_PREFIX + name, writer);
+        return name;
+    }
+
+    /**
+     * Encoded documents are passed through untouched when the client accepts their encoding,
+     * and decoded on the fly otherwise.
+     */
+    public DocumentContent getFile(Long id, boolean acceptsGzip) {
+        Document doc = requireReadableDocument(id);
+        if (doc.getScanStatus() == Document.ScanStatus.INFECTED) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "File failed virus scan");
+        }
+        String key = doc.getFilePath();
+        String fileName = key.substring(key.lastIndexOf('/') + 1);
+        if (doc.getContentEncoding() == null || acceptsGzip) {
+            Optional<URI> url = store.downloadUrl(key, fileName, doc.getContentEncoding());
+            if (url.isPresent()) return DocumentContent.redirect(url.get());
+            if (!store.exists(key)) throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+            return new DocumentContent(new StoredResource(store, key, fileName), fileName, doc.getContentEncoding());
+        }
         try {
-            Path file = uploadRoot.resolve(doc.getFilePath());
-            Resource r = new UrlResource(file.toUri());
-            if (!r.exists() || !r.isReadable()) throw new ResponseStatusException(HttpStatus.NOT_FOUND);
-            return r;
-        } catch (MalformedURLException e) {
+            return new DocumentContent(new InputStreamResource(openStored(doc)), fileName, null);
+        } catch (IOException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND);
         }
     }
 
+    public Resource getThumbnail(Long id) {
+        Document doc = requireReadableDocument(id);
+        if (doc.getThumbnailPath() == null) throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        String key = THUMBNAIL_PREFIX + doc.getThumbnailPath();
+        if (!store.exists(key)) throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        return new StoredResource(store, key, doc.getThumbnailPath());
+    }
+
+    /** Stores the file outside any transaction, then records it (and its processing job) in a short one. */
     public DocumentDto savePublicDocument(String name, String category, MultipartFile file) {
-        try {
-            String ext = file.getOriginalFilename() != null && file.getOriginalFilename().contains(".")
-                    ? file.getOriginalFilename().substring(file.getOriginalFilename().lastIndexOf('.'))
-                    : "";
-            String storedName = UUID.randomUUID() + ext;
-            Path target = uploadRoot.resolve(storedName);
-            Files.copy(file.getInputStream(), target, StandardCopyOption.REPLACE_EXISTING);
-            Document doc = new Document();
-            doc.setName(name != null ? name : file.getOriginalFilename());
-            doc.setCategory(category);
-            doc.setFilePath(storedName);
-            doc.setMimeType(file.getContentType());
-            doc = documentRepository.save(doc);
-            return DocumentDto.fromEntity(doc);
-        } catch (IOException e) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Failed to store file");
-        }
+        Document doc = new Document();
+        doc.setName(name != null ? name : file.getOriginalFilename());
+        doc.setCategory(category);
+        storeUpload(doc, file);
+        return record(doc, () -> invalidationBus.publishAfterCommit(CacheInvalidation.Topic.PUBLIC_DOCUMENTS, null));
     }
 
+    @Transactional(readOnly = true)
     public List<DocumentDto> findByApplicationId(Long applicationId) {
+        requireAccessibleApplication(applicationId);
         return documentRepository.findByApplicationId(applicationId).stream()
                 .map(DocumentDto::fromEntity)
                 .collect(Collectors.toList());
     }
 
+    /** Like {@link #attachAllToApplication}, the upload is stored before the short insert transaction. */
     public DocumentDto attachToApplication(Long applicationId, MultipartFile file) {
-        Application app = applicationRepository.findById(applicationId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        requireAccessibleApplication(applicationId);
+        Document doc = new Document();
+        storeUpload(doc, file);
+        if (doc.getName() == null) doc.setName(doc.getFilePath());
+        return record(doc, () -> doc.setApplication(applicationRepository.getReferenceById(applicationId)));
+    }
+
+    private void storeUpload(Document doc, MultipartFile file) {
+        String storedName = storedNameFor(file.getOriginalFilename());
+        String encoding = encodingFor(file);
+        if (doc.getName() == null) doc.setName(file.getOriginalFilename());
+        doc.setFilePath(storedName);
+        doc.setMimeType(file.getContentType());
+        doc.setContentEncoding(encoding);
         try {
-            String ext = file.getOriginalFilename() != null && file.getOriginalFilename().contains(".")
-                    ? file.getOriginalFilename().substring(file.getOriginalFilename().lastIndexOf('.'))
-                    : "";
-            String storedName = UUID.randomUUID() + ext;
-            Path target = uploadRoot.resolve(storedName);
-            Files.copy(file.getInputStream(), target, StandardCopyOption.REPLACE_EXISTING);
-            Document doc = new Document();
-            doc.setName(file.getOriginalFilename() != null ? file.getOriginalFilename() : storedName);
-            doc.setFilePath(storedName);
-            doc.setMimeType(file.getContentType());
-            doc.setApplication(app);
-            doc = documentRepository.save(doc);
-            return DocumentDto.fromEntity(doc);
+            storeDurably(file.getInputStream(), storedName, encoding);
         } catch (IOException e) {
+            deleteStored(List.of(doc));
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Failed to store file");
         }
     }
+
+    /** Inserts a stored document and its processing job; the file is removed if the insert fails. */
+    private DocumentDto record(Document doc, Runnable inTransaction) {
+        try {
+            return tx.execute(status -> {
+                inTransaction.run();
+                Document saved = documentRepository.save(doc);
+                documentJobRepository.save(new DocumentJob(saved.getId()));
+                return DocumentDto.fromEntity(saved);
+            });
+        } catch (RuntimeException e) {
+            deleteStored(List.of(doc));
+            throw e;
+        }
+    }
+
+    /**
+     * Streams each file part straight to storage as it arrives, then inserts all of the rows (and
+     * their processing jobs) in one transaction. Access is checked once, before the body is read;
+     * if any part fails, the files already written are removed and nothing is recorded.
+     */
+    public List<DocumentDto> attachAllToApplication(Long applicationId, FileItemInputIterator parts) {
+        requireAccessibleApplication(applicationId);
+        List<Document> docs = new ArrayList<>();
+        try {
+            while (parts.hasNext()) {
+                FileItemInput part = parts.next();
+                if (part.isFormField() || part.getName() == null || part.getName().isBlank()) continue;
+                String storedName = storedNameFor(part.getName());
+                String encoding = compression.isCompressible(part.getContentType()) ? Document.ENCODING_GZIP : null;
+                Document doc = new Document();
+                doc.setName(part.getName());
+                doc.setFilePath(storedName);
+                doc.setMimeType(part.getContentType());
+                doc.setContentEncoding(encoding);
+                docs.add(doc);
+                storeDurably(part.getInputStream(), storedName, encoding);
+            }
+        } catch (FileUploadSizeException e) {
+            deleteStored(docs);
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, e.getMessage());
+        } catch (IOException e) {
+            deleteStored(docs);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Failed to store file");
+        }
+        if (docs.isEmpty()) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No files in request");
+        try {
+            return tx.execute(status -> {
+                Application app = applicationRepository.getReferenceById(applicationId);
+                docs.forEach(d -> d.setApplication(app));
+                List<Document> saved = documentRepository.saveAll(docs);
+                documentJobRepository.saveAll(saved.stream().map(d -> new DocumentJob(d.getId())).toList());
+                return saved.stream().map(DocumentDto::fromEntity).collect(Collectors.toList());
+            });
+        } catch (RuntimeException e) {
+            deleteStored(docs);
+            throw e;
+        }
+    }
+
+    private String storedNameFor(String originalName) {
+        String ext = originalName != null && originalName.contains(".")
+                ? originalName.substring(originalName.lastIndexOf('.'))
+                : "";
+        return UUID.randomUUID() + ext;
+    }
+
+    private void deleteStored(List<Document> docs) {
+        for (Document doc : docs) {
+            try {
+                store.delete(doc.getFilePath());
+            } catch (IOException ignored) {
+                // best effort; an orphaned file is harmless
+            }
+        }
+    }
 }
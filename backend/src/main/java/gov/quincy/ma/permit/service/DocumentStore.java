@@ -0,0 +1,52 @@
+package gov.quincy.ma.permit.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Where document bytes live, addressed by key ({@code Document.filePath}, or
+ * {@code thumbnails/<id>.png}). Implementations: {@link LocalDocumentStore} for a single node,
+ * {@link S3DocumentStore} when several nodes share one bucket.
+ */
+public interface DocumentStore {
+
+    @FunctionalInterface
+    interface ContentWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Streams an object into the store. It becomes visible, durably, only once {@code writer}
+     * returns; if the writer throws, nothing is left behind.
+     */
+    void write(String key, ContentWriter writer) throws IOException;
+
+    InputStream open(String key) throws IOException;
+
+    /** Bytes from {@code offset}, at most {@code length} of them ({@code -1}: to the end). */
+    InputStream open(String key, long offset, long length) throws IOException;
+
+    /** Stored size in bytes; {@link java.nio.file.NoSuchFileException} when missing. */
+    long size(String key) throws IOException;
+
+    boolean exists(String key);
+
+    void delete(String key) throws IOException;
+
+    /** The object as a local file, for readers that need random access. */
+    default Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+
+    /**
+     * A short-lived URL the client can download from directly, so the bytes never pass through
+     * this JVM; empty when the store can't issue one.
+     */
+    default Optional<URI> downloadUrl(String key, String fileName, String contentEncoding) {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,34 @@
+package gov.quincy.ma.permit.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A response body serialized once and, when it is worth it, gzipped once at maximum compression,
+ * so every request for it is a byte copy. {@code gzip} is {@code null} for bodies too small to
+ * gain from compression.
+ */
+public record EncodedJson(byte[] identity, byte[] gzip) {
+
+    /** Below this, gzip framing and the CPU cost outweigh the bytes saved. */
+    public static final int MIN_COMPRESS_BYTES = 1024;
+
+    public static EncodedJson of(byte[] json) {
+        if (json.length < MIN_COMPRESS_BYTES) return new EncodedJson(json, null);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] compressed = buffer.toByteArray();
+        return new EncodedJson(json, compressed.length < json.length ? compressed : null);
+    }
+}
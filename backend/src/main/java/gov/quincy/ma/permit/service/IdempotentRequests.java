@@ -0,0 +1,163 @@
+package gov.quincy.ma.permit.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gov.quincy.ma.permit.config.IdempotencyProperties;
+import gov.quincy.ma.permit.security.AuthenticatedUser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * {@code Idempotency-Key} support for non-idempotent POSTs. The first request with a key runs;
+ * a retry with the same key and the same request gets the original result back instead of doing
+ * the work again, waiting for it if the original is still running. Reusing a key for a different
+ * request is a 422. Keys are scoped to the caller and endpoint, kept for {@code app.idempotency.ttl}
+ * and capped at {@code max-entries}, oldest first, though keys still running are kept. Claiming a
+ * key is a single {@code putIfAbsent}, so concurrent duplicates never block each other on a lock.
+ * Failed requests are not remembered: their waiters see the same error, and the next retry runs
+ * again.
+ * <p>
+ * Keys live on the node that served the request, so retries are only deduplicated when they
+ * reach the same node.
+ */
+@Component
+public class IdempotentRequests {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    /** The action's result, and whether it was replayed from an earlier request rather than run now. */
+    public record Outcome<T>(T body, boolean replayed) {
+    }
+
+    private record Key(String endpoint, Long userId, String idempotencyKey) {
+    }
+
+    private record Entry(Key key, String fingerprint, CompletableFuture<Object> result, long expiresAt) {
+
+        boolean expired(long now) {
+            return now - expiresAt > 0;
+        }
+    }
+
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    /** Entries in the order they were created, which with a fixed TTL is also expiry order. */
+    private final Queue<Entry> byAge = new ConcurrentLinkedQueue<>();
+    private final IdempotencyProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+
+    public IdempotentRequests(IdempotencyProperties properties, MeterRegistry meterRegistry, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+    }
+
+    /** SHA-256 of the request's JSON form: what has to match for a retry to count as the same request. */
+    public String fingerprint(Object request) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Request can't be fingerprinted", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Runs {@code action} once per ({@code endpoint}, caller, {@code idempotencyKey}). {@code fingerprint}
+     * identifies the request, so that a key reused for different content is rejected.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Outcome<T> execute(String endpoint, String idempotencyKey, String fingerprint, Supplier<T> action) {
+        if (!properties.isEnabled() || idempotencyKey == null) return new Outcome<>(action.get(), false);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, HEADER + " must be 1-" + MAX_KEY_LENGTH + " characters");
+        }
+        AuthenticatedUser user = AuthenticatedUser.current();
+        Key key = new Key(endpoint, user != null ? user.getUserId() : null, idempotencyKey);
+        long now = System.nanoTime();
+        evict(now);
+
+        Entry mine = new Entry(key, fingerprint, new CompletableFuture<>(), now + properties.getTtl().toNanos());
+        while (true) {
+            Entry existing = entries.putIfAbsent(key, mine);
+            if (existing == null) break;
+            if (existing.expired(now)) {
+                if (entries.replace(key, existing, mine)) break;
+                continue;
+            }
+            if (!existing.fingerprint().equals(fingerprint)) {
+                counter(endpoint, "mismatch").increment();
+                throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                        HEADER + " was already used for a different request");
+            }
+            counter(endpoint, existing.result().isDone() ? "replayed" : "awaited").increment();
+            return new Outcome<>((T) await(existing.result()), true);
+        }
+        byAge.add(mine);
+        counter(endpoint, "executed").increment();
+        try {
+            T result = action.get();
+            mine.result().complete(result);
+            return new Outcome<>(result, false);
+        } catch (RuntimeException | Error e) {
+            entries.remove(key, mine);
+            byAge.remove(mine);
+            mine.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Forgets expired keys, then the oldest ones while over the cap. A request that is still
+     * running is never forgotten, or a retry would run it a second time; while the oldest are in
+     * flight the map may grow past the cap.
+     */
+    private void evict(long now) {
+        Entry oldest;
+        while ((oldest = byAge.peek()) != null && oldest.result().isDone()
+                && (oldest.expired(now) || entries.size() > properties.getMaxEntries())) {
+            if (byAge.remove(oldest)) entries.remove(oldest.key(), oldest);
+        }
+    }
+
+    private Object await(CompletableFuture<Object> result) {
+        try {
+            return result.get(properties.getInFlightWait().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "The original request with this " + HEADER + " is still in progress");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    private Counter counter(String endpoint, String outcome) {
+        return Counter.builder("idempotency.requests")
+                .description("Keyed requests that ran (executed), were answered from an earlier run (replayed, awaited) or reused a key (mismatch)")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
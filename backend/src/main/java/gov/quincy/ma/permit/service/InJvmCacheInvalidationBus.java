@@ -0,0 +1,60 @@
+package gov.quincy.ma.permit.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Transport for nodes sharing one JVM: the application contexts in the process that share a
+ * cluster id (their datasource URL) are the "nodes" of one cluster. That is the situation with
+ * in-memory H2, which is only shareable within one JVM anyway, and it is what the multi-node tests
+ * run; contexts on other databases never see each other's messages. Delivery is asynchronous,
+ * like a real network hop.
+ */
+public class InJvmCacheInvalidationBus extends CacheInvalidationBus {
+
+    private static final Map<String, Set<InJvmCacheInvalidationBus>> CLUSTERS = new ConcurrentHashMap<>();
+
+    private final String clusterId;
+    private final ExecutorService inbox = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "cache-invalidation-inbox");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public InJvmCacheInvalidationBus(ApplicationEventPublisher events, String clusterId) {
+        super(events);
+        this.clusterId = clusterId;
+        CLUSTERS.computeIfAbsent(clusterId, id -> new CopyOnWriteArraySet<>()).add(this);
+    }
+
+    /** The cluster for a JDBC URL: the database it names, without connection options such as H2's {@code ;DB_CLOSE_DELAY}. */
+    public static String clusterIdFor(String jdbcUrl) {
+        if (jdbcUrl == null) return "";
+        int options = jdbcUrl.indexOf(';');
+        return options >= 0 ? jdbcUrl.substring(0, options) : jdbcUrl;
+    }
+
+    @PreDestroy
+    public void leave() {
+        CLUSTERS.computeIfPresent(clusterId, (id, nodes) -> {
+            nodes.remove(this);
+            return nodes.isEmpty() ? null : nodes;
+        });
+        inbox.shutdown();
+    }
+
+    @Override
+    protected void broadcast(CacheInvalidation event) {
+        String payload = event.encode();
+        for (InJvmCacheInvalidationBus node : CLUSTERS.getOrDefault(clusterId, Set.of())) {
+            if (node != this) node.inbox.execute(() -> node.receive(payload));
+        }
+    }
+}
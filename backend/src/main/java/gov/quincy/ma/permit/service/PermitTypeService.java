@@ -4,11 +4,13 @@ import gov.quincy.ma.permit.dto.PermitTypeDto;
 import gov.quincy.ma.permit.entity.PermitType;
 import gov.quincy.ma.permit.repository.PermitTypeRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
+@Transactional(readOnly = true)
 public class PermitTypeService {
 
     private final PermitTypeRepository permitTypeRepository;
@@ -0,0 +1,90 @@
+package gov.quincy.ma.permit.service;
+
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Transport over Postgres {@code LISTEN/NOTIFY}, so no extra broker is needed. Messages are sent
+ * with {@code pg_notify} on a pooled (primary) connection; a dedicated connection outside the pool
+ * listens. After that connection drops, the node may have missed messages, so it invalidates
+ * everything locally once it is listening again.
+ */
+public class PostgresCacheInvalidationBus extends CacheInvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresCacheInvalidationBus.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String channel;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final Duration reconnectDelay;
+    private final Thread listener;
+    private volatile boolean running = true;
+
+    public PostgresCacheInvalidationBus(ApplicationEventPublisher events, JdbcTemplate jdbcTemplate, String channel,
+                                        String url, String username, String password, Duration reconnectDelay) {
+        super(events);
+        this.jdbcTemplate = jdbcTemplate;
+        this.channel = channel;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.reconnectDelay = reconnectDelay;
+        this.listener = new Thread(this::listen, "cache-invalidation-listener");
+        this.listener.setDaemon(true);
+        this.listener.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        listener.interrupt();
+    }
+
+    @Override
+    protected void broadcast(CacheInvalidation event) {
+        jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, channel, event.encode());
+    }
+
+    private void listen() {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN \"" + channel.replace("\"", "") + "\"");
+                }
+                if (reconnecting) {
+                    log.info("Cache invalidation listener reconnected; invalidating local caches");
+                    invalidateEverything();
+                }
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(500);
+                    if (notifications == null) continue;
+                    for (PGNotification notification : notifications) receive(notification.getParameter());
+                }
+            } catch (SQLException e) {
+                if (!running) return;
+                log.warn("Cache invalidation listener lost its connection: {}", e.toString());
+                reconnecting = true;
+                try {
+                    Thread.sleep(reconnectDelay.toMillis());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+}
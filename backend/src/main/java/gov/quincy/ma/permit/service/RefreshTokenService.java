@@ -0,0 +1,99 @@
+package gov.quincy.ma.permit.service;
+
+import gov.quincy.ma.permit.config.JwtProperties;
+import gov.quincy.ma.permit.entity.RefreshToken;
+import gov.quincy.ma.permit.repository.RefreshTokenRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Opaque, single-use refresh tokens. Only their SHA-256 is stored, so the table is useless to
+ * anyone who reads it; rotation is a hash lookup, not a password check.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository repository;
+    private final JwtProperties properties;
+
+    public RefreshTokenService(RefreshTokenRepository repository, JwtProperties properties) {
+        this.repository = repository;
+        this.properties = properties;
+    }
+
+    /** A rotated token: who it belongs to and the value that replaces it. */
+    public record Rotation(Long userId, String token) {
+    }
+
+    /** Starts a new family for a fresh login. */
+    @Transactional
+    public String issue(Long userId) {
+        return issue(userId, UUID.randomUUID().toString());
+    }
+
+    private String issue(Long userId, String family) {
+        byte[] secret = new byte[32];
+        RANDOM.nextBytes(secret);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+        Instant expiresAt = Instant.now().plusMillis(properties.getRefreshExpirationMs());
+        repository.save(new RefreshToken(hash(token), family, userId, expiresAt));
+        return token;
+    }
+
+    /**
+     * Revokes {@code token} and issues its successor. A token that was already used means a copy
+     * is in someone else's hands: the whole family is revoked, and the commit must survive the 401
+     * that follows, hence {@code noRollbackFor}.
+     */
+    @Transactional(noRollbackFor = ResponseStatusException.class)
+    public Rotation rotate(String token) {
+        RefreshToken current = repository.findByTokenHash(hash(token))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unknown refresh token"));
+        Instant now = Instant.now();
+        if (current.getRevokedAt() != null) {
+            repository.revokeFamily(current.getFamily(), now);
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Refresh token reused");
+        }
+        if (current.getExpiresAt().isBefore(now)) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Refresh token expired");
+        }
+        current.setRevokedAt(now);
+        return new Rotation(current.getUserId(), issue(current.getUserId(), current.getFamily()));
+    }
+
+    /** Ends the session {@code token} belongs to; unknown tokens are ignored. */
+    @Transactional
+    public void revoke(String token) {
+        repository.findByTokenHash(hash(token))
+                .ifPresent(current -> repository.revokeFamily(current.getFamily(), Instant.now()));
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.rebuild-interval-ms:300000}")
+    @Transactional
+    public void purgeExpired() {
+        repository.deleteExpired(Instant.now());
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package gov.quincy.ma.permit.service;
+
+import gov.quincy.ma.permit.config.DocumentStorageProperties;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchBucketException;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Documents in an S3 bucket (or any S3-compatible server such as MinIO), so every node behind
+ * the load balancer sees the same objects. Uploads are streamed as multipart uploads one part
+ * at a time, ranged reads map to {@code Range} GETs, and downloads can be handed to the client
+ * as presigned URLs.
+ */
+public class S3DocumentStore implements DocumentStore, AutoCloseable {
+
+    private final S3Client client;
+    private final S3Presigner presigner;
+    private final DocumentStorageProperties.S3 properties;
+
+    public S3DocumentStore(DocumentStorageProperties.S3 properties) {
+        this.properties = properties;
+        AwsCredentialsProvider credentials = properties.getAccessKey() != null && !properties.getAccessKey().isBlank()
+                ? StaticCredentialsProvider.create(AwsBasicCredentials.create(properties.getAccessKey(), properties.getSecretKey()))
+                : DefaultCredentialsProvider.create();
+        S3Configuration s3Config = S3Configuration.builder()
+                .pathStyleAccessEnabled(properties.isPathStyle())
+                .chunkedEncodingEnabled(false)
+                .build();
+        var clientBuilder = S3Client.builder()
+                .region(Region.of(properties.getRegion()))
+                .credentialsProvider(credentials)
+                .serviceConfiguration(s3Config);
+        var presignerBuilder = S3Presigner.builder()
+                .region(Region.of(properties.getRegion()))
+                .credentialsProvider(credentials)
+                .serviceConfiguration(s3Config);
+        if (properties.getEndpoint() != null && !properties.getEndpoint().isBlank()) {
+            clientBuilder.endpointOverride(URI.create(properties.getEndpoint()));
+            presignerBuilder.endpointOverride(URI.create(properties.getEndpoint()));
+        }
+        this.client = clientBuilder.build();
+        this.presigner = presignerBuilder.build();
+        if (properties.isCreateBucket()) createBucketIfMissing();
+    }
+
+    private String bucket() {
+        return properties.getBucket();
+    }
+
+    private void createBucketIfMissing() {
+        try {
+            client.headBucket(b -> b.bucket(bucket()));
+        } catch (NoSuchBucketException e) {
+            client.createBucket(b -> b.bucket(bucket()));
+        }
+    }
+
+    @Override
+    public void write(String key, ContentWriter writer) throws IOException {
+        PartUploader uploader = new PartUploader(key);
+        try {
+            writer.writeTo(uploader);
+            uploader.complete();
+        } catch (IOException | RuntimeException e) {
+            uploader.abort();
+            if (e instanceof S3Exception) throw new IOException("S3 upload of " + key + " failed", e);
+            throw e;
+        }
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return get(GetObjectRequest.builder().bucket(bucket()).key(key).build());
+    }
+
+    @Override
+    public InputStream open(String key, long offset, long length) throws IOException {
+        if (length == 0) return InputStream.nullInputStream();
+        String range = length < 0 ? "bytes=" + offset + "-" : "bytes=" + offset + "-" + (offset + length - 1);
+        return get(GetObjectRequest.builder().bucket(bucket()).key(key).range(range).build());
+    }
+
+    private InputStream get(GetObjectRequest request) throws IOException {
+        try {
+            return client.getObject(request);
+        } catch (NoSuchKeyException e) {
+            throw new NoSuchFileException(request.key());
+        } catch (S3Exception e) {
+            throw new IOException("S3 read of " + request.key() + " failed", e);
+        }
+    }
+
+    @Override
+    public long size(String key) throws IOException {
+        try {
+            return client.headObject(b -> b.bucket(bucket()).key(key)).contentLength();
+        } catch (NoSuchKeyException e) {
+            throw new NoSuchFileException(key);
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) throw new NoSuchFileException(key);
+            throw new IOException("S3 head of " + key + " failed", e);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        try {
+            size(key);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        try {
+            client.deleteObject(b -> b.bucket(bucket()).key(key));
+        } catch (S3Exception e) {
+            throw new IOException("S3 delete of " + key + " failed", e);
+        }
+    }
+
+    @Override
+    public Optional<URI> downloadUrl(String key, String fileName, String contentEncoding) {
+        if (!properties.isRedirectDownloads()) return Optional.empty();
+        GetObjectRequest.Builder get = GetObjectRequest.builder()
+                .bucket(bucket())
+                .key(key)
+                .responseContentType("application/octet-stream")
+                .responseContentDisposition("attachment; filename=\"" + fileName + "\"");
+        if (contentEncoding != null) get.responseContentEncoding(contentEncoding);
+        var presigned = presigner.presignGetObject(p -> p.signatureDuration(properties.getPresignTtl())
+                .getObjectRequest(get.build()));
+        try {
+            return Optional.of(presigned.url().toURI());
+        } catch (URISyntaxException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void close() {
+        presigner.close();
+        client.close();
+    }
+
+    /**
+     * Buffers one part at a time. An object smaller than a part is sent as a single PUT; anything
+     * larger becomes a multipart upload, which is aborted if the writer fails.
+     */
+    private final class PartUploader extends OutputStream {
+
+        private final String key;
+        private final byte[] buffer = new byte[properties.getPartSizeBytes()];
+        private final List<CompletedPart> parts = new ArrayList<>();
+        private int filled;
+        private String uploadId;
+
+        PartUploader(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public void write(int b) {
+            if (filled == buffer.length) flushPart();
+            buffer[filled++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            while (len > 0) {
+                if (filled == buffer.length) flushPart();
+                int n = Math.min(len, buffer.length - filled);
+                System.arraycopy(b, off, buffer, filled, n);
+                filled += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        private void flushPart() {
+            if (uploadId == null) {
+                uploadId = client.createMultipartUpload(r -> r.bucket(bucket()).key(key)).uploadId();
+            }
+            int partNumber = parts.size() + 1;
+            String etag = client.uploadPart(r -> r.bucket(bucket()).key(key).uploadId(uploadId).partNumber(partNumber),
+                    RequestBody.fromBytes(Arrays.copyOf(buffer, filled))).eTag();
+            parts.add(CompletedPart.builder().partNumber(partNumber).eTag(etag).build());
+            filled = 0;
+        }
+
+        void complete() {
+            if (uploadId == null) {
+                client.putObject(r -> r.bucket(bucket()).key(key), RequestBody.fromBytes(Arrays.copyOf(buffer, filled)));
+            } else {
+                if (filled > 0) flushPart();
+                client.completeMultipartUpload(r -> r.bucket(bucket()).key(key).uploadId(uploadId)
+                        .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build()));
+            }
+        }
+
+        void abort() {
+            if (uploadId == null) return;
+            try {
+                client.abortMultipartUpload(r -> r.bucket(bucket()).key(key).uploadId(uploadId));
+            } catch (S3Exception ignored) {
+                // the bucket's lifecycle rule for incomplete uploads cleans up what this misses
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package gov.quincy.ma.permit.service;
+
+import gov.quincy.ma.permit.config.SingleFlightProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent identical reads into one. The first caller for an (endpoint, key) runs the
+ * loader; callers that arrive while it is running wait for, and share, its result or exception.
+ * Nothing is kept once the call finishes, so this only removes duplicate concurrent work and never
+ * serves stale data. Results are shared between callers as-is: use it only for responses that
+ * don't depend on who is asking, and never mutate what it returns.
+ */
+@Component
+public class SingleFlight {
+
+    private record Key(String endpoint, String key) {
+    }
+
+    private final ConcurrentHashMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final SingleFlightProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public SingleFlight(SingleFlightProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String endpoint, String key, Supplier<T> loader) {
+        SingleFlightProperties.Endpoint config = properties.endpoint(endpoint);
+        if (!properties.isEnabled() || !config.isEnabled()) return loader.get();
+
+        Key flightKey = new Key(endpoint, config.getKey().apply(key));
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(flightKey, flight);
+        if (leader != null) {
+            counter(endpoint, "coalesced").increment();
+            return (T) await(leader);
+        }
+        counter(endpoint, "executed").increment();
+        try {
+            T result = loader.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw e;
+        }
+    }
+
+    private Counter counter(String endpoint, String outcome) {
+        return Counter.builder("singleflight.requests")
+                .description("Reads that ran their own query (executed) or shared one already in flight (coalesced)")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
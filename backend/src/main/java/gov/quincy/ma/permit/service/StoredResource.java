@@ -0,0 +1,79 @@
+package gov.quincy.ma.permit.service;
+
+import org.springframework.core.io.AbstractResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A {@link DocumentStore} object as a Spring {@code Resource}. Nothing is opened until the first
+ * read, and a {@code skip} before that moves the start offset instead of reading, so the byte
+ * ranges Spring MVC serves for {@code Range} requests become ranged reads against the store.
+ */
+class StoredResource extends AbstractResource {
+
+    private final DocumentStore store;
+    private final String key;
+    private final String fileName;
+
+    StoredResource(DocumentStore store, String key, String fileName) {
+        this.store = store;
+        this.key = key;
+        this.fileName = fileName;
+    }
+
+    @Override
+    public boolean exists() {
+        return store.exists(key);
+    }
+
+    @Override
+    public long contentLength() throws IOException {
+        return store.size(key);
+    }
+
+    @Override
+    public String getFilename() {
+        return fileName;
+    }
+
+    @Override
+    public String getDescription() {
+        return "stored document [" + key + "]";
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return new InputStream() {
+            private long offset;
+            private InputStream delegate;
+
+            private InputStream delegate() throws IOException {
+                if (delegate == null) delegate = offset == 0 ? store.open(key) : store.open(key, offset, -1);
+                return delegate;
+            }
+
+            @Override
+            public long skip(long n) throws IOException {
+                if (delegate != null) return delegate.skip(n);
+                offset += Math.max(0, n);
+                return Math.max(0, n);
+            }
+
+            @Override
+            public int read() throws IOException {
+                return delegate().read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return delegate().read(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (delegate != null) delegate.close();
+            }
+        };
+    }
+}
@@ -0,0 +1,39 @@
+-- The full schema for a new database, as Hibernate maps the entities. The postgres profile runs
+-- ddl-auto: validate and never creates tables itself, so apply this once before the first start:
+--
+--   psql -h $DB_HOST -U $DB_USER -d $DB_NAME -v ON_ERROR_STOP=1 -f schema.sql
+--
+-- A database created by an earlier release is brought forward with upgrade.sql instead.
+
+-- Large text and JSON columns are mapped with columnDefinition = "clob"; Postgres has no such
+-- type, so it is declared here as text.
+CREATE DOMAIN clob AS text;
+
+create sequence public.application_events_seq start with 1 increment by 50;
+create sequence public.document_jobs_seq start with 1 increment by 50;
+create sequence public.documents_seq start with 1 increment by 50;
+create sequence public.permit_types_seq start with 1 increment by 50;
+create sequence public.property_records_seq start with 1 increment by 50;
+create table public.application_events (actor_id bigint, application_id bigint not null, id bigint not null, occurred_at timestamp(6) with time zone not null, permit_type_id bigint not null, stage_millis bigint, from_status varchar(255) check (from_status in ('DRAFT','SUBMITTED','UNDER_REVIEW','APPROVED','REJECTED')), to_status varchar(255) not null check (to_status in ('DRAFT','SUBMITTED','UNDER_REVIEW','APPROVED','REJECTED')), primary key (id));
+create table public.applications (applicant_id bigint not null, assignee_id bigint, created_at timestamp(6) with time zone not null, id bigserial not null, lease_expires_at timestamp(6) with time zone, permit_type_id bigint not null, reviewed_at timestamp(6) with time zone, reviewer_id bigint, status_changed_at timestamp(6) with time zone, submitted_at timestamp(6) with time zone, updated_at timestamp(6) with time zone, staff_notes varchar(2000), form_data clob, status varchar(255) not null check (status in ('DRAFT','SUBMITTED','UNDER_REVIEW','APPROVED','REJECTED')), primary key (id));
+create table public.document_jobs (attempts integer not null, available_at timestamp(6) with time zone not null, completed_at timestamp(6) with time zone, created_at timestamp(6) with time zone not null, document_id bigint not null, id bigint not null, lease_expires_at timestamp(6) with time zone, last_error varchar(1000), status varchar(255) not null check (status in ('PENDING','RUNNING','DONE','FAILED')), primary key (id));
+create table public.document_texts (document_id bigint not null, text clob not null, primary key (document_id));
+create table public.documents (application_id bigint, id bigint not null, uploaded_at timestamp(6) with time zone not null, content_encoding varchar(20), scan_status varchar(20) check (scan_status in ('PENDING','CLEAN','INFECTED','SKIPPED')), sha256 varchar(64), category varchar(100), mime_type varchar(100), file_path varchar(255) not null, name varchar(255) not null, thumbnail_path varchar(255), primary key (id));
+create table public.permit_types (id bigint not null, category varchar(100), description varchar(500), form_schema clob, name varchar(255) not null, slug varchar(255) not null unique, primary key (id));
+create table public.property_records (id bigint not null, address varchar(255) not null, parcel_id varchar(255), record_type varchar(255), metadata clob, primary key (id));
+create table public.refresh_tokens (created_at timestamp(6) with time zone not null, expires_at timestamp(6) with time zone not null, id bigserial not null, revoked_at timestamp(6) with time zone, user_id bigint not null, family varchar(36) not null, token_hash varchar(64) not null unique, primary key (id));
+create table public.revoked_tokens (expires_at timestamp(6) with time zone not null, jti varchar(36) not null, primary key (jti));
+create table public.signing_keys (created_at timestamp(6) with time zone not null, retires_at timestamp(6) with time zone, algorithm varchar(10) not null check (algorithm in ('HS256','RS256','EdDSA')), kid varchar(64) not null, public_key varchar(1024) not null, private_key varchar(4096) not null, primary key (kid));
+create table public.users (created_at timestamp(6) with time zone not null, id bigserial not null, email varchar(255) not null unique, name varchar(255) not null, password_hash varchar(255) not null, role varchar(255) not null check (role in ('APPLICANT','STAFF')), primary key (id));
+create index idx_application_events_application on public.application_events (application_id, occurred_at);
+create index idx_application_events_stage on public.application_events (permit_type_id, from_status, occurred_at);
+create index idx_applications_queue on public.applications (status, permit_type_id, submitted_at);
+create index idx_document_jobs_claim on public.document_jobs (status, available_at);
+create index idx_refresh_tokens_family on public.refresh_tokens (family);
+create index idx_revoked_tokens_expires on public.revoked_tokens (expires_at);
+create index idx_signing_keys_retires on public.signing_keys (retires_at);
+alter table if exists public.applications add constraint FKgi56fay19nbaiamp5xyhd7ptc foreign key (applicant_id) references public.users;
+alter table if exists public.applications add constraint FK4b0nf49qfdr5sqh465l4pe2x5 foreign key (assignee_id) references public.users;
+alter table if exists public.applications add constraint FK6kmsm2tqsh1khd6o43tu0anwi foreign key (permit_type_id) references public.permit_types;
+alter table if exists public.applications add constraint FKa8658bek8ik03qcw0aoj4jns6 foreign key (reviewer_id) references public.users;
+alter table if exists public.documents add constraint FK8umh06sslm8f0rbfasqk6yy0f foreign key (application_id) references public.applications;
@@ -0,0 +1,122 @@
+-- Brings a database created by an earlier release up to the current schema. The postgres profile
+-- runs ddl-auto: validate, so it will not start until this has been applied. Run it with every
+-- node stopped, before starting the new version:
+--
+--   psql -h $DB_HOST -U $DB_USER -d $DB_NAME -v ON_ERROR_STOP=1 -f upgrade.sql
+--
+-- Every statement is guarded, so running it again is harmless. A new database should be created
+-- from schema.sql instead.
+
+BEGIN;
+
+-- applications: work queue claims and stage timing
+ALTER TABLE applications ADD COLUMN IF NOT EXISTS assignee_id bigint;
+ALTER TABLE applications ADD COLUMN IF NOT EXISTS lease_expires_at timestamp(6) with time zone;
+ALTER TABLE applications ADD COLUMN IF NOT EXISTS status_changed_at timestamp(6) with time zone;
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'fk4b0nf49qfdr5sqh465l4pe2x5') THEN
+        ALTER TABLE applications ADD CONSTRAINT FK4b0nf49qfdr5sqh465l4pe2x5
+            FOREIGN KEY (assignee_id) REFERENCES users;
+    END IF;
+END $$;
+CREATE INDEX IF NOT EXISTS idx_applications_queue ON applications (status, permit_type_id, submitted_at);
+
+CREATE TABLE IF NOT EXISTS application_events (
+    id bigint NOT NULL,
+    actor_id bigint,
+    application_id bigint NOT NULL,
+    from_status varchar(255) CHECK (from_status IN ('DRAFT','SUBMITTED','UNDER_REVIEW','APPROVED','REJECTED')),
+    occurred_at timestamp(6) with time zone NOT NULL,
+    permit_type_id bigint NOT NULL,
+    stage_millis bigint,
+    to_status varchar(255) NOT NULL CHECK (to_status IN ('DRAFT','SUBMITTED','UNDER_REVIEW','APPROVED','REJECTED')),
+    PRIMARY KEY (id)
+);
+CREATE INDEX IF NOT EXISTS idx_application_events_application ON application_events (application_id, occurred_at);
+CREATE INDEX IF NOT EXISTS idx_application_events_stage ON application_events (permit_type_id, from_status, occurred_at);
+
+-- documents: scanning, content hashes, compression and thumbnails
+ALTER TABLE documents ADD COLUMN IF NOT EXISTS content_encoding varchar(20);
+ALTER TABLE documents ADD COLUMN IF NOT EXISTS scan_status varchar(20)
+    CHECK (scan_status IN ('PENDING','CLEAN','INFECTED','SKIPPED'));
+ALTER TABLE documents ADD COLUMN IF NOT EXISTS sha256 varchar(64);
+ALTER TABLE documents ADD COLUMN IF NOT EXISTS thumbnail_path varchar(255);
+
+CREATE TABLE IF NOT EXISTS document_jobs (
+    id bigint NOT NULL,
+    attempts integer NOT NULL,
+    available_at timestamp(6) with time zone NOT NULL,
+    completed_at timestamp(6) with time zone,
+    created_at timestamp(6) with time zone NOT NULL,
+    document_id bigint NOT NULL,
+    last_error varchar(1000),
+    lease_expires_at timestamp(6) with time zone,
+    status varchar(255) NOT NULL CHECK (status IN ('PENDING','RUNNING','DONE','FAILED')),
+    PRIMARY KEY (id)
+);
+CREATE INDEX IF NOT EXISTS idx_document_jobs_claim ON document_jobs (status, available_at);
+
+CREATE TABLE IF NOT EXISTS document_texts (
+    document_id bigint NOT NULL,
+    text text NOT NULL,
+    PRIMARY KEY (document_id)
+);
+
+-- authentication: refresh token rotation, access token revocation, signing key rotation
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    id bigserial NOT NULL,
+    created_at timestamp(6) with time zone NOT NULL,
+    expires_at timestamp(6) with time zone NOT NULL,
+    family varchar(36) NOT NULL,
+    revoked_at timestamp(6) with time zone,
+    token_hash varchar(64) NOT NULL UNIQUE,
+    user_id bigint NOT NULL,
+    PRIMARY KEY (id)
+);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_family ON refresh_tokens (family);
+
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    jti varchar(36) NOT NULL,
+    expires_at timestamp(6) with time zone NOT NULL,
+    PRIMARY KEY (jti)
+);
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_expires ON revoked_tokens (expires_at);
+
+CREATE TABLE IF NOT EXISTS signing_keys (
+    kid varchar(64) NOT NULL,
+    algorithm varchar(10) NOT NULL CHECK (algorithm IN ('HS256','RS256','EdDSA')),
+    created_at timestamp(6) with time zone NOT NULL,
+    private_key varchar(4096) NOT NULL,
+    public_key varchar(1024) NOT NULL,
+    retires_at timestamp(6) with time zone,
+    PRIMARY KEY (kid)
+);
+CREATE INDEX IF NOT EXISTS idx_signing_keys_retires ON signing_keys (retires_at);
+
+-- Ids that moved from serial columns to pooled sequences (allocationSize = 50), so their inserts
+-- can be JDBC-batched. Hibernate's pooled optimizer reads each nextval as the top of a block of
+-- 50 ids, so every sequence is set to hand out its first block above the table's current max(id).
+-- Ids are then assigned by the application, so the old column default is dropped.
+CREATE SEQUENCE IF NOT EXISTS documents_seq INCREMENT BY 50;
+SELECT setval('documents_seq', COALESCE((SELECT max(id) FROM documents), 0) + 50, false);
+ALTER TABLE documents ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE documents ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS document_jobs_seq INCREMENT BY 50;
+SELECT setval('document_jobs_seq', COALESCE((SELECT max(id) FROM document_jobs), 0) + 50, false);
+
+CREATE SEQUENCE IF NOT EXISTS application_events_seq INCREMENT BY 50;
+SELECT setval('application_events_seq', COALESCE((SELECT max(id) FROM application_events), 0) + 50, false);
+
+CREATE SEQUENCE IF NOT EXISTS permit_types_seq INCREMENT BY 50;
+SELECT setval('permit_types_seq', COALESCE((SELECT max(id) FROM permit_types), 0) + 50, false);
+ALTER TABLE permit_types ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE permit_types ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS property_records_seq INCREMENT BY 50;
+SELECT setval('property_records_seq', COALESCE((SELECT max(id) FROM property_records), 0) + 50, false);
+ALTER TABLE property_records ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE property_records ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+COMMIT;
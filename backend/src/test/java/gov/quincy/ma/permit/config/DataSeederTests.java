@@ -0,0 +1,51 @@
+package gov.quincy.ma.permit.config;
+
+import gov.quincy.ma.permit.repository.PermitTypeRepository;
+import gov.quincy.ma.permit.repository.PropertyRecordRepository;
+import gov.quincy.ma.permit.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DataSeederTests {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PermitTypeRepository permitTypeRepository;
+
+    @Autowired
+    private PropertyRecordRepository propertyRecordRepository;
+
+    @Autowired
+    private TransactionTemplate tx;
+
+    @Test
+    void seedingTwiceInsertsOnlyWhatIsMissing() {
+        DataSeeder seeder = new DataSeeder(userRepository, passwordEncoder, permitTypeRepository,
+                propertyRecordRepository, new SeedProperties(), tx);
+
+        seeder.seed();
+        long users = userRepository.count();
+        long permitTypes = permitTypeRepository.count();
+        long propertyRecords = propertyRecordRepository.count();
+        assertThat(userRepository.existsByEmail("staff@quincyma.gov")).isTrue();
+        assertThat(permitTypeRepository.findAll()).extracting("slug").contains("building-permit");
+
+        seeder.seed();
+        assertThat(userRepository.count()).isEqualTo(users);
+        assertThat(permitTypeRepository.count()).isEqualTo(permitTypes);
+        assertThat(propertyRecordRepository.count()).isEqualTo(propertyRecords);
+    }
+}
@@ -0,0 +1,109 @@
+package gov.quincy.ma.permit.config;
+
+import gov.quincy.ma.permit.entity.Application;
+import gov.quincy.ma.permit.entity.ApplicationTransition;
+import gov.quincy.ma.permit.entity.Document;
+import gov.quincy.ma.permit.entity.User;
+import gov.quincy.ma.permit.repository.ApplicationRepository;
+import gov.quincy.ma.permit.repository.ApplicationTransitionRepository;
+import gov.quincy.ma.permit.repository.DocumentRepository;
+import gov.quincy.ma.permit.repository.PermitTypeRepository;
+import gov.quincy.ma.permit.repository.PropertyRecordRepository;
+import gov.quincy.ma.permit.repository.UserRepository;
+import gov.quincy.ma.permit.service.DocumentStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DatasetGeneratorTests {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PermitTypeRepository permitTypeRepository;
+
+    @Autowired
+    private PropertyRecordRepository propertyRecordRepository;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private ApplicationTransitionRepository transitionRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private DocumentStore store;
+
+    @Autowired
+    private TransactionTemplate tx;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void generatesConsistentApplicationsDocumentsAndAccounts() throws Exception {
+        new DataSeeder(userRepository, passwordEncoder, permitTypeRepository, propertyRecordRepository,
+                new SeedProperties(), tx).seed();
+        DatasetProperties properties = new DatasetProperties();
+        properties.setApplicants(6);
+        properties.setStaff(2);
+        properties.setApplications(40);
+        properties.setDocuments(5);
+        properties.setPublicDocuments(2);
+        properties.setPropertyRecords(30);
+        properties.setMedianDocumentKb(8);
+        properties.setBatchSize(16);
+        long publicDocuments = documentRepository.findByApplicationIdIsNullOrderByNameAsc().size();
+        DatasetGenerator generator = new DatasetGenerator(properties, userRepository, passwordEncoder,
+                permitTypeRepository, propertyRecordRepository, applicationRepository, transitionRepository,
+                documentRepository, store, tx);
+
+        generator.generate();
+        generator.generate();
+
+        User staff = userRepository.findByEmail(DatasetGenerator.staffEmail(1)).orElseThrow();
+        assertThat(staff.getRole()).isEqualTo(User.Role.STAFF);
+        assertThat(passwordEncoder.matches("loadtest123", staff.getPasswordHash())).isTrue();
+        assertThat(propertyRecordRepository.findAll()).extracting("parcelId").contains("Q100029");
+
+        int applications = 0;
+        int attached = 0;
+        for (int n = 0; n < properties.getApplicants(); n++) {
+            User applicant = userRepository.findByEmail(DatasetGenerator.applicantEmail(n)).orElseThrow();
+            for (Application app : applicationRepository.findByApplicantIdOrderByCreatedAtDesc(applicant.getId())) {
+                applications++;
+                List<ApplicationTransition> history = transitionRepository.findByApplicationIdOrderByOccurredAtAscIdAsc(app.getId());
+                assertThat(history.get(0).getFromStatus()).isNull();
+                assertThat(history.get(history.size() - 1).getToStatus()).isEqualTo(app.getStatus());
+                if (app.getStatus() != Application.Status.DRAFT) {
+                    List<Map<String, Object>> fields = (List<Map<String, Object>>) permitTypeRepository
+                            .findById(app.getPermitType().getId()).orElseThrow().getFormSchema().toMap().get("fields");
+                    assertThat(app.getFormData().toMap().keySet()).containsExactlyInAnyOrderElementsOf(fields.stream().map(f -> (String) f.get("name")).toList());
+                }
+                for (Document doc : documentRepository.findByApplicationId(app.getId())) {
+                    attached++;
+                    assertThat(store.size(doc.getFilePath())).isGreaterThanOrEqualTo(2048);
+                    assertThat(doc.getSha256()).hasSize(64);
+                }
+            }
+        }
+        assertThat(applications).isEqualTo(40);
+        assertThat(attached).isEqualTo(5);
+        assertThat(documentRepository.findByApplicationIdIsNullOrderByNameAsc()).hasSize((int) publicDocuments + 2);
+    }
+}
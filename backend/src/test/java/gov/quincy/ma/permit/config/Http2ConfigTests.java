@@ -0,0 +1,34 @@
+package gov.quincy.ma.permit.config;
+
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.http2.Http2Protocol;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Http2ConfigTests {
+
+    @Test
+    void tunesTheHttp2UpgradeProtocolFromProperties() {
+        Http2Properties properties = new Http2Properties();
+        properties.setMaxConcurrentStreams(64);
+        properties.setMaxConcurrentStreamExecution(8);
+        properties.setKeepAliveTimeout(Duration.ofSeconds(15));
+        properties.setInitialWindowSize(256 * 1024);
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory();
+        new Http2Config().http2ProtocolCustomizer(properties).customize(factory);
+
+        Connector connector = new Connector();
+        Http2Protocol http2 = new Http2Protocol();
+        connector.addUpgradeProtocol(http2);
+        factory.getTomcatConnectorCustomizers().forEach(customizer -> customizer.customize(connector));
+
+        assertThat(http2.getMaxConcurrentStreams()).isEqualTo(64);
+        assertThat(http2.getMaxConcurrentStreamExecution()).isEqualTo(8);
+        assertThat(http2.getKeepAliveTimeout()).isEqualTo(15_000);
+        assertThat(http2.getInitialWindowSize()).isEqualTo(256 * 1024);
+    }
+}
@@ -0,0 +1,41 @@
+package gov.quincy.ma.permit.config;
+
+import gov.quincy.ma.permit.dto.StageStatsDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.util.ClassUtils;
+
+import java.util.LinkedHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NativeRuntimeHintsTests {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    NativeRuntimeHintsTests() {
+        new NativeRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void coversJsonColumnsAndConstructorQueries() {
+        assertThat(RuntimeHintsPredicates.reflection()
+                .onType(LinkedHashMap.class).withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS))
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onConstructor(StageStatsDto.class.getDeclaredConstructors()[0]))
+                .accepts(hints);
+    }
+
+    @Test
+    void jjwtClassesExistAndAreRegistered() throws Exception {
+        for (String name : NativeRuntimeHints.JJWT_IMPLEMENTATION) {
+            // a jjwt upgrade that renames one of these would otherwise only fail inside the native image
+            Class<?> type = ClassUtils.forName(name, getClass().getClassLoader());
+            assertThat(RuntimeHintsPredicates.reflection().onType(type)).as(name).accepts(hints);
+        }
+        assertThat(RuntimeHintsPredicates.resource().forResource("META-INF/services/io.jsonwebtoken.io.Serializer"))
+                .accepts(hints);
+    }
+}
@@ -0,0 +1,67 @@
+package gov.quincy.ma.permit.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaRoutingDataSourceTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate tx;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = h2("routing_primary");
+        DataSource replica = h2("routing_replica");
+        new JdbcTemplate(primary).execute("CREATE TABLE IF NOT EXISTS node(name VARCHAR(20)); DELETE FROM node; INSERT INTO node VALUES ('primary')");
+        new JdbcTemplate(replica).execute("CREATE TABLE IF NOT EXISTS node(name VARCHAR(20)); DELETE FROM node; INSERT INTO node VALUES ('replica')");
+
+        routing = new ReplicaRoutingDataSource(primary, replica, meterRegistry);
+        routing.afterPropertiesSet();
+        DataSource lazy = new LazyConnectionDataSourceProxy(routing);
+        jdbc = new JdbcTemplate(lazy);
+        tx = new TransactionTemplate(new DataSourceTransactionManager(lazy));
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplica() {
+        tx.setReadOnly(true);
+        assertThat(nodeInTransaction()).isEqualTo("replica");
+        assertThat(meterRegistry.counter("datasource.routes", "route", "replica").count()).isEqualTo(1);
+    }
+
+    @Test
+    void writeTransactionsGoToPrimary() {
+        double before = meterRegistry.counter("datasource.routes", "route", "primary").count();
+        tx.setReadOnly(false);
+        assertThat(nodeInTransaction()).isEqualTo("primary");
+        assertThat(meterRegistry.counter("datasource.routes", "route", "primary").count()).isEqualTo(before + 1);
+    }
+
+    @Test
+    void readsFallBackToPrimaryWhenReplicaIsLagging() {
+        routing.setReplicaAvailable(false);
+        tx.setReadOnly(true);
+        assertThat(nodeInTransaction()).isEqualTo("primary");
+        assertThat(meterRegistry.counter("datasource.routes", "route", "replica_fallback").count()).isEqualTo(1);
+    }
+
+    private String nodeInTransaction() {
+        return tx.execute(status -> jdbc.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    private static DataSource h2(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+}
@@ -0,0 +1,98 @@
+package gov.quincy.ma.permit.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"management.tracing.sampling.probability=1.0",
+        "spring.datasource.url=jdbc:h2:mem:tracing;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"})
+@AutoConfigureMockMvc
+@AutoConfigureObservability(metrics = false)
+@ActiveProfiles("test")
+class TracingTests {
+
+    private static final Path TRACES = createTempFile();
+
+    @DynamicPropertySource
+    static void traceFile(DynamicPropertyRegistry registry) {
+        registry.add("app.tracing.file", TRACES::toString);
+    }
+
+    private static Path createTempFile() {
+        try {
+            Path file = Files.createTempFile("traces", ".jsonl");
+            file.toFile().deleteOnExit();
+            return file;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /** Span name → span, from every OTLP JSON line ({@code ResourceSpans}) written so far. */
+    private Map<String, JsonNode> exportedSpans() throws IOException {
+        assertThat(tracerProvider.forceFlush().join(10, TimeUnit.SECONDS).isSuccess()).isTrue();
+        Map<String, JsonNode> spans = new HashMap<>();
+        for (String line : Files.readAllLines(TRACES)) {
+            for (JsonNode scope : objectMapper.readTree(line).path("scopeSpans")) {
+                for (JsonNode span : scope.path("spans")) spans.put(span.path("name").asText(), span);
+            }
+        }
+        return spans;
+    }
+
+    @Test
+    void aRequestIsOneTraceFromTheFilterDownToTheRepository() throws Exception {
+        String body = mockMvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"trace-" + UUID.randomUUID() + "@example.com\",\"password\":\"secret123\",\"name\":\"Trace Test\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String token = JsonPath.read(body, "$.token");
+        mockMvc.perform(get("/api/applications").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        Map<String, JsonNode> spans = exportedSpans();
+        JsonNode auth = spans.get("app.auth.jwt");
+        JsonNode service = spans.get("application-service.list-my-applications");
+        JsonNode repository = spans.get("application-repository.find-by-applicant-id-order-");
+        assertThat(auth).isNotNull();
+        assertThat(service).isNotNull();
+        assertThat(repository).isNotNull();
+
+        String traceId = service.path("traceId").asText();
+        assertThat(List.of(auth, repository)).allSatisfy(span -> assertThat(span.path("traceId").asText()).isEqualTo(traceId));
+        assertThat(repository.path("parentSpanId").asText()).isEqualTo(service.path("spanId").asText());
+    }
+}
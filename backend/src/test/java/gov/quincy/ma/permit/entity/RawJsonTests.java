@@ -0,0 +1,67 @@
+package gov.quincy.ma.permit.entity;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RawJsonTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final RawJsonConverter converter = new RawJsonConverter();
+
+    /** A request or response body holding one {@code formData}. */
+    record Body(RawJson formData) {
+    }
+
+    @Test
+    void roundTripsThroughTheColumnAndJackson() throws Exception {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("jobAddress", "1 Main St");
+        values.put("estimatedValue", 125000);
+        values.put("affidavit", true);
+        values.put("typeOfWork", List.of("Alteration", "Repair"));
+        values.put("owner", Map.of("name", "Pat"));
+        RawJson raw = RawJson.of(values);
+
+        RawJson loaded = converter.convertToEntityAttribute(converter.convertToDatabaseColumn(raw));
+        assertThat(loaded).isEqualTo(raw);
+        assertThat(loaded.toMap()).isEqualTo(values);
+
+        String response = objectMapper.writeValueAsString(new Body(loaded));
+        assertThat(response).isEqualTo("{\"formData\":" + raw.json() + "}");
+        assertThat(objectMapper.readValue(response, Body.class).formData()).isEqualTo(raw);
+    }
+
+    @Test
+    void textThatNeedsEscapingStaysOneValidValue() throws Exception {
+        String awkward = "He said \"no\"\\ then\nleft </script> é  \u0001";
+        RawJson raw = RawJson.of(Map.of("note", awkward, "key \"quoted\"", "x"));
+
+        JsonNode written = objectMapper.readTree(objectMapper.writeValueAsString(List.of(raw, raw)));
+        assertThat(written).hasSize(2);
+        assertThat(written.get(0).get("note").asText()).isEqualTo(awkward);
+        assertThat(written.get(1).get("key \"quoted\"").asText()).isEqualTo("x");
+        assertThat(RawJson.ofJson(raw.json()).toMap()).containsEntry("note", awkward);
+    }
+
+    @Test
+    void nullAndBlankMeanNoDocument() throws Exception {
+        assertThat(RawJson.of(null)).isNull();
+        assertThat(RawJson.ofJson(null)).isNull();
+        assertThat(converter.convertToDatabaseColumn(null)).isNull();
+        for (String column : new String[]{null, "", "   ", "\n\t"}) {
+            assertThat(converter.convertToEntityAttribute(column)).as("[%s]", column).isNull();
+        }
+
+        assertThat(objectMapper.readValue("{\"formData\":null}", Body.class).formData()).isNull();
+        assertThat(objectMapper.readValue("{}", Body.class).formData()).isNull();
+        assertThat(objectMapper.writeValueAsString(new Body(null))).isEqualTo("{\"formData\":null}");
+        assertThat(RawJson.of(Map.of()).json()).isEqualTo("{}");
+    }
+}
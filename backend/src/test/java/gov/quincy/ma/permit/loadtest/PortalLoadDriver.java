@@ -0,0 +1,278 @@
+package gov.quincy.ma.permit.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gov.quincy.ma.permit.config.DatasetGenerator;
+import gov.quincy.ma.permit.config.SyntheticData;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replays the portal's main journey against a running backend started with the {@code dataset}
+ * profile: applicants log in, browse permit types, create a draft, autosave it, upload a document
+ * and submit; reviewers claim submissions from the queue and decide them. Prints throughput and
+ * latency percentiles per step. Like the JMH benchmarks it lives with the tests but is run by
+ * hand (see README, "Load testing"); options are {@code --name=value}:
+ * <ul>
+ *   <li>{@code base-url} (http://localhost:8080), {@code applicants} concurrent applicants (16),
+ *   {@code reviewers} (2), {@code iterations} journeys per applicant (5), {@code warmup} unrecorded
+ *   journeys per applicant (1)</li>
+ *   <li>{@code autosaves} per draft (3), {@code upload-kb} (200), {@code accounts} generated applicant
+ *   accounts to spread logins over (1000), {@code password} (loadtest123), {@code seed} (42)</li>
+ * </ul>
+ */
+public class PortalLoadDriver {
+
+    enum Step {
+        LOGIN, BROWSE_PERMIT_TYPES, CREATE_DRAFT, AUTOSAVE, UPLOAD, SUBMIT, STAFF_CLAIM, STAFF_START_REVIEW, STAFF_DECIDE
+    }
+
+    private final ObjectMapper json = new ObjectMapper();
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final Map<String, String> options;
+    private final String api;
+    private final Map<Step, ConcurrentLinkedQueue<Long>> latencies = new EnumMap<>(Step.class);
+    private final Map<Step, AtomicLong> errors = new EnumMap<>(Step.class);
+    private final AtomicBoolean recording = new AtomicBoolean();
+    private final AtomicLong journeys = new AtomicLong();
+
+    PortalLoadDriver(Map<String, String> options) {
+        this.options = options;
+        this.api = option("base-url", "http://localhost:8080") + "/api";
+        for (Step step : Step.values()) {
+            latencies.put(step, new ConcurrentLinkedQueue<>());
+            errors.put(step, new AtomicLong());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(pair[0], pair.length > 1 ? pair[1] : "true");
+        }
+        boolean clean = new PortalLoadDriver(options).run();
+        System.exit(clean ? 0 : 1);
+    }
+
+    private String option(String name, String fallback) {
+        return options.getOrDefault(name, fallback);
+    }
+
+    private int intOption(String name, int fallback) {
+        return Integer.parseInt(option(name, String.valueOf(fallback)));
+    }
+
+    /** Runs the scenario and prints the report; false when any request failed. */
+    boolean run() throws InterruptedException {
+        int applicants = intOption("applicants", 16);
+        int reviewers = intOption("reviewers", 2);
+        long seed = Long.parseLong(option("seed", "42"));
+        CountDownLatch warmedUp = new CountDownLatch(applicants);
+        CountDownLatch applicantsDone = new CountDownLatch(applicants);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < applicants; i++) {
+            int user = i;
+            threads.add(Thread.ofPlatform().name("applicant-" + i).start(() -> {
+                try {
+                    applicant(user, new Random(seed + user), warmedUp);
+                } finally {
+                    applicantsDone.countDown();
+                }
+            }));
+        }
+        for (int i = 0; i < reviewers; i++) {
+            int reviewer = i;
+            threads.add(Thread.ofPlatform().name("reviewer-" + i).start(
+                    () -> reviewer(reviewer, new Random(seed - reviewer - 1), applicantsDone)));
+        }
+        warmedUp.await();
+        recording.set(true);
+        long started = System.nanoTime();
+        applicantsDone.await();
+        double seconds = (System.nanoTime() - started) / 1e9;
+        recording.set(false);
+        for (Thread thread : threads) thread.join();
+        return report(applicants, reviewers, seconds);
+    }
+
+    private void applicant(int user, Random random, CountDownLatch warmedUp) {
+        int warmup = intOption("warmup", 1);
+        int iterations = intOption("iterations", 5);
+        int autosaves = intOption("autosaves", 3);
+        byte[] upload = new byte[intOption("upload-kb", 200) * 1024];
+        random.nextBytes(upload);
+        String email = DatasetGenerator.applicantEmail(user % intOption("accounts", 1000));
+        boolean warm = false;
+        try {
+            for (int i = 0; i < warmup + iterations; i++) {
+                if (i == warmup) {
+                    warmedUp.countDown();
+                    warm = true;
+                }
+                String token = login(email);
+                JsonNode permitTypes = call(Step.BROWSE_PERMIT_TYPES, get("/permit-types", null));
+                JsonNode type = permitTypes.get(random.nextInt(permitTypes.size()));
+                @SuppressWarnings("unchecked")
+                Map<String, Object> schema = json.convertValue(type.get("formSchema"), Map.class);
+
+                Map<String, Object> draft = Map.of("permitTypeId", type.get("id").asLong(),
+                        "formData", SyntheticData.formData(schema, random, 0.2));
+                long id = call(Step.CREATE_DRAFT, send("POST", "/applications", token, draft)).get("id").asLong();
+                for (int save = 1; save <= autosaves; save++) {
+                    Map<String, Object> formData = SyntheticData.formData(schema, random, 0.2 + 0.8 * save / autosaves);
+                    call(Step.AUTOSAVE, send("PATCH", "/applications/" + id, token, Map.of("formData", formData)));
+                }
+                call(Step.UPLOAD, multipart("/applications/" + id + "/documents", token, "site-plan.pdf", upload));
+                call(Step.SUBMIT, send("PATCH", "/applications/" + id, token,
+                        Map.of("formData", SyntheticData.formData(schema, random, 1.0), "submit", true)));
+                if (recording.get()) journeys.incrementAndGet();
+            }
+        } catch (StepFailed e) {
+            System.err.println(Thread.currentThread().getName() + ": " + e.getMessage());
+        } finally {
+            if (!warm) warmedUp.countDown();
+        }
+    }
+
+    /** Works the queue until the applicants finish: claim a few, open each for review, decide it. */
+    private void reviewer(int reviewer, Random random, CountDownLatch applicantsDone) {
+        try {
+            String token = login(DatasetGenerator.staffEmail(reviewer));
+            while (applicantsDone.getCount() > 0) {
+                JsonNode claimed = call(Step.STAFF_CLAIM, send("POST", "/applications/queue/claim?count=5", token, null));
+                if (claimed.isEmpty()) {
+                    applicantsDone.await(200, TimeUnit.MILLISECONDS);
+                    continue;
+                }
+                for (JsonNode app : claimed) {
+                    String path = "/applications/" + app.get("id").asLong();
+                    call(Step.STAFF_START_REVIEW, send("PATCH", path, token, Map.of("status", "UNDER_REVIEW")));
+                    String decision = random.nextInt(10) < 8 ? "APPROVED" : "REJECTED";
+                    call(Step.STAFF_DECIDE, send("PATCH", path, token, Map.of("status", decision)));
+                }
+            }
+        } catch (StepFailed e) {
+            System.err.println(Thread.currentThread().getName() + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String login(String email) {
+        Map<String, Object> credentials = Map.of("email", email, "password", option("password", "loadtest123"));
+        return call(Step.LOGIN, send("POST", "/auth/login", null, credentials)).get("token").asText();
+    }
+
+    private HttpRequest.Builder get(String path, String token) {
+        return request(path, token).GET();
+    }
+
+    private HttpRequest.Builder send(String method, String path, String token, Object body) {
+        try {
+            byte[] bytes = body == null ? new byte[0] : json.writeValueAsBytes(body);
+            return request(path, token).header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(bytes));
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private HttpRequest.Builder multipart(String path, String token, String fileName, byte[] content) {
+        String boundary = "----load-" + UUID.randomUUID();
+        ByteArrayOutputStream body = new ByteArrayOutputStream(content.length + 256);
+        body.writeBytes(("--" + boundary + "\r\nContent-Disposition: form-data; name=\"file\"; filename=\"" + fileName
+                + "\"\r\nContent-Type: application/pdf\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(content);
+        body.writeBytes(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return request(path, token).header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()));
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(api + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Accept", "application/json");
+        return token == null ? builder : builder.header("Authorization", "Bearer " + token);
+    }
+
+    /** Sends the request, records its latency under {@code step}, and fails the journey on a non-2xx answer. */
+    private JsonNode call(Step step, HttpRequest.Builder request) {
+        long started = System.nanoTime();
+        HttpResponse<byte[]> response;
+        try {
+            response = http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            errors.get(step).incrementAndGet();
+            throw new StepFailed(step + ": " + e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StepFailed(step + ": interrupted");
+        }
+        long micros = (System.nanoTime() - started) / 1000;
+        if (response.statusCode() / 100 != 2) {
+            errors.get(step).incrementAndGet();
+            throw new StepFailed(step + ": HTTP " + response.statusCode() + " "
+                    + new String(response.body(), StandardCharsets.UTF_8));
+        }
+        if (recording.get()) latencies.get(step).add(micros);
+        try {
+            return response.body().length == 0 ? json.nullNode() : json.readTree(response.body());
+        } catch (IOException e) {
+            throw new StepFailed(step + ": unreadable body");
+        }
+    }
+
+    private boolean report(int applicants, int reviewers, double seconds) {
+        System.out.printf("%n%d applicants, %d reviewers, %.1f s measured, %d journeys (%.2f/s)%n",
+                applicants, reviewers, seconds, journeys.get(), journeys.get() / seconds);
+        System.out.printf("%-20s %8s %7s %9s %9s %9s %9s %9s%n",
+                "step", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        long failed = 0;
+        for (Step step : Step.values()) {
+            long[] sorted = latencies.get(step).stream().mapToLong(Long::longValue).sorted().toArray();
+            failed += errors.get(step).get();
+            if (sorted.length == 0 && errors.get(step).get() == 0) continue;
+            System.out.printf("%-20s %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n", step.name().toLowerCase(),
+                    sorted.length, errors.get(step).get(), sorted.length / seconds,
+                    percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99),
+                    sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1000.0);
+        }
+        return failed == 0;
+    }
+
+    /** Nearest-rank percentile in milliseconds. */
+    static double percentile(long[] sortedMicros, double percentile) {
+        if (sortedMicros.length == 0) return 0;
+        int rank = (int) Math.ceil(percentile / 100 * sortedMicros.length);
+        return sortedMicros[Math.max(0, rank - 1)] / 1000.0;
+    }
+
+    private static final class StepFailed extends RuntimeException {
+        StepFailed(String message) {
+            super(message, null, false, false);
+        }
+    }
+}
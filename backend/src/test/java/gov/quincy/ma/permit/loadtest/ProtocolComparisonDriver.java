@@ -0,0 +1,297 @@
+package gov.quincy.ma.permit.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gov.quincy.ma.permit.config.DatasetGenerator;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Loads the applicant dashboard the way the SPA does — {@code /auth/me}, then applications,
+ * permit types and document categories in parallel, then each application's detail, documents,
+ * history and permit type in parallel — once over HTTP/1.1 and once over HTTP/2, and prints
+ * page-load percentiles, throughput and one page's request waterfall per protocol. Each simulated
+ * browser has its own connections; over HTTP/1.1 it keeps at most {@code connections} requests in
+ * flight, like a browser's six connections per host, over HTTP/2 it multiplexes them all on one.
+ * Run by hand against a backend started with the {@code dataset} profile plus {@code h2c} (or
+ * {@code http2} with {@code --base-url=https://localhost:8443 --insecure}); see README, "HTTP/2".
+ * Options are {@code --name=value}:
+ * <ul>
+ *   <li>{@code base-url} (http://localhost:8080), {@code protocols} (HTTP_1_1,HTTP_2),
+ *   {@code browsers} concurrent users (16), {@code pages} per browser (20), {@code warmup} unrecorded
+ *   pages per browser (5)</li>
+ *   <li>{@code connections} HTTP/1.1 requests in flight per browser (6), {@code fan-out} applications
+ *   opened per page (8), {@code rtt-ms} network round trip added to every request, since loopback has
+ *   none (0), {@code password} (loadtest123), {@code insecure} to accept the self-signed development
+ *   certificate</li>
+ * </ul>
+ */
+public class ProtocolComparisonDriver {
+
+    record Fetch(String path, long startMicros, long endMicros, HttpClient.Version version) {
+    }
+
+    private final ObjectMapper json = new ObjectMapper();
+    private final Map<String, String> options;
+    private final String api;
+    private final ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor();
+
+    ProtocolComparisonDriver(Map<String, String> options) {
+        this.options = options;
+        this.api = option("base-url", "http://localhost:8080") + "/api";
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(pair[0], pair.length > 1 ? pair[1] : "true");
+        }
+        ProtocolComparisonDriver driver = new ProtocolComparisonDriver(options);
+        boolean clean = true;
+        for (String protocol : driver.option("protocols", "HTTP_1_1,HTTP_2").split(",")) {
+            clean &= driver.run(HttpClient.Version.valueOf(protocol.trim()));
+        }
+        System.exit(clean ? 0 : 1);
+    }
+
+    private String option(String name, String fallback) {
+        return options.getOrDefault(name, fallback);
+    }
+
+    private int intOption(String name, int fallback) {
+        return Integer.parseInt(option(name, String.valueOf(fallback)));
+    }
+
+    /** One protocol's run; prints its report and returns false when any request failed. */
+    boolean run(HttpClient.Version protocol) throws InterruptedException {
+        int browsers = intOption("browsers", 16);
+        int warmup = intOption("warmup", 5);
+        int pages = intOption("pages", 20);
+        ConcurrentLinkedQueue<Long> pageMicros = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<Long> requestMicros = new ConcurrentLinkedQueue<>();
+        Map<HttpClient.Version, LongAdder> versions = new ConcurrentHashMap<>();
+        AtomicLong errors = new AtomicLong();
+        AtomicBoolean recording = new AtomicBoolean();
+        AtomicReference<List<Fetch>> waterfall = new AtomicReference<>(List.of());
+        CountDownLatch warmedUp = new CountDownLatch(browsers);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < browsers; i++) {
+            int user = i;
+            threads.add(Thread.ofPlatform().name("browser-" + i).start(() -> {
+                Browser browser = new Browser(protocol, DatasetGenerator.applicantEmail(user));
+                boolean warm = false;
+                try {
+                    browser.login();
+                    for (int page = 0; page < warmup + pages; page++) {
+                        if (page == warmup) {
+                            warmedUp.countDown();
+                            warm = true;
+                        }
+                        long started = System.nanoTime();
+                        List<Fetch> fetches = browser.dashboard();
+                        if (!recording.get()) continue;
+                        pageMicros.add((System.nanoTime() - started) / 1000);
+                        for (Fetch fetch : fetches) {
+                            requestMicros.add(fetch.endMicros() - fetch.startMicros());
+                            versions.computeIfAbsent(fetch.version(), v -> new LongAdder()).increment();
+                        }
+                        if (user == 0) waterfall.set(fetches);
+                    }
+                } catch (RuntimeException e) {
+                    errors.incrementAndGet();
+                    System.err.println(Thread.currentThread().getName() + ": " + e.getMessage());
+                } finally {
+                    if (!warm) warmedUp.countDown();
+                }
+            }));
+        }
+        warmedUp.await();
+        recording.set(true);
+        long started = System.nanoTime();
+        for (Thread thread : threads) thread.join();
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        long[] page = pageMicros.stream().mapToLong(Long::longValue).sorted().toArray();
+        long[] request = requestMicros.stream().mapToLong(Long::longValue).sorted().toArray();
+        System.out.printf("%n%s: %d browsers, %.1f s measured, %d pages (%.1f/s), %d requests (%.1f/s), negotiated %s%n",
+                protocol, browsers, seconds, page.length, page.length / seconds, request.length,
+                request.length / seconds, versions);
+        System.out.printf("  page load  p50 %7.1f ms  p95 %7.1f ms  p99 %7.1f ms%n",
+                PortalLoadDriver.percentile(page, 50), PortalLoadDriver.percentile(page, 95),
+                PortalLoadDriver.percentile(page, 99));
+        System.out.printf("  request    p50 %7.1f ms  p95 %7.1f ms  p99 %7.1f ms%n",
+                PortalLoadDriver.percentile(request, 50), PortalLoadDriver.percentile(request, 95),
+                PortalLoadDriver.percentile(request, 99));
+        printWaterfall(waterfall.get());
+        return errors.get() == 0;
+    }
+
+    /** One bar per request, scaled to the page's duration; queueing behind the connection limit shows as late starts. */
+    private static void printWaterfall(List<Fetch> fetches) {
+        if (fetches.isEmpty()) return;
+        long origin = fetches.stream().mapToLong(Fetch::startMicros).min().orElseThrow();
+        long end = fetches.stream().mapToLong(Fetch::endMicros).max().orElseThrow();
+        double scale = 60.0 / Math.max(1, end - origin);
+        System.out.println("  last page of browser-0:");
+        for (Fetch fetch : fetches.stream().sorted((a, b) -> Long.compare(a.startMicros(), b.startMicros())).toList()) {
+            int from = (int) ((fetch.startMicros() - origin) * scale);
+            int to = Math.max(from + 1, (int) Math.round((fetch.endMicros() - origin) * scale));
+            System.out.printf("  %-32s %7.1f %7.1f |%s%s%n", fetch.path(), (fetch.startMicros() - origin) / 1000.0,
+                    (fetch.endMicros() - origin) / 1000.0, " ".repeat(from), "=".repeat(to - from));
+        }
+    }
+
+    /** A browser tab: its own connection pool and, over HTTP/1.1, its own per-host connection limit. */
+    private final class Browser {
+
+        private final HttpClient http;
+        private final Semaphore inFlight;
+        private final String email;
+        private final long rttMillis = intOption("rtt-ms", 0);
+        private String token;
+
+        Browser(HttpClient.Version protocol, String email) {
+            HttpClient.Builder builder = HttpClient.newBuilder().version(protocol).connectTimeout(Duration.ofSeconds(10));
+            if (options.containsKey("insecure")) builder.sslContext(trustAll());
+            this.http = builder.build();
+            this.inFlight = new Semaphore(protocol == HttpClient.Version.HTTP_1_1 ? intOption("connections", 6) : Integer.MAX_VALUE);
+            this.email = email;
+        }
+
+        void login() {
+            byte[] credentials = json.createObjectNode().put("email", email)
+                    .put("password", option("password", "loadtest123")).toString().getBytes(StandardCharsets.UTF_8);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(api + "/auth/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(credentials)).build();
+            token = read("/auth/login", send(request)).get("token").asText();
+        }
+
+        /** The dashboard's three waves of requests; returns every request's timing. */
+        List<Fetch> dashboard() {
+            List<Fetch> fetches = new ArrayList<>();
+            fetchAll(List.of("/auth/me"), fetches);
+            List<JsonNode> lists = fetchAll(List.of("/applications", "/permit-types", "/documents/categories"), fetches);
+            List<String> details = new ArrayList<>();
+            int fanOut = intOption("fan-out", 8);
+            for (JsonNode app : lists.get(0)) {
+                if (details.size() / 4 >= fanOut) break;
+                String path = "/applications/" + app.get("id").asLong();
+                details.addAll(List.of(path, path + "/documents", path + "/events",
+                        "/permit-types/" + app.get("permitTypeId").asLong()));
+            }
+            fetchAll(details, fetches);
+            return fetches;
+        }
+
+        /** Issues the paths concurrently, as far as the connection limit allows, and waits for all of them. */
+        private List<JsonNode> fetchAll(List<String> paths, List<Fetch> fetches) {
+            List<Future<JsonNode>> pending = new ArrayList<>();
+            List<Fetch> timings = Collections.synchronizedList(new ArrayList<>());
+            for (String path : paths) {
+                pending.add(requests.submit(() -> {
+                    inFlight.acquire();
+                    try {
+                        long started = System.nanoTime() / 1000;
+                        if (rttMillis > 0) Thread.sleep(rttMillis);
+                        HttpResponse<byte[]> response = send(HttpRequest.newBuilder(URI.create(api + path))
+                                .header("Accept", "application/json")
+                                .header("Authorization", "Bearer " + token).GET().build());
+                        timings.add(new Fetch(path, started, System.nanoTime() / 1000, response.version()));
+                        return read(path, response);
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+            List<JsonNode> bodies = new ArrayList<>();
+            try {
+                for (Future<JsonNode> future : pending) bodies.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted");
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+            }
+            fetches.addAll(timings);
+            return bodies;
+        }
+
+        private HttpResponse<byte[]> send(HttpRequest request) {
+            try {
+                return http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            } catch (IOException e) {
+                throw new IllegalStateException(request.uri().getPath() + ": " + e, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted");
+            }
+        }
+
+        private JsonNode read(String path, HttpResponse<byte[]> response) {
+            if (response.statusCode() / 100 != 2) {
+                throw new IllegalStateException(path + ": HTTP " + response.statusCode());
+            }
+            try {
+                return json.readTree(response.body());
+            } catch (IOException e) {
+                throw new IllegalStateException(path + ": unreadable body");
+            }
+        }
+    }
+
+    /** Accepts any server certificate; only for the local self-signed one behind {@code --insecure}. */
+    private static SSLContext trustAll() {
+        X509TrustManager trustAll = new X509TrustManager() {
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType) {
+            }
+
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType) {
+            }
+
+            @Override
+            public X509Certificate[] getAcceptedIssuers() {
+                return new X509Certificate[0];
+            }
+        };
+        try {
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(null, new TrustManager[]{trustAll}, null);
+            return context;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
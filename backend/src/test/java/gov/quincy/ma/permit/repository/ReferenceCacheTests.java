@@ -0,0 +1,100 @@
+package gov.quincy.ma.permit.repository;
+
+import gov.quincy.ma.permit.dto.RegisterRequest;
+import gov.quincy.ma.permit.entity.PermitType;
+import gov.quincy.ma.permit.service.AuthService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReferenceCacheTests {
+
+    @Autowired
+    private PermitTypeRepository permitTypeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate tx;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void permitTypeBySlugIsServedFromNaturalIdCache() {
+        PermitType type = new PermitType();
+        type.setName("Cache Test Permit");
+        type.setSlug("cache-test-permit");
+        permitTypeRepository.save(type);
+        assertThat(permitTypeRepository.findBySlug("cache-test-permit")).isPresent();
+        statistics.clear();
+
+        assertThat(permitTypeRepository.findBySlug("cache-test-permit")).isPresent();
+        assertThat(permitTypeRepository.findBySlug("cache-test-permit")).isPresent();
+
+        assertThat(statistics.getNaturalIdCacheHitCount()).isEqualTo(2);
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    private static RegisterRequest registration(String email, String name) {
+        RegisterRequest request = new RegisterRequest();
+        request.setEmail(email);
+        request.setPassword("secret123");
+        request.setName(name);
+        return request;
+    }
+
+    @Test
+    void rolledBackRegistrationLeavesNoCachedUser() {
+        String email = "cache-rollback@example.com";
+        tx.executeWithoutResult(status -> {
+            authService.register(registration(email, "Rolled Back"));
+            // visible to its own transaction only
+            assertThat(userRepository.findByEmail(email)).isPresent();
+            status.setRollbackOnly();
+        });
+
+        assertThat(statistics.getSecondLevelCachePutCount()).isZero();
+        assertThat(statistics.getNaturalIdCachePutCount()).isZero();
+        assertThat(userRepository.findByEmail(email)).isEmpty();
+
+        authService.register(registration(email, "Second Try"));
+        assertThat(userRepository.findByEmail(email)).hasValueSatisfying(u -> assertThat(u.getName()).isEqualTo("Second Try"));
+    }
+
+    @Test
+    void registrationIsVisibleThroughCacheAfterEarlierMiss() {
+        String email = "cache-miss@example.com";
+        assertThat(userRepository.findByEmail(email)).isEmpty();
+
+        authService.register(registration(email, "Cache Miss"));
+
+        assertThat(userRepository.findByEmail(email)).hasValueSatisfying(u -> assertThat(u.getName()).isEqualTo("Cache Miss"));
+        statistics.clear();
+        assertThat(userRepository.findByEmail(email)).isPresent();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+}
@@ -0,0 +1,99 @@
+package gov.quincy.ma.permit.security;
+
+import gov.quincy.ma.permit.dto.RegisterRequest;
+import gov.quincy.ma.permit.entity.PermitType;
+import gov.quincy.ma.permit.repository.PermitTypeRepository;
+import gov.quincy.ma.permit.repository.UserRepository;
+import gov.quincy.ma.permit.service.AuthService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Identity comes from the JWT principal, so these endpoints must not touch the users table.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AuthenticatedUserStatementCountTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private PermitTypeRepository permitTypeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String bearer;
+    private Long permitTypeId;
+
+    @BeforeEach
+    void setUp() {
+        RegisterRequest request = new RegisterRequest();
+        request.setEmail("principal-" + UUID.randomUUID() + "@example.com");
+        request.setPassword("secret123");
+        request.setName("Principal Test");
+        bearer = "Bearer " + authService.register(request).getToken();
+        userRepository.findByEmail(request.getEmail()); // as login would, warms the user cache
+
+        PermitType type = new PermitType();
+        type.setName("Statement Count Permit");
+        type.setSlug("statement-count-" + UUID.randomUUID());
+        permitTypeId = permitTypeRepository.save(type).getId();
+        permitTypeRepository.findById(permitTypeId);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void meIsAnsweredFromTokenClaims() throws Exception {
+        mockMvc.perform(get("/api/auth/me").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Principal Test"))
+                .andExpect(jsonPath("$.role").value("APPLICANT"));
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void createAndListIssueOnlyApplicationStatements() throws Exception {
+        mockMvc.perform(post("/api/applications").header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"permitTypeId\":" + permitTypeId + ",\"formData\":{}}"))
+                .andExpect(status().isOk());
+        // the application and its application_events row, plus a sequence fetch once per 50 events
+        assertThat(statistics.getPrepareStatementCount()).isBetween(2L, 3L);
+
+        statistics.clear();
+        mockMvc.perform(get("/api/applications").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1); // the applications select
+    }
+}
@@ -0,0 +1,32 @@
+package gov.quincy.ma.permit.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTests {
+
+    @Test
+    void neverMissesAnAddedIdAndStaysNearItsFalsePositiveRate() {
+        BloomFilter filter = BloomFilter.create(20_000, 0.001);
+        List<String> added = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            String jti = UUID.randomUUID().toString();
+            filter.add(jti);
+            added.add(jti);
+        }
+        assertThat(added).allMatch(filter::mightContain);
+
+        int falsePositives = 0;
+        for (int i = 0; i < 200_000; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) falsePositives++;
+        }
+        // 0.1% of 200k is 200; allow for variance
+        assertThat(falsePositives).isLessThan(400);
+        assertThat(filter.sizeInBytes()).isLessThan(40 * 1024);
+    }
+}
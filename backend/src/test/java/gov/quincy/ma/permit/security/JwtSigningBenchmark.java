@@ -0,0 +1,69 @@
+package gov.quincy.ma.permit.security;
+
+import gov.quincy.ma.permit.PermitPortalApplication;
+import gov.quincy.ma.permit.entity.User;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issuing and verifying an access token through {@link JwtService} under each {@code jwt.algorithm}:
+ * HS256 with the shared secret, RS256 (RSA 2048) and EdDSA (Ed25519) with the key ring's current
+ * key. Verification includes the {@code kid} lookup. Starts the application per algorithm; run
+ * {@code main} from the test classpath. Token sizes are printed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtSigningBenchmark {
+
+    @Param({"HS256", "RS256", "EdDSA"})
+    public String algorithm;
+
+    private ConfigurableApplicationContext context;
+    private JwtService jwtService;
+    private User user;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(PermitPortalApplication.class)
+                .run("--server.port=0", "--logging.level.root=WARN", "--jwt.algorithm=" + algorithm);
+        jwtService = context.getBean(JwtService.class);
+        user = new User();
+        user.setId(42L);
+        user.setEmail("bench@example.com");
+        user.setName("Benchmark Applicant");
+        user.setRole(User.Role.APPLICANT);
+        token = jwtService.generateToken(user);
+        System.out.printf("%n[%s] token %d bytes%n", algorithm, token.length());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String sign() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public Claims verify() {
+        return jwtService.parseToken(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtSigningBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,58 @@
+package gov.quincy.ma.permit.security;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-request cost of the in-memory revocation check, for a token that isn't revoked (the
+ * common case, answered by the filter alone) and one that is (the filter's answer before the
+ * database confirms it). Run {@code main} from the test classpath; the filter's size is printed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RevocationCheckBenchmark {
+
+    @Param({"1000", "100000"})
+    public int revoked;
+
+    private BloomFilter filter;
+    private String[] unrevokedIds;
+    private String[] revokedIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        filter = BloomFilter.create(2 * revoked, 0.001);
+        revokedIds = new String[revoked];
+        for (int i = 0; i < revoked; i++) {
+            revokedIds[i] = UUID.randomUUID().toString();
+            filter.add(revokedIds[i]);
+        }
+        unrevokedIds = new String[4096];
+        for (int i = 0; i < unrevokedIds.length; i++) unrevokedIds[i] = UUID.randomUUID().toString();
+        System.out.printf("%n[%d revoked] filter %d bytes, %d hashes%n", revoked, filter.sizeInBytes(), filter.hashCount());
+    }
+
+    @Benchmark
+    public boolean unrevokedToken() {
+        return filter.mightContain(unrevokedIds[next++ & (unrevokedIds.length - 1)]);
+    }
+
+    @Benchmark
+    public boolean revokedToken() {
+        return filter.mightContain(revokedIds[next++ % revokedIds.length]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RevocationCheckBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,136 @@
+package gov.quincy.ma.permit.security;
+
+import com.jayway.jsonpath.JsonPath;
+import gov.quincy.ma.permit.config.JwtProperties;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// its own database: a second context re-creating the shared schema would leave the main test context's caches stale
+@SpringBootTest(properties = {"jwt.algorithm=EdDSA",
+        "spring.datasource.url=jdbc:h2:mem:signing-keys;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SigningKeyRotationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtKeyRing keyRing;
+
+    @Autowired
+    private JwtProperties properties;
+
+    private String register() throws Exception {
+        String body = mockMvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"keys-" + UUID.randomUUID() + "@example.com\",\"password\":\"secret123\",\"name\":\"Key Test\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.read(body, "$.token");
+    }
+
+    private static String kidOf(String token) {
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))), StandardCharsets.UTF_8);
+        return JsonPath.read(header, "$.kid");
+    }
+
+    private List<String> publishedKids() throws Exception {
+        String jwks = mockMvc.perform(get("/.well-known/jwks.json"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.read(jwks, "$.keys[*].kid");
+    }
+
+    private void expectMe(String token, int expectedStatus) throws Exception {
+        mockMvc.perform(get("/api/auth/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().is(expectedStatus));
+    }
+
+    @Test
+    void tokensSignedBeforeARotationStayValid() throws Exception {
+        String before = register();
+        String oldKid = kidOf(before);
+        assertThat(oldKid).startsWith("eddsa-");
+        assertThat(publishedKids()).contains(oldKid);
+
+        long interval = properties.getKeys().getRotationIntervalMs();
+        try {
+            // a one-second period puts "now" in a later period than the thirty-day one
+            properties.getKeys().setRotationIntervalMs(1000);
+            keyRing.rotateIfDue();
+        } finally {
+            properties.getKeys().setRotationIntervalMs(interval);
+        }
+
+        String after = register();
+        assertThat(kidOf(after)).isNotEqualTo(oldKid);
+        assertThat(publishedKids()).contains(oldKid, kidOf(after));
+        expectMe(before, 200);
+        expectMe(after, 200);
+    }
+
+    /** An HS256 token for a registered user, signed with {@code jwt.secret} and issued at {@code issuedAt}. */
+    private String hmacToken(Instant issuedAt) throws Exception {
+        String payload = new String(Base64.getUrlDecoder().decode(register().split("\\.")[1]), StandardCharsets.UTF_8);
+        JwtBuilder builder = Jwts.builder()
+                .id(UUID.randomUUID().toString())
+                .subject(JsonPath.read(payload, "$.sub"))
+                .claim("userId", ((Number) JsonPath.read(payload, "$.userId")).longValue())
+                .claim("role", JsonPath.<String>read(payload, "$.role"))
+                .expiration(new Date(System.currentTimeMillis() + 60_000));
+        if (issuedAt != null) builder.issuedAt(Date.from(issuedAt));
+        return builder.signWith(Keys.hmacShaKeyFor(properties.getSecret().getBytes(StandardCharsets.UTF_8))).compact();
+    }
+
+    @Test
+    void hmacTokensAreRejectedUnlessTheLegacyGraceIsOn() throws Exception {
+        register();
+        Instant switchover = keyRing.switchover();
+        assertThat(switchover).isNotNull();
+        expectMe(hmacToken(switchover.minusSeconds(60)), 401);
+    }
+
+    @Test
+    void legacyGraceOnlyAcceptsHmacTokensIssuedBeforeTheSwitch() throws Exception {
+        register();
+        Instant switchover = keyRing.switchover();
+        properties.getKeys().setLegacyHmacGrace(true);
+        try {
+            expectMe(hmacToken(switchover.minusSeconds(60)), 200);
+            // minted with the secret after the key pair existed: the grace does not cover it
+            expectMe(hmacToken(Instant.now()), 401);
+            expectMe(hmacToken(null), 401);
+        } finally {
+            properties.getKeys().setLegacyHmacGrace(false);
+        }
+    }
+
+    @Test
+    void unknownKeyIdsAreRejected() throws Exception {
+        String token = register();
+        String[] parts = token.split("\\.");
+        String forgedHeader = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("{\"kid\":\"eddsa-0\",\"alg\":\"EdDSA\"}".getBytes(StandardCharsets.UTF_8));
+        expectMe(forgedHeader + "." + parts[1] + "." + parts[2], 401);
+    }
+}
@@ -0,0 +1,83 @@
+package gov.quincy.ma.permit.security;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TokenRefreshTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TokenRevocationList revocations;
+
+    private String accessToken;
+    private String refreshToken;
+
+    @BeforeEach
+    void register() throws Exception {
+        String body = mockMvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"refresh-" + UUID.randomUUID() + "@example.com\",\"password\":\"secret123\",\"name\":\"Refresh Test\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.expiresIn").value(900))
+                .andReturn().getResponse().getContentAsString();
+        accessToken = JsonPath.read(body, "$.token");
+        refreshToken = JsonPath.read(body, "$.refreshToken");
+    }
+
+    private String refresh(String token, int expectedStatus) throws Exception {
+        return mockMvc.perform(post("/api/auth/refresh").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + token + "\"}"))
+                .andExpect(status().is(expectedStatus))
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private void expectMe(String token, int expectedStatus) throws Exception {
+        mockMvc.perform(get("/api/auth/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().is(expectedStatus));
+    }
+
+    @Test
+    void refreshRotatesAndReuseRevokesTheWholeSession() throws Exception {
+        String rotated = refresh(refreshToken, 200);
+        String nextRefresh = JsonPath.read(rotated, "$.refreshToken");
+        expectMe(JsonPath.read(rotated, "$.token"), 200);
+
+        // the spent token comes back: treated as stolen, so its successor dies with it
+        refresh(refreshToken, 401);
+        refresh(nextRefresh, 401);
+    }
+
+    @Test
+    void logoutRevokesTheAccessTokenAndTheRefreshToken() throws Exception {
+        expectMe(accessToken, 200);
+        mockMvc.perform(post("/api/auth/logout").header("Authorization", "Bearer " + accessToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + refreshToken + "\"}"))
+                .andExpect(status().isNoContent());
+
+        expectMe(accessToken, 401);
+        refresh(refreshToken, 401);
+
+        // survives a rebuild from the database
+        revocations.rebuild();
+        expectMe(accessToken, 401);
+    }
+}
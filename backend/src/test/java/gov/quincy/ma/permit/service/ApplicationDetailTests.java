@@ -0,0 +1,164 @@
+package gov.quincy.ma.permit.service;
+
+import com.jayway.jsonpath.JsonPath;
+import gov.quincy.ma.permit.dto.RegisterRequest;
+import gov.quincy.ma.permit.entity.Application;
+import gov.quincy.ma.permit.entity.Document;
+import gov.quincy.ma.permit.entity.PermitType;
+import gov.quincy.ma.permit.entity.User;
+import gov.quincy.ma.permit.repository.ApplicationRepository;
+import gov.quincy.ma.permit.repository.DocumentRepository;
+import gov.quincy.ma.permit.repository.PermitTypeRepository;
+import gov.quincy.ma.permit.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ApplicationDetailTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private PermitTypeRepository permitTypeRepository;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private String bearer;
+    private long applicationId;
+    private long documentId;
+
+    private String register(String name) {
+        RegisterRequest request = new RegisterRequest();
+        request.setEmail("detail-" + UUID.randomUUID() + "@example.com");
+        request.setPassword("secret123");
+        request.setName(name);
+        return "Bearer " + authService.register(request).getToken();
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        bearer = register("Detail Applicant");
+        PermitType type = new PermitType();
+        type.setName("Detail Permit");
+        type.setSlug("detail-" + UUID.randomUUID());
+        long permitTypeId = permitTypeRepository.save(type).getId();
+
+        String created = mockMvc.perform(post("/api/applications").header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"permitTypeId\":" + permitTypeId + ",\"formData\":{\"address\":\"1 Main St\"}}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        applicationId = ((Number) JsonPath.read(created, "$.id")).longValue();
+
+        Application app = applicationRepository.getReferenceById(applicationId);
+        for (String name : new String[]{"site-plan.pdf", "elevation.pdf"}) {
+            Document doc = new Document();
+            doc.setName(name);
+            doc.setFilePath("applications/" + applicationId + "/" + name);
+            doc.setMimeType("application/pdf");
+            doc.setApplication(app);
+            documentId = documentRepository.save(doc).getId();
+        }
+    }
+
+    @Test
+    void returnsEveryPartByDefault() throws Exception {
+        mockMvc.perform(get("/api/applications/{id}/detail", applicationId).header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.application.id").value(applicationId))
+                .andExpect(jsonPath("$.application.formData.address").value("1 Main St"))
+                .andExpect(jsonPath("$.permitType.name").value("Detail Permit"))
+                .andExpect(jsonPath("$.applicant.name").value("Detail Applicant"))
+                .andExpect(jsonPath("$.reviewer").doesNotExist())
+                .andExpect(jsonPath("$.documents.length()").value(2))
+                .andExpect(jsonPath("$.events[0].toStatus").value("DRAFT"));
+    }
+
+    @Test
+    void selectedFieldsOnlyAndOneApplicationSelect() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get("/api/applications/{id}/detail", applicationId).param("fields", "application,documents")
+                        .header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.application.status").value("DRAFT"))
+                .andExpect(jsonPath("$.documents.length()").value(2))
+                .andExpect(jsonPath("$.permitType").doesNotExist())
+                .andExpect(jsonPath("$.events").doesNotExist());
+        // the application with its associations, then its documents
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void applicantSeesTheReviewersNameButNotTheirEmail() throws Exception {
+        register("Detail Reviewer");
+        User reviewer = userRepository.findAll().stream()
+                .filter(u -> u.getName().equals("Detail Reviewer")).findFirst().orElseThrow();
+        Application app = applicationRepository.findById(applicationId).orElseThrow();
+        app.setReviewer(reviewer);
+        applicationRepository.save(app);
+
+        mockMvc.perform(get("/api/applications/{id}/detail", applicationId).param("fields", "applicant,reviewer")
+                        .header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reviewer.id").value(reviewer.getId()))
+                .andExpect(jsonPath("$.reviewer.name").value("Detail Reviewer"))
+                .andExpect(jsonPath("$.reviewer.email").doesNotExist())
+                .andExpect(jsonPath("$.applicant.email").doesNotExist());
+    }
+
+    @Test
+    void rejectsUnknownFieldsAndOtherApplicants() throws Exception {
+        mockMvc.perform(get("/api/applications/{id}/detail", applicationId).param("fields", "application,secrets")
+                        .header("Authorization", bearer))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/applications/{id}/detail", applicationId)
+                        .header("Authorization", register("Someone Else")))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void documentFilesAndThumbnailsAreForbiddenToOtherApplicants() throws Exception {
+        String someoneElse = register("Someone Else");
+        for (String part : new String[]{"file", "thumbnail"}) {
+            mockMvc.perform(get("/api/documents/{id}/" + part, documentId).header("Authorization", someoneElse))
+                    .andExpect(status().isForbidden());
+            // the applicant gets past the check; the test never stored the bytes
+            mockMvc.perform(get("/api/documents/{id}/" + part, documentId).header("Authorization", bearer))
+                    .andExpect(status().isNotFound());
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package gov.quincy.ma.permit.service;
+
+import com.jayway.jsonpath.JsonPath;
+import gov.quincy.ma.permit.dto.RegisterRequest;
+import gov.quincy.ma.permit.entity.PermitType;
+import gov.quincy.ma.permit.entity.User;
+import gov.quincy.ma.permit.repository.PermitTypeRepository;
+import gov.quincy.ma.permit.repository.UserRepository;
+import gov.quincy.ma.permit.security.JwtService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ApplicationLifecycleTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PermitTypeRepository permitTypeRepository;
+
+    private String applicant;
+    private String staff;
+    private PermitType permitType;
+
+    @BeforeEach
+    void setUp() {
+        RegisterRequest register = new RegisterRequest();
+        register.setEmail("lifecycle-" + UUID.randomUUID() + "@example.com");
+        register.setPassword("secret123");
+        register.setName("Lifecycle Test");
+        applicant = "Bearer " + authService.register(register).getToken();
+
+        User reviewer = new User();
+        reviewer.setEmail("reviewer-" + UUID.randomUUID() + "@quincyma.gov");
+        reviewer.setPasswordHash("unused");
+        reviewer.setName("Lifecycle Reviewer");
+        reviewer.setRole(User.Role.STAFF);
+        staff = "Bearer " + jwtService.generateToken(userRepository.save(reviewer));
+
+        PermitType type = new PermitType();
+        type.setName("Lifecycle Permit");
+        type.setSlug("lifecycle-" + UUID.randomUUID());
+        permitType = permitTypeRepository.save(type);
+    }
+
+    private long createDraft() throws Exception {
+        String body = mockMvc.perform(post("/api/applications").header("Authorization", applicant)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"permitTypeId\":" + permitType.getId() + ",\"formData\":{}}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.<Number>read(body, "$.id").longValue();
+    }
+
+    private void patchStatus(String bearer, long id, String json, int expected) throws Exception {
+        mockMvc.perform(patch("/api/applications/" + id).header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().is(expected));
+    }
+
+    @Test
+    void logsEveryTransitionAndRejectsSkippedStages() throws Exception {
+        long id = createDraft();
+        patchStatus(staff, id, "{\"status\":\"APPROVED\"}", 409);
+        patchStatus(applicant, id, "{\"submit\":true}", 200);
+        patchStatus(staff, id, "{\"status\":\"APPROVED\"}", 409);
+        patchStatus(staff, id, "{\"status\":\"UNDER_REVIEW\"}", 200);
+        patchStatus(staff, id, "{\"status\":\"APPROVED\"}", 200);
+        patchStatus(staff, id, "{\"status\":\"UNDER_REVIEW\"}", 409);
+        patchStatus(staff, id, "{\"status\":\"PENDING\"}", 400);
+
+        mockMvc.perform(get("/api/applications/" + id + "/events").header("Authorization", applicant))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(4))
+                .andExpect(jsonPath("$[0].fromStatus").doesNotExist())
+                .andExpect(jsonPath("$[0].toStatus").value("DRAFT"))
+                .andExpect(jsonPath("$[1].fromStatus").value("DRAFT"))
+                .andExpect(jsonPath("$[1].stageMillis").isNumber())
+                .andExpect(jsonPath("$[3].toStatus").value("APPROVED"));
+
+        String slug = permitType.getSlug();
+        mockMvc.perform(get("/api/applications/staff/stats").header("Authorization", staff))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.permitTypeSlug == '" + slug + "')].stage")
+                        .value(containsInAnyOrder("DRAFT", "SUBMITTED", "UNDER_REVIEW")))
+                .andExpect(jsonPath("$[?(@.permitTypeSlug == '" + slug + "' && @.stage == 'UNDER_REVIEW')].completed")
+                        .value(contains(1)));
+        mockMvc.perform(get("/api/applications/staff/stats").header("Authorization", applicant))
+                .andExpect(status().isForbidden());
+    }
+}
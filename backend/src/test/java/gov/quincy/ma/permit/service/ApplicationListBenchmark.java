@@ -0,0 +1,130 @@
+package gov.quincy.ma.permit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gov.quincy.ma.permit.PermitPortalApplication;
+import gov.quincy.ma.permit.config.SyntheticData;
+import gov.quincy.ma.permit.dto.ApplicationDto;
+import gov.quincy.ma.permit.entity.Application;
+import gov.quincy.ma.permit.entity.PermitType;
+import gov.quincy.ma.permit.entity.RawJson;
+import gov.quincy.ma.permit.entity.User;
+import gov.quincy.ma.permit.repository.ApplicationRepository;
+import gov.quincy.ma.permit.repository.PermitTypeRepository;
+import gov.quincy.ma.permit.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The staff list over 10k applications, query plus serialization: the full {@code ApplicationDto}
+ * from entities versus the sparse projection the list views ask for with {@code ?fields=}. Starts
+ * the application on the default in-memory database with the seeded permit types; run {@code main}
+ * from the test classpath. Response sizes per variant are printed at the end.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ApplicationListBenchmark {
+
+    private static final int APPLICATIONS = 10_000;
+    private static final List<String> LIST_VIEW = List.of("id", "applicantEmail", "permitTypeName", "status", "submittedAt");
+
+    private ConfigurableApplicationContext context;
+    private ApplicationRepository applications;
+    private ObjectMapper objectMapper;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(PermitPortalApplication.class)
+                .run("--server.port=0", "--logging.level.root=WARN", "--spring.jpa.properties.hibernate.generate_statistics=false");
+        applications = context.getBean(ApplicationRepository.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        readOnly = new TransactionTemplate(context.getBean(TransactionTemplate.class).getTransactionManager());
+        readOnly.setReadOnly(true);
+
+        Random random = new Random(42);
+        UserRepository users = context.getBean(UserRepository.class);
+        List<User> applicants = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            User user = new User();
+            user.setEmail("bench-" + i + "@example.com");
+            user.setPasswordHash("unused");
+            user.setName(SyntheticData.personName(random));
+            applicants.add(user);
+        }
+        users.saveAll(applicants);
+        List<PermitType> types = context.getBean(PermitTypeRepository.class).findAll();
+        List<Application> batch = new ArrayList<>();
+        for (int i = 0; i < APPLICATIONS; i++) {
+            PermitType type = types.get(random.nextInt(types.size()));
+            Application app = new Application();
+            app.setApplicant(applicants.get(random.nextInt(applicants.size())));
+            app.setPermitType(type);
+            app.setFormData(RawJson.of(SyntheticData.formData(type.getFormSchema().toMap(), random, 1.0)));
+            app.setStatus(Application.Status.SUBMITTED);
+            app.setSubmittedAt(Instant.now().minusSeconds(random.nextInt(30_000_000)));
+            batch.add(app);
+            if (batch.size() == 500) {
+                applications.saveAll(batch);
+                batch.clear();
+            }
+        }
+        applications.saveAll(batch);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        byte[] full = full();
+        byte[] sparse = sparse();
+        System.out.printf("%n[%d applications] full %d bytes (gzip %d), sparse %d bytes (gzip %d)%n",
+                APPLICATIONS, full.length, gzip(full).length, sparse.length, gzip(sparse).length);
+        context.close();
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(bytes);
+        }
+        return buffer.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] full() {
+        return readOnly.execute(status -> write(applications.findAllWithDetails().stream().map(ApplicationDto::fromEntity).toList()));
+    }
+
+    @Benchmark
+    public byte[] sparse() {
+        return readOnly.execute(status -> write(applications.findFields(null, LIST_VIEW)));
+    }
+
+    private byte[] write(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ApplicationListBenchmark.class.getSimpleName()).build()).run();
+    }
+}
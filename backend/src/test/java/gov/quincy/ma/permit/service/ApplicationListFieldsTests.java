@@ -0,0 +1,109 @@
+package gov.quincy.ma.permit.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gov.quincy.ma.permit.dto.ApplicationDto;
+import gov.quincy.ma.permit.dto.RegisterRequest;
+import gov.quincy.ma.permit.entity.PermitType;
+import gov.quincy.ma.permit.repository.PermitTypeRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ApplicationListFieldsTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private PermitTypeRepository permitTypeRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String bearer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        RegisterRequest request = new RegisterRequest();
+        request.setEmail("fields-" + UUID.randomUUID() + "@example.com");
+        request.setPassword("secret123");
+        request.setName("Fields Applicant");
+        bearer = "Bearer " + authService.register(request).getToken();
+
+        PermitType type = new PermitType();
+        type.setName("Fields Permit");
+        type.setSlug("fields-" + UUID.randomUUID());
+        long permitTypeId = permitTypeRepository.save(type).getId();
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/api/applications").header("Authorization", bearer)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"permitTypeId\":" + permitTypeId + ",\"formData\":{\"unit\":" + i + "},\"submit\":" + (i == 0) + "}"))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    private JsonNode list(String fields) throws Exception {
+        var request = get("/api/applications").header("Authorization", bearer);
+        if (fields != null) request.param("fields", fields);
+        return objectMapper.readTree(mockMvc.perform(request).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    @Test
+    void writesOnlyTheSelectedFieldsInOneSelect() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        JsonNode rows = list("id,status,permitTypeName,createdAt");
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(rows).hasSize(3);
+        for (JsonNode row : rows) {
+            assertThat(row.fieldNames()).toIterable().containsExactly("id", "status", "permitTypeName", "createdAt");
+            assertThat(row.get("permitTypeName").asText()).isEqualTo("Fields Permit");
+        }
+    }
+
+    @Test
+    void everyDtoFieldCanBeSelectedAndMatchesTheFullList() throws Exception {
+        String all = Arrays.stream(ApplicationDto.class.getRecordComponents())
+                .map(RecordComponent::getName)
+                .collect(Collectors.joining(","));
+        assertThat(list(all)).isEqualTo(list(null));
+    }
+
+    @Test
+    void rejectsUnknownFields() throws Exception {
+        mockMvc.perform(get("/api/applications").param("fields", "id,passwordHash").header("Authorization", bearer))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/applications/staff").param("fields", "id").header("Authorization", bearer))
+                .andExpect(status().isForbidden());
+    }
+}
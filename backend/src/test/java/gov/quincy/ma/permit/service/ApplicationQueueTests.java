@@ -0,0 +1,149 @@
+package gov.quincy.ma.permit.service;
+
+import gov.quincy.ma.permit.dto.ApplicationDto;
+import gov.quincy.ma.permit.entity.Application;
+import gov.quincy.ma.permit.entity.PermitType;
+import gov.quincy.ma.permit.entity.User;
+import gov.quincy.ma.permit.repository.ApplicationRepository;
+import gov.quincy.ma.permit.repository.PermitTypeRepository;
+import gov.quincy.ma.permit.repository.UserRepository;
+import gov.quincy.ma.permit.security.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ApplicationQueueTests {
+
+    private static final int SUBMISSIONS = 60;
+    private static final int REVIEWERS = 12;
+
+    @Autowired
+    private ApplicationQueueService queueService;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private PermitTypeRepository permitTypeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Long permitTypeId;
+    private final List<User> reviewers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        User applicant = userRepository.save(user("applicant", User.Role.APPLICANT));
+        for (int i = 0; i < REVIEWERS; i++) reviewers.add(userRepository.save(user("reviewer", User.Role.STAFF)));
+
+        PermitType type = new PermitType();
+        type.setName("Queue Permit");
+        type.setSlug("queue-" + UUID.randomUUID());
+        permitTypeId = permitTypeRepository.save(type).getId();
+
+        List<Application> apps = new ArrayList<>();
+        for (int i = 0; i < SUBMISSIONS; i++) {
+            Application app = new Application();
+            app.setApplicant(applicant);
+            app.setPermitType(type);
+            app.setStatus(Application.Status.SUBMITTED);
+            app.setSubmittedAt(Instant.now().minusSeconds(SUBMISSIONS - i));
+            apps.add(app);
+        }
+        applicationRepository.saveAll(apps);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static User user(String prefix, User.Role role) {
+        User user = new User();
+        user.setEmail(prefix + "-" + UUID.randomUUID() + "@quincyma.gov");
+        user.setPasswordHash("unused");
+        user.setName(prefix);
+        user.setRole(role);
+        return user;
+    }
+
+    private static void actAs(User user) {
+        AuthenticatedUser principal = new AuthenticatedUser(user.getId(), user.getEmail(), user.getName(), user.getRole());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+
+    @Test
+    void concurrentReviewersNeverClaimTheSameApplication() throws Exception {
+        Set<Long> claimed = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(REVIEWERS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (User reviewer : reviewers) {
+            futures.add(pool.submit(() -> {
+                actAs(reviewer);
+                start.await();
+                List<ApplicationDto> batch;
+                do {
+                    batch = queueService.claim(permitTypeId, 3);
+                    for (ApplicationDto app : batch) {
+                        assertThat(app.assigneeId()).isEqualTo(reviewer.getId());
+                        if (!claimed.add(app.id())) duplicates.incrementAndGet();
+                    }
+                } while (!batch.isEmpty());
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) future.get();
+        pool.shutdown();
+
+        assertThat(duplicates).hasValue(0);
+        assertThat(claimed).hasSize(SUBMISSIONS);
+    }
+
+    @Test
+    void heartbeatKeepsClaimsAndExpiredLeasesReturnToTheQueue() {
+        User first = reviewers.get(0);
+        User second = reviewers.get(1);
+        actAs(first);
+        List<Long> mine = queueService.claim(permitTypeId, 2).stream().map(ApplicationDto::id).toList();
+        assertThat(queueService.heartbeat(mine)).containsExactlyInAnyOrderElementsOf(mine);
+
+        Application lapsed = applicationRepository.findById(mine.get(0)).orElseThrow();
+        lapsed.setLeaseExpiresAt(Instant.now().minusSeconds(1));
+        applicationRepository.save(lapsed);
+
+        actAs(second);
+        assertThat(queueService.claim(permitTypeId, 1)).extracting(ApplicationDto::id).containsExactly(mine.get(0));
+        assertThat(queueService.heartbeat(mine)).containsExactly(mine.get(0));
+
+        actAs(first);
+        assertThat(queueService.heartbeat(mine)).containsExactly(mine.get(1));
+        queueService.release(List.of(mine.get(1)));
+        assertThat(queueService.heartbeat(mine)).isEmpty();
+    }
+}
@@ -0,0 +1,177 @@
+package gov.quincy.ma.permit.service;
+
+import com.jayway.jsonpath.JsonPath;
+import gov.quincy.ma.permit.dto.RegisterRequest;
+import gov.quincy.ma.permit.entity.Document;
+import gov.quincy.ma.permit.entity.PermitType;
+import gov.quincy.ma.permit.repository.DocumentJobRepository;
+import gov.quincy.ma.permit.repository.DocumentRepository;
+import gov.quincy.ma.permit.repository.PermitTypeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The streaming batch endpoint reads the raw request body, so these tests send a hand-built
+ * multipart body rather than MockMvc's pre-parsed multipart request.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BatchUploadTests {
+
+    private static final String BOUNDARY = "batch-upload-boundary";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private PermitTypeRepository permitTypeRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private DocumentJobRepository jobRepository;
+
+    @Value("${app.upload-dir:${java.io.tmpdir}/quincy-uploads}")
+    private Path uploadDir;
+
+    private String bearer;
+    private long applicationId;
+
+    private String register(String name) {
+        RegisterRequest request = new RegisterRequest();
+        request.setEmail("batch-" + UUID.randomUUID() + "@example.com");
+        request.setPassword("secret123");
+        request.setName(name);
+        return "Bearer " + authService.register(request).getToken();
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        bearer = register("Batch Applicant");
+        PermitType type = new PermitType();
+        type.setName("Batch Permit");
+        type.setSlug("batch-" + UUID.randomUUID());
+        long permitTypeId = permitTypeRepository.save(type).getId();
+        String created = mockMvc.perform(post("/api/applications").header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"permitTypeId\":" + permitTypeId + ",\"formData\":{}}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        applicationId = ((Number) JsonPath.read(created, "$.id")).longValue();
+    }
+
+    private record Part(String name, String fileName, String contentType, byte[] content) {
+        static Part file(String fileName, String contentType, byte[] content) {
+            return new Part("file", fileName, contentType, content);
+        }
+    }
+
+    private static byte[] multipart(Part... parts) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        for (Part part : parts) {
+            StringBuilder head = new StringBuilder("--" + BOUNDARY + "\r\n")
+                    .append("Content-Disposition: form-data; name=\"").append(part.name()).append('"');
+            if (part.fileName() != null) head.append("; filename=\"").append(part.fileName()).append('"');
+            head.append("\r\n");
+            if (part.contentType() != null) head.append("Content-Type: ").append(part.contentType()).append("\r\n");
+            body.write(head.append("\r\n").toString().getBytes(StandardCharsets.UTF_8));
+            body.write(part.content());
+            body.write("\r\n".getBytes(StandardCharsets.UTF_8));
+        }
+        body.write(("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return body.toByteArray();
+    }
+
+    private ResultActions upload(String authorization, Part... parts) throws Exception {
+        return mockMvc.perform(post("/api/applications/{id}/documents/batch", applicationId)
+                .header("Authorization", authorization)
+                .contentType("multipart/form-data; boundary=" + BOUNDARY)
+                .content(multipart(parts)));
+    }
+
+    private long storedFiles() throws IOException {
+        if (!Files.isDirectory(uploadDir)) return 0;
+        try (Stream<Path> files = Files.list(uploadDir)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+
+    @Test
+    void storesEveryFilePartAndQueuesItsProcessing() throws Exception {
+        upload(bearer,
+                Part.file("site-plan.pdf", "application/pdf", "%PDF-1.4 site plan".getBytes(StandardCharsets.UTF_8)),
+                new Part("note", null, null, "form fields are skipped".getBytes(StandardCharsets.UTF_8)),
+                Part.file("notes.txt", "text/plain", "Setbacks per zoning table. ".repeat(300).getBytes(StandardCharsets.UTF_8)),
+                Part.file("photo.png", "image/png", new byte[]{(byte) 0x89, 'P', 'N', 'G'}))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].name").value("site-plan.pdf"))
+                .andExpect(jsonPath("$[1].name").value("notes.txt"))
+                .andExpect(jsonPath("$[2].name").value("photo.png"));
+
+        List<Document> docs = documentRepository.findByApplicationId(applicationId);
+        assertThat(docs).extracting(Document::getName).containsExactlyInAnyOrder("site-plan.pdf", "notes.txt", "photo.png");
+        assertThat(docs).filteredOn(d -> d.getName().equals("notes.txt"))
+                .extracting(Document::getContentEncoding).containsExactly(Document.ENCODING_GZIP);
+        List<Long> ids = docs.stream().map(Document::getId).toList();
+        assertThat(jobRepository.findAll()).filteredOn(j -> ids.contains(j.getDocumentId())).hasSize(3);
+    }
+
+    @Test
+    void oversizedPartRecordsNothingAndRemovesTheFilesAlreadyWritten() throws Exception {
+        long filesBefore = storedFiles();
+        // past spring.servlet.multipart.max-file-size (1MB by default)
+        byte[] oversized = new byte[1024 * 1024 + 1];
+        upload(bearer,
+                Part.file("first.pdf", "application/pdf", "%PDF-1.4 first".getBytes(StandardCharsets.UTF_8)),
+                Part.file("second.pdf", "application/pdf", "%PDF-1.4 second".getBytes(StandardCharsets.UTF_8)),
+                Part.file("scan.pdf", "application/pdf", oversized))
+                .andExpect(status().isPayloadTooLarge());
+
+        assertThat(documentRepository.findByApplicationId(applicationId)).isEmpty();
+        assertThat(storedFiles()).isEqualTo(filesBefore);
+    }
+
+    @Test
+    void otherApplicantsCannotUpload() throws Exception {
+        long filesBefore = storedFiles();
+        upload(register("Someone Else"), Part.file("intruder.pdf", "application/pdf", "%PDF-1.4".getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isForbidden());
+
+        assertThat(documentRepository.findByApplicationId(applicationId)).isEmpty();
+        assertThat(storedFiles()).isEqualTo(filesBefore);
+    }
+
+    @Test
+    void requestWithoutFilesIsRejected() throws Exception {
+        upload(bearer, new Part("note", null, null, "no files here".getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isBadRequest());
+    }
+}
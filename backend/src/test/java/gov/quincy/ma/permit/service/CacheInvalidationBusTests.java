@@ -0,0 +1,137 @@
+package gov.quincy.ma.permit.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The transports without a Spring context: which in-JVM nodes hear each other, and the payload
+ * and SQL the Postgres transport puts on the wire (no Postgres server runs in the build).
+ */
+class CacheInvalidationBusTests {
+
+    /** Records the application events a node would dispatch to its caches. */
+    private static class Received implements ApplicationEventPublisher {
+        final List<CacheInvalidation> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void publishEvent(Object event) {
+            if (event instanceof CacheInvalidation invalidation) events.add(invalidation);
+        }
+    }
+
+    private static void await(List<?> events, int size) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (events.size() < size) {
+            assertThat(System.nanoTime()).as("%d events within 5s", size).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void inJvmBusOnlyReachesNodesOnTheSameDatabase() throws Exception {
+        String shared = "jdbc:h2:mem:bus-" + UUID.randomUUID();
+        Received a = new Received();
+        Received b = new Received();
+        Received other = new Received();
+        InJvmCacheInvalidationBus nodeA = new InJvmCacheInvalidationBus(a,
+                InJvmCacheInvalidationBus.clusterIdFor(shared + ";DB_CLOSE_DELAY=-1"));
+        InJvmCacheInvalidationBus nodeB = new InJvmCacheInvalidationBus(b,
+                InJvmCacheInvalidationBus.clusterIdFor(shared + ";DB_CLOSE_ON_EXIT=FALSE"));
+        InJvmCacheInvalidationBus elsewhere = new InJvmCacheInvalidationBus(other,
+                InJvmCacheInvalidationBus.clusterIdFor("jdbc:h2:mem:bus-" + UUID.randomUUID()));
+        try {
+            nodeA.publish(CacheInvalidation.Topic.PERMIT_TYPE, "7");
+
+            assertThat(a.events).containsExactly(new CacheInvalidation(CacheInvalidation.Topic.PERMIT_TYPE, "7", nodeA.nodeId()));
+            await(b.events, 1);
+            assertThat(b.events).containsExactlyElementsOf(a.events);
+            Thread.sleep(100);
+            assertThat(other.events).isEmpty();
+        } finally {
+            nodeA.leave();
+            nodeB.leave();
+            elsewhere.leave();
+        }
+    }
+
+    @Test
+    void payloadRoundTripsAndStaysWellUnderTheNotifyLimit() {
+        String origin = UUID.randomUUID().toString();
+        List<CacheInvalidation> events = new ArrayList<>();
+        for (CacheInvalidation.Topic topic : CacheInvalidation.Topic.values()) {
+            events.add(new CacheInvalidation(topic, null, origin));
+            events.add(new CacheInvalidation(topic, "42", origin));
+        }
+        events.add(new CacheInvalidation(CacheInvalidation.Topic.SIGNING_KEYS, "eddsa-20391", origin));
+        events.add(new CacheInvalidation(CacheInvalidation.Topic.REVOKED_TOKEN, "a|b||c", origin));
+
+        for (CacheInvalidation event : events) {
+            String payload = event.encode();
+            assertThat(CacheInvalidation.decode(payload)).isEqualTo(event);
+            assertThat(payload.getBytes(StandardCharsets.UTF_8).length).isLessThan(8000);
+        }
+        assertThat(new CacheInvalidation(CacheInvalidation.Topic.USER, "5", origin).encode())
+                .isEqualTo("USER|5|" + origin);
+    }
+
+    @Test
+    void receiveDropsOwnAndMalformedMessages() {
+        Received received = new Received();
+        InJvmCacheInvalidationBus node = new InJvmCacheInvalidationBus(received, "jdbc:h2:mem:bus-" + UUID.randomUUID());
+        try {
+            node.receive("USER|5|" + node.nodeId());
+            node.receive("not a message");
+            node.receive("NO_SUCH_TOPIC|5|" + UUID.randomUUID());
+            assertThat(received.events).isEmpty();
+
+            node.receive("USER||someone-else");
+            assertThat(received.events).containsExactly(new CacheInvalidation(CacheInvalidation.Topic.USER, null, "someone-else"));
+        } finally {
+            node.leave();
+        }
+    }
+
+    @Test
+    void postgresBusNotifiesTheConfiguredChannelWithTheEncodedEvent() {
+        List<Object[]> statements = new CopyOnWriteArrayList<>();
+        JdbcTemplate jdbc = new JdbcTemplate() {
+            @Override
+            public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+                List<Object> call = new ArrayList<>(List.of(sql));
+                call.addAll(List.of(args));
+                statements.add(call.toArray());
+                return null;
+            }
+        };
+        Received received = new Received();
+        // nothing listens on port 1; the listener thread keeps retrying until stop()
+        PostgresCacheInvalidationBus bus = new PostgresCacheInvalidationBus(received, jdbc, "cache_invalidation",
+                "jdbc:postgresql://127.0.0.1:1/none", "u", "p", Duration.ofMinutes(1));
+        try {
+            bus.publish(CacheInvalidation.Topic.PERMIT_TYPE, "12");
+
+            assertThat(statements).hasSize(1);
+            assertThat(statements.get(0)).containsExactly("SELECT pg_notify(?, ?)", "cache_invalidation",
+                    "PERMIT_TYPE|12|" + bus.nodeId());
+            // the local node handles its own event without waiting for the round trip
+            assertThat(received.events).containsExactly(new CacheInvalidation(CacheInvalidation.Topic.PERMIT_TYPE, "12", bus.nodeId()));
+
+            bus.receive("PERMIT_TYPE|12|" + bus.nodeId());
+            bus.receive("PUBLIC_DOCUMENTS||" + UUID.randomUUID());
+            assertThat(received.events).hasSize(2)
+                    .last().extracting(CacheInvalidation::topic).isEqualTo(CacheInvalidation.Topic.PUBLIC_DOCUMENTS);
+        } finally {
+            bus.stop();
+        }
+    }
+}
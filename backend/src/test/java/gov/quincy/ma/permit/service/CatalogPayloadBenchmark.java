@@ -0,0 +1,97 @@
+package gov.quincy.ma.permit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import gov.quincy.ma.permit.dto.DocumentDto;
+import gov.quincy.ma.permit.entity.Document;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CPU per request for the Document Center list: serialized on every request, serialized and
+ * gzipped on every request (what container compression does), or served from the per-snapshot
+ * pre-compressed memo. Run {@code main} from the test classpath; bytes on the wire per variant
+ * are printed at the end.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogPayloadBenchmark {
+
+    @Param({"50", "500"})
+    public int documents;
+
+    private ObjectMapper objectMapper;
+    private DocumentCatalog catalog;
+    private DocumentCatalog.Snapshot snapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        catalog = new DocumentCatalog(null, null, objectMapper, new TransactionTemplate());
+        Random random = new Random(42);
+        String[] categories = {"Building", "Zoning", "Conservation", "Licensing", "Public Works"};
+        List<DocumentDto> docs = new ArrayList<>();
+        for (long id = 1; id <= documents; id++) {
+            DocumentDto doc = new DocumentDto();
+            doc.setId(id);
+            doc.setName("Permit form " + id + " for " + categories[random.nextInt(categories.length)].toLowerCase() + " projects");
+            doc.setCategory(categories[random.nextInt(categories.length)]);
+            doc.setMimeType("application/pdf");
+            doc.setUploadedAt(Instant.parse("2024-01-01T00:00:00Z").plusSeconds(random.nextInt(30_000_000)));
+            byte[] hash = new byte[32];
+            random.nextBytes(hash);
+            doc.setSha256(HexFormat.of().formatHex(hash));
+            doc.setScanStatus(Document.ScanStatus.CLEAN);
+            doc.setThumbnailAvailable(true);
+            docs.add(doc);
+        }
+        snapshot = DocumentCatalog.build(docs);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        EncodedJson encoded = catalog.encodedList(snapshot, null);
+        System.out.printf("%n[%d documents] identity %d bytes, gzip per request %d bytes, pre-compressed %d bytes%n",
+                documents, encoded.identity().length, serializeAndGzip().length, encoded.gzip().length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(snapshot.documents());
+    }
+
+    @Benchmark
+    public byte[] serializeAndGzip() throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(objectMapper.writeValueAsBytes(snapshot.documents()));
+        }
+        return buffer.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] precompressed() {
+        return catalog.encodedList(snapshot, null).gzip();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CatalogPayloadBenchmark.class.getSimpleName()).build()).run();
+    }
+}
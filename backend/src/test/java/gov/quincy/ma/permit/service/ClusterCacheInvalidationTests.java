@@ -0,0 +1,88 @@
+package gov.quincy.ma.permit.service;
+
+import gov.quincy.ma.permit.PermitPortalApplication;
+import gov.quincy.ma.permit.dto.DocumentDto;
+import gov.quincy.ma.permit.entity.PermitType;
+import gov.quincy.ma.permit.repository.PermitTypeRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two backend nodes (application contexts) on one shared database: a write on node A must reach
+ * node B's in-process caches through the invalidation bus.
+ */
+class ClusterCacheInvalidationTests {
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        String url = "jdbc:h2:mem:cluster-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+        nodeA = startNode(url, "create");
+        nodeB = startNode(url, "none");
+    }
+
+    private static ConfigurableApplicationContext startNode(String url, String ddl) {
+        return new SpringApplicationBuilder(PermitPortalApplication.class)
+                .profiles("test")
+                .run("--server.port=0", "--spring.datasource.url=" + url, "--spring.jpa.hibernate.ddl-auto=" + ddl);
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeB != null) nodeB.close();
+        if (nodeA != null) nodeA.close();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within 5s").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void publicDocumentSavedOnOneNodeAppearsInTheOthersCatalog() throws Exception {
+        DocumentCatalog catalogB = nodeB.getBean(DocumentCatalog.class);
+        assertThat(catalogB.snapshot().documents()).noneMatch(d -> d.getName().equals("Cluster Fence Guide"));
+
+        nodeA.getBean(DocumentService.class).savePublicDocument("Cluster Fence Guide", "Building",
+                new MockMultipartFile("file", "fence.txt", "text/plain", "fence".getBytes(StandardCharsets.UTF_8)));
+
+        await(() -> catalogB.snapshot().documents().stream().map(DocumentDto::getName)
+                .anyMatch("Cluster Fence Guide"::equals));
+    }
+
+    @Test
+    void permitTypeUpdatedOnOneNodeIsEvictedFromTheOthersSecondLevelCache() throws Exception {
+        PermitType type = new PermitType();
+        type.setName("Cluster Permit");
+        type.setSlug("cluster-permit");
+        Long id = nodeA.getBean(PermitTypeRepository.class).save(type).getId();
+
+        PermitTypeService serviceB = nodeB.getBean(PermitTypeService.class);
+        assertThat(serviceB.findById(id).getName()).isEqualTo("Cluster Permit");
+        assertThat(serviceB.findBySlug("cluster-permit").getName()).isEqualTo("Cluster Permit"); // both caches warm
+
+        PermitTypeRepository repositoryA = nodeA.getBean(PermitTypeRepository.class);
+        nodeA.getBean(TransactionTemplate.class).executeWithoutResult(status ->
+                repositoryA.findById(id).orElseThrow().setName("Cluster Permit (renamed)"));
+
+        await(() -> serviceB.findById(id).getName().equals("Cluster Permit (renamed)"));
+        assertThat(serviceB.findBySlug("cluster-permit").getName()).isEqualTo("Cluster Permit (renamed)");
+    }
+}
@@ -0,0 +1,141 @@
+package gov.quincy.ma.permit.service;
+
+import gov.quincy.ma.permit.dto.DocumentDto;
+import gov.quincy.ma.permit.entity.DocumentJob;
+import gov.quincy.ma.permit.repository.DocumentJobRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class DocumentCatalogTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private DocumentCatalog catalog;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DocumentProcessingService processingService;
+
+    @Autowired
+    private DocumentJobRepository jobRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private void upload(String name, String category) {
+        documentService.savePublicDocument(name, category,
+                new MockMultipartFile("file", name + ".txt", "text/plain", name.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void servesListsFromSnapshotAndRevalidatesWithEtag() throws Exception {
+        upload("Zoning Board Petition", "Zoning");
+        upload("Building Permit Checklist", "Building");
+        statistics.clear();
+
+        String etag = mockMvc.perform(get("/api/documents").param("category", "Zoning"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.name == 'Zoning Board Petition')]").exists())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/api/documents").param("search", "perm"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.name == 'Building Permit Checklist')]").exists())
+                .andExpect(jsonPath("$[?(@.name == 'Zoning Board Petition')]").doesNotExist());
+        mockMvc.perform(get("/api/documents").param("search", "zonning petiton").param("mode", "ranked"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Zoning Board Petition"));
+        mockMvc.perform(get("/api/documents/categories"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@ == 'Building')]").exists());
+        mockMvc.perform(get("/api/documents").param("category", "Zoning").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        upload("Zoning Variance Application", "Zoning");
+        mockMvc.perform(get("/api/documents").param("category", "Zoning").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)))
+                .andExpect(jsonPath("$[?(@.name == 'Zoning Variance Application')]").exists());
+    }
+
+    @Test
+    void servesPrecompressedListOncePerSnapshot() throws Exception {
+        for (int i = 0; i < 12; i++) upload("Precompressed Form " + i, "Precompressed");
+
+        byte[] identity = mockMvc.perform(get("/api/documents"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] gzipped = mockMvc.perform(get("/api/documents").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT_ENCODING)))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(gzipped.length).isLessThan(identity.length);
+        assertThat(gunzip(gzipped)).isEqualTo(identity);
+        assertThat(catalog.encodedList(catalog.snapshot(), null).gzip()).isSameAs(catalog.encodedList(catalog.snapshot(), null).gzip());
+    }
+
+    @Test
+    void rankedSearchFindsProcessedDocumentsByTheirText() throws Exception {
+        DocumentDto doc = documentService.savePublicDocument("Fence Guidelines", "Building",
+                new MockMultipartFile("file", "fences.txt", "text/plain",
+                        "Pool enclosures need a self-latching gate.".getBytes(StandardCharsets.UTF_8)));
+        mockMvc.perform(get("/api/documents").param("search", "self-latching gate").param("mode", "ranked"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.name == 'Fence Guidelines')]").doesNotExist());
+
+        DocumentJob job = jobRepository.findAll().stream()
+                .filter(j -> j.getDocumentId().equals(doc.getId())).findFirst().orElseThrow();
+        processingService.run(processingService.claim(1000).stream()
+                .filter(j -> j.getId().equals(job.getId())).findFirst().orElseThrow());
+
+        mockMvc.perform(get("/api/documents").param("search", "self-lacthing enclosures").param("mode", "ranked"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Fence Guidelines"));
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readAllBytes();
+        }
+    }
+}
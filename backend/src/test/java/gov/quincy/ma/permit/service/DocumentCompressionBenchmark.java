@@ -0,0 +1,94 @@
+package gov.quincy.ma.permit.service;
+
+import gov.quincy.ma.permit.entity.Document;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU vs. I/O cost of storing an upload raw or gzip-encoded (fsync included), and of reading it
+ * back decoded, as {@code openStored} does for thumbnails, text extraction and clients that don't
+ * accept gzip. Run {@code main} from the test classpath; bytes on disk per variant are printed at
+ * the end.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DocumentCompressionBenchmark {
+
+    /** "raw", or "gzip-N" for deflate level N. */
+    @Param({"raw", "gzip-1", "gzip-6"})
+    public String encoding;
+
+    /** "csv" approximates text-heavy forms; "random" approximates already-compressed JPEG/ZIP content. */
+    @Param({"csv", "random"})
+    public String payload;
+
+    /** Upload size: the default {@code min-size-bytes} threshold, and a large scan. */
+    @Param({"4096", "4194304"})
+    public int size;
+
+    private byte[] bytes;
+    private Path dir;
+    private LocalDocumentStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if (payload.equals("random")) {
+            bytes = new byte[size];
+            new Random(42).nextBytes(bytes);
+        } else {
+            StringBuilder sb = new StringBuilder(size);
+            Random random = new Random(42);
+            while (sb.length() < size) {
+                sb.append(random.nextInt(100_000)).append(",Quincy,MA,021").append(random.nextInt(10))
+                        .append(",Residential,").append(1900 + random.nextInt(125)).append(",APPROVED\n");
+            }
+            bytes = sb.toString().getBytes(StandardCharsets.US_ASCII);
+        }
+        dir = Files.createTempDirectory("compression-bench");
+        store = new LocalDocumentStore(dir);
+        store();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.out.printf("%n[%s/%s] %d bytes in, %d bytes on disk%n", encoding, payload, bytes.length, store.size("bench.bin"));
+        store.delete("bench.bin");
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public void store() throws IOException {
+        boolean gzip = encoding.startsWith("gzip");
+        int level = gzip ? Integer.parseInt(encoding.substring(5)) : 0;
+        store.write("bench.bin", out -> DocumentService.encode(new ByteArrayInputStream(bytes), out, gzip ? Document.ENCODING_GZIP : null, level));
+    }
+
+    /** Reads the stored bytes back in their original form. */
+    @Benchmark
+    public long read() throws IOException {
+        String contentEncoding = encoding.startsWith("gzip") ? Document.ENCODING_GZIP : null;
+        try (InputStream in = DocumentService.decode(store.open("bench.bin"), contentEncoding)) {
+            return in.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(DocumentCompressionBenchmark.class.getSimpleName()).build()).run();
+    }
+}
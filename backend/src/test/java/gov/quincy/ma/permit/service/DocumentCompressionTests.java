@@ -0,0 +1,105 @@
+package gov.quincy.ma.permit.service;
+
+import gov.quincy.ma.permit.dto.DocumentDto;
+import gov.quincy.ma.permit.dto.RegisterRequest;
+import gov.quincy.ma.permit.entity.Document;
+import gov.quincy.ma.permit.repository.DocumentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class DocumentCompressionTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    private String bearer;
+    private byte[] original;
+    private long documentId;
+
+    @BeforeEach
+    void setUp() {
+        RegisterRequest request = new RegisterRequest();
+        request.setEmail("gzip-" + UUID.randomUUID() + "@example.com");
+        request.setPassword("secret123");
+        request.setName("Gzip Reader");
+        bearer = "Bearer " + authService.register(request).getToken();
+
+        original = "Setback requirements for accessory structures. ".repeat(200).getBytes(StandardCharsets.UTF_8);
+        DocumentDto doc = documentService.savePublicDocument("Zoning Guide", "Zoning",
+                new MockMultipartFile("file", "zoning.txt", "text/plain", original));
+        documentId = doc.getId();
+    }
+
+    private MockHttpServletResponse download(String acceptEncoding) throws Exception {
+        MockHttpServletRequestBuilder request = get("/api/documents/{id}/file", documentId).header("Authorization", bearer);
+        if (acceptEncoding != null) request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        return mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse();
+    }
+
+    private static byte[] gunzip(byte[] body) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Test
+    void storesCompressibleUploadsGzipped() throws Exception {
+        Document doc = documentRepository.findById(documentId).orElseThrow();
+        assertThat(doc.getContentEncoding()).isEqualTo(Document.ENCODING_GZIP);
+        try (InputStream in = documentService.openStored(doc)) {
+            assertThat(in.readAllBytes()).isEqualTo(original);
+        }
+    }
+
+    @Test
+    void passesStoredGzipThroughToClientsThatAcceptIt() throws Exception {
+        for (String acceptEncoding : new String[]{"gzip", "gzip, deflate, br", "br;q=1.0, gzip;q=0.8", "*"}) {
+            MockHttpServletResponse response = download(acceptEncoding);
+            assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).as(acceptEncoding).isEqualTo("gzip");
+            assertThat(response.getContentAsByteArray().length).isLessThan(original.length);
+            assertThat(gunzip(response.getContentAsByteArray())).isEqualTo(original);
+        }
+    }
+
+    @Test
+    void decodesForClientsThatDoNot() throws Exception {
+        for (String acceptEncoding : new String[]{null, "identity", "br, deflate", "gzip;q=0", "gzip; Q=0.000",
+                "*;q=0.5, gzip;q=0", "*;q=0"}) {
+            MockHttpServletResponse response = download(acceptEncoding);
+            assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).as(acceptEncoding).isNull();
+            assertThat(response.getContentAsByteArray()).as(acceptEncoding).isEqualTo(original);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package gov.quincy.ma.permit.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ranked name search latency over a synthetic Document Center many times larger than Quincy's.
+ * Run {@code main} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DocumentNameIndexBenchmark {
+
+    private static final String[] WORDS = {
+            "building", "permit", "application", "certificate", "occupancy", "plumbing", "electrical", "gas",
+            "fitting", "zoning", "board", "appeals", "petition", "demolition", "sign", "fence", "pool", "deck",
+            "residential", "commercial", "renovation", "inspection", "request", "form", "checklist", "guide",
+            "variance", "special", "conservation", "historic", "driveway", "curb", "cut", "trench", "sheet", "metal"
+    };
+
+    @Param({"1000", "10000"})
+    public int documents;
+
+    @Param({"buidling permit", "cert occupancy", "zonning bord apeals"})
+    public String query;
+
+    private DocumentNameIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new DocumentNameIndex();
+        Random random = new Random(42);
+        for (long id = 1; id <= documents; id++) {
+            StringBuilder name = new StringBuilder();
+            int words = 2 + random.nextInt(4);
+            for (int w = 0; w < words; w++) name.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            name.append(id % 97); // form numbers keep the term dictionary from collapsing to WORDS
+            index.index(id, name.toString());
+        }
+    }
+
+    @Benchmark
+    public List<DocumentNameIndex.Hit> search() {
+        return index.search(query, 20);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(DocumentNameIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,64 @@
+package gov.quincy.ma.permit.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DocumentNameIndexTests {
+
+    private DocumentNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new DocumentNameIndex();
+        index.index(1L, "Building Permit Application");
+        index.index(2L, "Certificate of Occupancy Request");
+        index.index(3L, "Plumbing Permit Application");
+        index.index(4L, "Zoning Board of Appeals Petition");
+    }
+
+    private List<Long> ids(String query) {
+        return index.search(query, 10).stream().map(DocumentNameIndex.Hit::documentId).toList();
+    }
+
+    @Test
+    void toleratesTyposAndRanksFullMatchesFirst() {
+        assertThat(ids("buidling permit")).startsWith(1L).contains(3L);
+        assertThat(ids("cert occupancy")).containsExactly(2L);
+        assertThat(ids("zonning apeals")).containsExactly(4L);
+    }
+
+    @Test
+    void reindexesRenamedAndDropsRemovedDocuments() {
+        index.index(3L, "Gas Fitting Permit");
+        index.remove(1L);
+
+        assertThat(ids("plumbing")).isEmpty();
+        assertThat(ids("gas fiting")).containsExactly(3L);
+        assertThat(ids("building")).isEmpty();
+    }
+
+    @Test
+    void matchesExtractedTextBelowTheName() {
+        index.indexText(4L, "Abutters within 300 feet are notified of the hearing.");
+        index.indexText(1L, "Submit the plot plan with the building permit application.");
+
+        assertThat(ids("abuters hearing")).containsExactly(4L);
+        // a name match outranks the same word in another document's text
+        assertThat(ids("plumbing plan")).startsWith(3L).contains(1L);
+
+        index.indexText(4L, null);
+        assertThat(ids("abutters")).isEmpty();
+        index.indexText(1L, "Setback table");
+        index.remove(1L);
+        assertThat(ids("setback")).isEmpty();
+    }
+
+    @Test
+    void capsResults() {
+        assertThat(index.search("permit", 1)).hasSize(1);
+    }
+}
@@ -0,0 +1,205 @@
+package gov.quincy.ma.permit.service;
+
+import gov.quincy.ma.permit.config.DocumentProcessingProperties;
+import gov.quincy.ma.permit.dto.DocumentDto;
+import gov.quincy.ma.permit.entity.Document;
+import gov.quincy.ma.permit.entity.DocumentJob;
+import gov.quincy.ma.permit.repository.DocumentJobRepository;
+import gov.quincy.ma.permit.repository.DocumentRepository;
+import gov.quincy.ma.permit.repository.DocumentTextRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The document job queue, driven by hand: the test profile turns the poller off, so each test
+ * claims and runs jobs itself. Jobs left pending by other tests in the shared database may be
+ * claimed along the way; assertions only look at this test's own jobs.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class DocumentProcessingTests {
+
+    private static final int JOBS = 40;
+    private static final int POLLERS = 4;
+
+    @Autowired
+    private DocumentProcessingService processingService;
+
+    @Autowired
+    private DocumentProcessingProperties properties;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private DocumentJobRepository jobRepository;
+
+    @Autowired
+    private DocumentTextRepository textRepository;
+
+    /** A document whose stored file does not exist, so processing it always fails. */
+    private DocumentJob unprocessableJob() {
+        Document doc = new Document();
+        doc.setName("missing.txt");
+        doc.setFilePath("missing-" + UUID.randomUUID() + ".txt");
+        doc.setMimeType("text/plain");
+        return jobRepository.save(new DocumentJob(documentRepository.save(doc).getId()));
+    }
+
+    private DocumentJob claimOwn(Long jobId) {
+        return processingService.claim(1000).stream().filter(j -> j.getId().equals(jobId)).findFirst().orElse(null);
+    }
+
+    private DocumentJob reload(DocumentJob job) {
+        return jobRepository.findById(job.getId()).orElseThrow();
+    }
+
+    @Test
+    void concurrentPollersNeverClaimTheSameJob() throws Exception {
+        Set<Long> mine = new HashSet<>();
+        for (int i = 0; i < JOBS; i++) mine.add(unprocessableJob().getId());
+        Set<Long> claimed = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(POLLERS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int p = 0; p < POLLERS; p++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                List<DocumentJob> batch;
+                do {
+                    batch = processingService.claim(3);
+                    for (DocumentJob job : batch) {
+                        if (!claimed.add(job.getId())) duplicates.incrementAndGet();
+                    }
+                } while (!batch.isEmpty());
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) future.get();
+        pool.shutdown();
+
+        assertThat(duplicates).hasValue(0);
+        assertThat(claimed).containsAll(mine);
+        assertThat(jobRepository.findAllById(mine)).allSatisfy(job -> {
+            assertThat(job.getStatus()).isEqualTo(DocumentJob.Status.RUNNING);
+            assertThat(job.getAttempts()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void expiredLeaseIsReclaimedAsANewAttempt() {
+        DocumentJob job = unprocessableJob();
+        assertThat(claimOwn(job.getId())).isNotNull();
+        assertThat(claimOwn(job.getId())).as("lease still held").isNull();
+
+        DocumentJob lapsed = reload(job);
+        lapsed.setLeaseExpiresAt(Instant.now().minusSeconds(1));
+        jobRepository.save(lapsed);
+
+        DocumentJob reclaimed = claimOwn(job.getId());
+        assertThat(reclaimed).isNotNull();
+        assertThat(reclaimed.getAttempts()).isEqualTo(2);
+        assertThat(reclaimed.getLeaseExpiresAt()).isAfter(Instant.now());
+    }
+
+    @Test
+    void lapsedLeaseOnTheLastAttemptFailsTheJob() {
+        DocumentJob job = unprocessableJob();
+        DocumentJob nearlySpent = reload(job);
+        nearlySpent.setAttempts(properties.getMaxAttempts() - 1);
+        jobRepository.save(nearlySpent);
+        assertThat(claimOwn(job.getId())).isNotNull();
+
+        // the worker died mid-job, so run() never recorded the outcome
+        DocumentJob lapsed = reload(job);
+        assertThat(lapsed.getAttempts()).isEqualTo(properties.getMaxAttempts());
+        lapsed.setLeaseExpiresAt(Instant.now().minusSeconds(1));
+        jobRepository.save(lapsed);
+
+        assertThat(claimOwn(job.getId())).isNull();
+        DocumentJob failed = reload(job);
+        assertThat(failed.getStatus()).isEqualTo(DocumentJob.Status.FAILED);
+        assertThat(failed.getAttempts()).isEqualTo(properties.getMaxAttempts());
+        assertThat(failed.getLastError()).contains("Lease expired");
+        assertThat(claimOwn(job.getId())).isNull();
+    }
+
+    @Test
+    void failedJobIsRetriedWithGrowingBackoff() {
+        DocumentJob job = unprocessableJob();
+        Instant before = Instant.now();
+        processingService.run(claimOwn(job.getId()));
+
+        DocumentJob failed = reload(job);
+        assertThat(failed.getStatus()).isEqualTo(DocumentJob.Status.PENDING);
+        assertThat(failed.getLastError()).isNotBlank();
+        assertThat(failed.getAvailableAt()).isAfterOrEqualTo(before.plusSeconds(properties.getRetryBackoffSeconds()));
+        assertThat(claimOwn(job.getId())).as("backing off").isNull();
+
+        failed.setAvailableAt(Instant.now().minusSeconds(1));
+        jobRepository.save(failed);
+        before = Instant.now();
+        processingService.run(claimOwn(job.getId()));
+        assertThat(reload(job).getAvailableAt())
+                .isAfterOrEqualTo(before.plusSeconds(2 * properties.getRetryBackoffSeconds()));
+    }
+
+    @Test
+    void lastAttemptFailsTheJobForGood() {
+        DocumentJob job = unprocessableJob();
+        DocumentJob nearlySpent = reload(job);
+        nearlySpent.setAttempts(properties.getMaxAttempts() - 1);
+        jobRepository.save(nearlySpent);
+
+        processingService.run(claimOwn(job.getId()));
+
+        DocumentJob failed = reload(job);
+        assertThat(failed.getStatus()).isEqualTo(DocumentJob.Status.FAILED);
+        assertThat(failed.getAttempts()).isEqualTo(properties.getMaxAttempts());
+        failed.setAvailableAt(Instant.now().minusSeconds(1));
+        jobRepository.save(failed);
+        assertThat(claimOwn(job.getId())).isNull();
+    }
+
+    @Test
+    void successfulJobRecordsResultsAndText() {
+        DocumentDto doc = documentService.savePublicDocument("Fee schedule", "Building",
+                new MockMultipartFile("file", "fees.txt", "text/plain", "Permit fees".getBytes(StandardCharsets.UTF_8)));
+        DocumentJob job = jobRepository.findAll().stream()
+                .filter(j -> j.getDocumentId().equals(doc.getId())).findFirst().orElseThrow();
+
+        processingService.run(claimOwn(job.getId()));
+
+        DocumentJob done = reload(job);
+        assertThat(done.getStatus()).isEqualTo(DocumentJob.Status.DONE);
+        assertThat(done.getCompletedAt()).isNotNull();
+        Document processed = documentRepository.findById(doc.getId()).orElseThrow();
+        assertThat(processed.getSha256()).hasSize(64);
+        assertThat(processed.getScanStatus()).isEqualTo(Document.ScanStatus.SKIPPED);
+        assertThat(textRepository.findById(doc.getId()).orElseThrow().getText()).isEqualTo("Permit fees");
+    }
+}
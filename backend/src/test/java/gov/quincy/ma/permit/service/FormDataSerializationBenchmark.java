@@ -0,0 +1,82 @@
+package gov.quincy.ma.permit.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gov.quincy.ma.permit.config.SyntheticData;
+import gov.quincy.ma.permit.entity.RawJson;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One page of {@code formData} from column text to response bytes: parsed into maps and written
+ * back out (what the JSON column type did on every load) against copied through as
+ * {@link RawJson}. Run with {@code -prof gc} for bytes allocated per page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormDataSerializationBenchmark {
+
+    private static final TypeReference<Map<String, Object>> MAP = new TypeReference<>() {
+    };
+
+    @Param({"20", "200"})
+    public int applications;
+
+    private ObjectMapper objectMapper;
+    private List<String> stored;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        Map<String, Object> schema = Map.of("fields", List.of(
+                field("submittalDate", "date"), field("jobAddress", "text"), field("mapNumber", "text"),
+                field("typeOfWork", "select", List.of("New construction", "Alteration", "Addition", "Repair")),
+                field("description", "textarea"), field("existingUse", "text"), field("proposedUse", "text"),
+                field("estimatedValue", "number"), field("ownerName", "text"), field("contactPhone", "tel"),
+                field("contactEmail", "email"), field("hicRegistration", "text"), field("affidavit", "checkbox")));
+        Random random = new Random(42);
+        stored = new ArrayList<>(applications);
+        for (int i = 0; i < applications; i++) {
+            stored.add(RawJson.of(SyntheticData.formData(schema, random, 1.0)).json());
+        }
+    }
+
+    private static Map<String, Object> field(String name, String type) {
+        return Map.of("name", name, "type", type);
+    }
+
+    private static Map<String, Object> field(String name, String type, List<String> options) {
+        return Map.of("name", name, "type", type, "options", options);
+    }
+
+    @Benchmark
+    public byte[] parsedMaps() throws IOException {
+        List<Map<String, Object>> page = new ArrayList<>(stored.size());
+        for (String json : stored) page.add(objectMapper.readValue(json, MAP));
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] rawPassthrough() throws IOException {
+        List<RawJson> page = new ArrayList<>(stored.size());
+        for (String json : stored) page.add(RawJson.ofJson(json));
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(FormDataSerializationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,200 @@
+package gov.quincy.ma.permit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import gov.quincy.ma.permit.config.IdempotencyProperties;
+import gov.quincy.ma.permit.dto.RegisterRequest;
+import gov.quincy.ma.permit.entity.PermitType;
+import gov.quincy.ma.permit.repository.PermitTypeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class IdempotentRequestsTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private PermitTypeRepository permitTypeRepository;
+
+    private String applicant;
+    private String createBody;
+
+    @BeforeEach
+    void setUp() {
+        RegisterRequest register = new RegisterRequest();
+        register.setEmail("idempotent-" + UUID.randomUUID() + "@example.com");
+        register.setPassword("secret123");
+        register.setName("Idempotency Test");
+        applicant = "Bearer " + authService.register(register).getToken();
+
+        PermitType type = new PermitType();
+        type.setName("Idempotency Permit");
+        type.setSlug("idempotency-" + UUID.randomUUID());
+        createBody = "{\"permitTypeId\":" + permitTypeRepository.save(type).getId() + ",\"formData\":{\"address\":\"1 Sea St\"}}";
+    }
+
+    private MvcResult create(String key, String body) throws Exception {
+        return mockMvc.perform(post("/api/applications").header("Authorization", applicant)
+                        .header(IdempotentRequests.HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andReturn();
+    }
+
+    private static long id(MvcResult result) throws Exception {
+        return JsonPath.<Number>read(result.getResponse().getContentAsString(), "$.id").longValue();
+    }
+
+    @Test
+    void retriesReplayTheFirstResultAndConcurrentDuplicatesRunOnce() throws Exception {
+        String key = UUID.randomUUID().toString();
+        int callers = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        List<Future<MvcResult>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return create(key, createBody);
+            }));
+        }
+        start.countDown();
+        Set<Long> ids = new HashSet<>();
+        int replayed = 0;
+        for (Future<MvcResult> result : results) {
+            assertThat(result.get().getResponse().getStatus()).isEqualTo(200);
+            ids.add(id(result.get()));
+            if ("true".equals(result.get().getResponse().getHeader(IdempotentRequests.REPLAYED_HEADER))) replayed++;
+        }
+        pool.shutdown();
+        assertThat(ids).hasSize(1);
+        assertThat(replayed).isEqualTo(callers - 1);
+
+        assertThat(create(key, createBody.replace("1 Sea St", "2 Sea St")).getResponse().getStatus()).isEqualTo(422);
+        assertThat(id(create(UUID.randomUUID().toString(), createBody))).isNotIn(ids);
+        mockMvc.perform(get("/api/applications").header("Authorization", applicant))
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void retriedUploadIsStoredOnce() throws Exception {
+        long applicationId = id(create(UUID.randomUUID().toString(), createBody));
+        MockMultipartFile file = new MockMultipartFile("file", "site-plan.pdf", "application/pdf", new byte[4096]);
+        String key = UUID.randomUUID().toString();
+        long first = 0;
+        for (int attempt = 0; attempt < 2; attempt++) {
+            MvcResult result = mockMvc.perform(multipart("/api/applications/" + applicationId + "/documents").file(file)
+                            .header("Authorization", applicant).header(IdempotentRequests.HEADER, key))
+                    .andExpect(status().isOk())
+                    .andExpect(attempt == 0 ? header().doesNotExist(IdempotentRequests.REPLAYED_HEADER)
+                            : header().string(IdempotentRequests.REPLAYED_HEADER, "true"))
+                    .andReturn();
+            if (attempt == 0) first = id(result);
+            else assertThat(id(result)).isEqualTo(first);
+        }
+        mockMvc.perform(get("/api/applications/" + applicationId + "/documents").header("Authorization", applicant))
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void failuresAreNotRememberedAndOldKeysAreForgotten() {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setMaxEntries(2);
+        IdempotentRequests requests = new IdempotentRequests(properties, new SimpleMeterRegistry(), new ObjectMapper());
+        AtomicInteger runs = new AtomicInteger();
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try {
+                requests.execute("test", "failing", "f", () -> {
+                    runs.incrementAndGet();
+                    throw new IllegalStateException("boom");
+                });
+            } catch (IllegalStateException expected) {
+                // each retry of a failed request runs again
+            }
+        }
+        assertThat(runs).hasValue(2);
+
+        requests.execute("test", "a", "f", runs::incrementAndGet);
+        assertThat(requests.execute("test", "a", "f", runs::incrementAndGet).replayed()).isTrue();
+        requests.execute("test", "b", "f", runs::incrementAndGet);
+        requests.execute("test", "c", "f", runs::incrementAndGet);
+        requests.execute("test", "d", "f", runs::incrementAndGet);
+        // "a" was the oldest of more than two keys, so it runs again
+        assertThat(requests.execute("test", "a", "f", runs::incrementAndGet).replayed()).isFalse();
+    }
+
+    @Test
+    void keysStillRunningAreKeptPastTheCap() throws Exception {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setMaxEntries(1);
+        properties.setInFlightWait(Duration.ofMillis(50));
+        IdempotentRequests requests = new IdempotentRequests(properties, new SimpleMeterRegistry(), new ObjectMapper());
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<IdempotentRequests.Outcome<Integer>> slow = pool.submit(() -> requests.execute("test", "slow", "f", () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return runs.incrementAndGet();
+        }));
+        try {
+            started.await();
+            requests.execute("test", "b", "f", runs::incrementAndGet);
+            requests.execute("test", "c", "f", runs::incrementAndGet);
+
+            // "slow" is the oldest key and over the cap, but still running: a retry waits for it
+            assertThatThrownBy(() -> requests.execute("test", "slow", "f", runs::incrementAndGet))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+        } finally {
+            release.countDown();
+            pool.shutdown();
+        }
+        assertThat(slow.get().replayed()).isFalse();
+        assertThat(runs).hasValue(3);
+    }
+}
@@ -0,0 +1,106 @@
+package gov.quincy.ma.permit.service;
+
+import gov.quincy.ma.permit.config.DocumentStorageProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.NoSuchFileException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class S3DocumentStoreTests {
+
+    private S3StandIn s3;
+    private S3DocumentStore store;
+    private final byte[] content = new byte[3000];
+
+    @BeforeEach
+    void setUp() throws IOException {
+        s3 = new S3StandIn();
+        DocumentStorageProperties.S3 properties = new DocumentStorageProperties.S3();
+        properties.setEndpoint(s3.endpoint());
+        properties.setBucket("docs");
+        properties.setAccessKey("test");
+        properties.setSecretKey("test");
+        properties.setPathStyle(true);
+        properties.setCreateBucket(true);
+        properties.setPartSizeBytes(1024);
+        store = new S3DocumentStore(properties);
+        new Random(7).nextBytes(content);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+        s3.close();
+    }
+
+    @Test
+    void streamsLargeObjectsAsMultipartAndReadsRanges() throws IOException {
+        store.write("a/doc.bin", out -> out.write(content));
+
+        assertThat(s3.completedParts.get("docs/a/doc.bin")).isEqualTo(3);
+        assertThat(store.size("a/doc.bin")).isEqualTo(3000);
+        try (InputStream in = store.open("a/doc.bin", 1000, 500)) {
+            assertThat(in.readAllBytes()).isEqualTo(Arrays.copyOfRange(content, 1000, 1500));
+        }
+        try (InputStream in = new StoredResource(store, "a/doc.bin", "doc.bin").getInputStream()) {
+            assertThat(in.skip(2990)).isEqualTo(2990);
+            assertThat(in.readAllBytes()).isEqualTo(Arrays.copyOfRange(content, 2990, 3000));
+        }
+    }
+
+    @Test
+    void smallObjectsAreASinglePut() throws IOException {
+        store.write("small.txt", out -> out.write(content, 0, 10));
+
+        assertThat(s3.completedParts).isEmpty();
+        try (InputStream in = store.open("small.txt")) {
+            assertThat(in.readAllBytes()).isEqualTo(Arrays.copyOf(content, 10));
+        }
+    }
+
+    @Test
+    void failedWriterAbortsTheUploadAndLeavesNothing() {
+        assertThatThrownBy(() -> store.write("broken.bin", out -> {
+            out.write(content);
+            throw new IOException("client went away");
+        })).hasMessage("client went away");
+
+        assertThat(s3.uploads).isEmpty();
+        assertThat(store.exists("broken.bin")).isFalse();
+        assertThatThrownBy(() -> store.size("broken.bin")).isInstanceOf(NoSuchFileException.class);
+    }
+
+    @Test
+    void presignedUrlServesTheObjectWithDownloadHeaders() throws Exception {
+        store.write("report.pdf", out -> out.write(content));
+
+        URI url = store.downloadUrl("report.pdf", "report.pdf", "gzip").orElseThrow();
+        HttpResponse<byte[]> response = HttpClient.newHttpClient()
+                .send(HttpRequest.newBuilder(url).build(), HttpResponse.BodyHandlers.ofByteArray());
+
+        assertThat(url.getQuery()).contains("X-Amz-Signature");
+        assertThat(response.body()).isEqualTo(content);
+        assertThat(response.headers().firstValue("Content-Disposition")).hasValue("attachment; filename=\"report.pdf\"");
+        assertThat(response.headers().firstValue("Content-Encoding")).hasValue("gzip");
+    }
+
+    @Test
+    void deleteRemovesTheObject() throws IOException {
+        store.write("gone.txt", out -> out.write(1));
+        store.delete("gone.txt");
+
+        assertThat(store.exists("gone.txt")).isFalse();
+    }
+}
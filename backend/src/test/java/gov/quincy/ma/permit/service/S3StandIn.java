@@ -0,0 +1,177 @@
+package gov.quincy.ma.permit.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Just enough of the S3 REST API (path-style, signatures ignored) to exercise
+ * {@link S3DocumentStore} without a MinIO server: bucket create/head, object put/get/head/delete
+ * with single ranges and {@code response-*} overrides, and multipart uploads.
+ */
+class S3StandIn implements AutoCloseable {
+
+    final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    final Map<String, TreeMap<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+    final Map<String, Integer> completedParts = new ConcurrentHashMap<>();
+    private final Set<String> buckets = ConcurrentHashMap.newKeySet();
+    private final HttpServer server;
+
+    S3StandIn() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    String endpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath().substring(1);
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            int slash = path.indexOf('/');
+            String bucket = slash < 0 ? path : path.substring(0, slash);
+            String key = slash < 0 ? null : path.substring(slash + 1);
+            String method = exchange.getRequestMethod();
+            if (key == null || key.isEmpty()) {
+                if (method.equals("PUT")) buckets.add(bucket);
+                send(exchange, buckets.contains(bucket) ? 200 : 404, null);
+                return;
+            }
+            String id = bucket + "/" + key;
+            switch (method) {
+                case "POST" -> {
+                    if (query.containsKey("uploads")) {
+                        String uploadId = UUID.randomUUID().toString();
+                        uploads.put(uploadId, new TreeMap<>());
+                        send(exchange, 200, xml("InitiateMultipartUploadResult",
+                                "<Bucket>" + bucket + "</Bucket><Key>" + key + "</Key><UploadId>" + uploadId + "</UploadId>"));
+                    } else {
+                        TreeMap<Integer, byte[]> parts = uploads.remove(query.get("uploadId"));
+                        ByteArrayOutputStream joined = new ByteArrayOutputStream();
+                        for (byte[] part : parts.values()) joined.write(part);
+                        objects.put(id, joined.toByteArray());
+                        completedParts.put(id, parts.size());
+                        send(exchange, 200, xml("CompleteMultipartUploadResult",
+                                "<Bucket>" + bucket + "</Bucket><Key>" + key + "</Key><ETag>\"x\"</ETag>"));
+                    }
+                }
+                case "PUT" -> {
+                    exchange.getResponseHeaders().add("ETag", "\"" + md5(body) + "\"");
+                    if (query.containsKey("uploadId")) {
+                        uploads.get(query.get("uploadId")).put(Integer.parseInt(query.get("partNumber")), body);
+                    } else {
+                        objects.put(id, body);
+                    }
+                    send(exchange, 200, null);
+                }
+                case "DELETE" -> {
+                    if (query.containsKey("uploadId")) uploads.remove(query.get("uploadId"));
+                    else objects.remove(id);
+                    send(exchange, 204, null);
+                }
+                case "HEAD" -> {
+                    byte[] object = objects.get(id);
+                    if (object == null) {
+                        exchange.sendResponseHeaders(404, -1);
+                        return;
+                    }
+                    exchange.getResponseHeaders().add("Content-Length", String.valueOf(object.length));
+                    exchange.sendResponseHeaders(200, -1);
+                }
+                case "GET" -> {
+                    byte[] object = objects.get(id);
+                    if (object == null) {
+                        send(exchange, 404, xml("Error", "<Code>NoSuchKey</Code><Key>" + key + "</Key>"));
+                        return;
+                    }
+                    query.forEach((name, value) -> {
+                        if (name.startsWith("response-")) {
+                            exchange.getResponseHeaders().add(headerName(name.substring("response-".length())), value);
+                        }
+                    });
+                    String range = exchange.getRequestHeaders().getFirst("Range");
+                    if (range == null) {
+                        send(exchange, 200, object);
+                        return;
+                    }
+                    String[] bounds = range.substring("bytes=".length()).split("-", -1);
+                    int start = Integer.parseInt(bounds[0]);
+                    int end = bounds[1].isEmpty() ? object.length - 1 : Math.min(Integer.parseInt(bounds[1]), object.length - 1);
+                    exchange.getResponseHeaders().add("Content-Range", "bytes " + start + "-" + end + "/" + object.length);
+                    byte[] slice = new byte[end - start + 1];
+                    System.arraycopy(object, start, slice, 0, slice.length);
+                    send(exchange, 206, slice);
+                }
+                default -> send(exchange, 405, null);
+            }
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        if (body == null || body.length == 0) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] xml(String root, String content) {
+        return ("<?xml version=\"1.0\" encoding=\"UTF-8\"?><" + root + " xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\">"
+                + content + "</" + root + ">").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String headerName(String queryName) {
+        StringBuilder sb = new StringBuilder();
+        for (String word : queryName.split("-")) {
+            if (!sb.isEmpty()) sb.append('-');
+            sb.append(Character.toUpperCase(word.charAt(0))).append(word.substring(1));
+        }
+        return sb.toString();
+    }
+
+    private static Map<String, String> query(String raw) {
+        Map<String, String> params = new HashMap<>();
+        if (raw == null) return params;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            params.put(name, eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static String md5(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package gov.quincy.ma.permit.service;
+
+import gov.quincy.ma.permit.config.SingleFlightProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTests {
+
+    private static final int CALLERS = 16;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SingleFlightProperties properties = new SingleFlightProperties();
+    private final SingleFlight singleFlight = new SingleFlight(properties, registry);
+
+    private double count(String endpoint, String outcome) {
+        var counter = registry.find("singleflight.requests").tag("endpoint", endpoint).tag("outcome", outcome).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    /** Runs {@code CALLERS} concurrent calls whose loader blocks until every caller has arrived. */
+    private List<Future<Object>> callConcurrently(ExecutorService pool, String endpoint, IntFunction<String> key,
+                                                  Supplier<Object> loader) throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger arrived = new AtomicInteger();
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            int caller = i;
+            futures.add(pool.submit(() -> {
+                arrived.incrementAndGet();
+                return singleFlight.execute(endpoint, key.apply(caller), () -> {
+                    await(release);
+                    return loader.get();
+                });
+            }));
+        }
+        while (arrived.get() < CALLERS) Thread.onSpinWait();
+        // give the followers time to find the leader's flight before it lands
+        Thread.sleep(100);
+        release.countDown();
+        return futures;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    void concurrentIdenticalCallsShareOneExecution() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+        AtomicInteger executions = new AtomicInteger();
+        List<Future<Object>> futures = callConcurrently(pool, "permit-types", i -> "",
+                () -> List.of("result-" + executions.incrementAndGet()));
+        for (Future<Object> future : futures) assertThat(future.get()).isEqualTo(List.of("result-1"));
+        pool.shutdown();
+
+        assertThat(executions).hasValue(1);
+        assertThat(count("permit-types", "executed")).isEqualTo(1);
+        assertThat(count("permit-types", "coalesced")).isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    void failuresReachEveryWaiterAndAreNotRemembered() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+        List<Future<Object>> futures = callConcurrently(pool, "property-search", i -> "main",
+                () -> {
+                    throw new IllegalStateException("database down");
+                });
+        for (Future<Object> future : futures) {
+            assertThatThrownBy(future::get).hasCauseInstanceOf(IllegalStateException.class);
+        }
+        pool.shutdown();
+
+        assertThat(singleFlight.execute("property-search", "main", () -> "recovered")).isEqualTo("recovered");
+    }
+
+    @Test
+    void keysFollowTheEndpointsKeyMode() throws Exception {
+        SingleFlightProperties.Endpoint normalized = new SingleFlightProperties.Endpoint();
+        normalized.setKey(SingleFlightProperties.KeyMode.NORMALIZED);
+        properties.getEndpoints().put("normalized-search", normalized);
+        ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+
+        AtomicInteger normalizedRuns = new AtomicInteger();
+        for (Future<Object> future : callConcurrently(pool, "normalized-search",
+                i -> i % 2 == 0 ? "Main  St" : " main st", normalizedRuns::incrementAndGet)) {
+            future.get();
+        }
+        AtomicInteger exactRuns = new AtomicInteger();
+        for (Future<Object> future : callConcurrently(pool, "exact-search",
+                i -> i % 2 == 0 ? "Main St" : "main st", exactRuns::incrementAndGet)) {
+            future.get();
+        }
+        pool.shutdown();
+
+        assertThat(normalizedRuns).hasValue(1);
+        assertThat(exactRuns).hasValue(2);
+    }
+}
@@ -4,7 +4,47 @@ function getToken() {
   return localStorage.getItem('token');
 }
 
-export async function api(path, options = {}) {
+export function storeTokens({ token, refreshToken }) {
+  localStorage.setItem('token', token);
+  if (refreshToken) localStorage.setItem('refreshToken', refreshToken);
+}
+
+export function clearTokens() {
+  localStorage.removeItem('token');
+  localStorage.removeItem('refreshToken');
+}
+
+let refreshing = null;
+
+/**
+ * Trades the refresh token for a new pair after `failedToken` got a 401. Each refresh token
+ * works once and a second use ends the session, so concurrent 401s share one call in this tab, and
+ * tabs take turns through a Web Lock: whoever gets it second finds the access token already
+ * replaced in localStorage and retries with that instead of spending the old refresh token again.
+ */
+function refreshTokens(failedToken) {
+  if (!refreshing) {
+    const refresh = () => {
+      if (getToken() !== failedToken) return Promise.resolve(!!getToken());
+      const refreshToken = localStorage.getItem('refreshToken');
+      if (!refreshToken) return Promise.resolve(false);
+      return fetch(API_BASE + '/auth/refresh', {
+        method: 'POST',
+        headers: { 'Content-Type': 'application/json' },
+        body: JSON.stringify({ refreshToken }),
+      }).then(async (res) => {
+        if (!res.ok) return false;
+        storeTokens(await res.json());
+        return true;
+      }).catch(() => false);
+    };
+    refreshing = (navigator.locks ? navigator.locks.request('token-refresh', refresh) : refresh())
+      .finally(() => { refreshing = null; });
+  }
+  return refreshing;
+}
+
+export async function api(path, options = {}, retried = false) {
   const token = getToken();
   const headers = {
     'Content-Type': 'application/json',
@@ -12,8 +52,11 @@ export async function api(path, options = {}) {
   };
   if (token) headers['Authorization'] = `Bearer ${token}`;
   const res = await fetch(API_BASE + path, { ...options, headers });
+  if (res.status === 401 && token && !retried && await refreshTokens(token)) {
+    return api(path, options, true);
+  }
   if (res.status === 401) {
-    localStorage.removeItem('token');
+    clearTokens();
     window.dispatchEvent(new Event('auth:logout'));
   }
   if (!res.ok) {
@@ -32,10 +75,36 @@ export async function api(path, options = {}) {
   }
 }
 
+/**
+ * Sends a non-idempotent POST with one Idempotency-Key for all of its attempts, retrying on
+ * timeouts, network errors and gateway errors. A retry of a request that did reach the server
+ * gets the original result back instead of creating a duplicate.
+ */
+async function withIdempotentRetry(send, { attempts = 3, timeoutMs = 30000 } = {}) {
+  const key = crypto.randomUUID();
+  for (let attempt = 1; ; attempt++) {
+    const controller = new AbortController();
+    const timer = setTimeout(() => controller.abort(), timeoutMs);
+    try {
+      return await send({ 'Idempotency-Key': key }, controller.signal);
+    } catch (err) {
+      const retryable = err.name === 'AbortError' || err instanceof TypeError || [409, 502, 503, 504].includes(err.status);
+      if (!retryable || attempt >= attempts) throw err;
+      await new Promise((resolve) => setTimeout(resolve, 500 * 2 ** (attempt - 1)));
+    } finally {
+      clearTimeout(timer);
+    }
+  }
+}
+
 export const auth = {
   login: (email, password) => api('/auth/login', { method: 'POST', body: JSON.stringify({ email, password }) }),
   register: (data) => api('/auth/register', { method: 'POST', body: JSON.stringify(data) }),
   me: () => api('/auth/me'),
+  logout: () => api('/auth/logout', {
+    method: 'POST',
+    body: JSON.stringify({ refreshToken: localStorage.getItem('refreshToken') }),
+  }),
 };
 
 export const permitTypes = {
@@ -45,23 +114,34 @@ export const permitTypes = {
 };
 
 export const applications = {
-  list: () => api('/applications'),
-  listStaff: () => api('/applications/staff'),
+  list: (fields) => api(`/applications${fields ? `?fields=${fields.join(',')}` : ''}`),
+  listStaff: (fields) => api(`/applications/staff${fields ? `?fields=${fields.join(',')}` : ''}`),
+  claim: (count, permitTypeId) => api(`/applications/queue/claim?count=${count}${permitTypeId ? `&permitTypeId=${permitTypeId}` : ''}`, { method: 'POST' }),
+  heartbeat: (ids) => api('/applications/queue/heartbeat', { method: 'POST', body: JSON.stringify(ids) }),
+  release: (ids) => api('/applications/queue/release', { method: 'POST', body: JSON.stringify(ids) }),
   getById: (id) => api(`/applications/${id}`),
-  create: (body) => api('/applications', { method: 'POST', body: JSON.stringify(body) }),
+  getDetail: (id, fields) => api(`/applications/${id}/detail${fields ? `?fields=${fields.join(',')}` : ''}`),
+  create: (body) => withIdempotentRetry((headers, signal) =>
+    api('/applications', { method: 'POST', body: JSON.stringify(body), headers, signal })),
   update: (id, body) => api(`/applications/${id}`, { method: 'PATCH', body: JSON.stringify(body) }),
   getDocuments: (id) => api(`/applications/${id}/documents`),
-  uploadDocument: async (id, file) => {
-    const token = getToken();
-    const headers = {};
-    if (token) headers['Authorization'] = `Bearer ${token}`;
-    const form = new FormData();
-    form.append('file', file);
-    const res = await fetch(API_BASE + `/applications/${id}/documents`, {
-      method: 'POST',
-      headers,
-      body: form,
-    });
+  uploadDocument: (id, file) => withIdempotentRetry(async (idempotencyHeaders, signal) => {
+    let token;
+    const send = () => {
+      token = getToken();
+      const headers = { ...idempotencyHeaders };
+      if (token) headers['Authorization'] = `Bearer ${token}`;
+      const form = new FormData();
+      form.append('file', file);
+      return fetch(API_BASE + `/applications/${id}/documents`, {
+        method: 'POST',
+        headers,
+        body: form,
+        signal,
+      });
+    };
+    let res = await send();
+    if (res.status === 401 && await refreshTokens(token)) res = await send();
     if (!res.ok) {
       const err = new Error(res.statusText);
       err.status = res.status;
@@ -70,7 +150,7 @@ export const applications = {
       throw err;
     }
     return res.json();
-  },
+  }, { timeoutMs: 120000 }),
 };
 
 export const documents = {
@@ -1,5 +1,5 @@
 import { createContext, useContext, useState, useEffect } from 'react';
-import { auth as authApi } from '../api/client';
+import { auth as authApi, storeTokens, clearTokens } from '../api/client';
 
 const AuthContext = createContext(null);
 
@@ -19,7 +19,7 @@ export function AuthProvider({ children }) {
       const me = await authApi.me();
       setUser(me);
     } catch {
-      localStorage.removeItem('token');
+      clearTokens();
       setUser(null);
     } finally {
       setLoading(false);
@@ -38,8 +38,8 @@ export function AuthProvider({ children }) {
    * response), set user immediately so the next page doesn't see stale null and prompt "log in" again.
    * When payload is provided we don't wait for /auth/me so navigation can happen right away.
    */
-  const login = (token, userPayload = null) => {
-    localStorage.setItem('token', token);
+  const login = (token, userPayload = null, refreshToken = null) => {
+    storeTokens({ token, refreshToken });
     if (userPayload && typeof userPayload === 'object') {
       setUser({
         email: userPayload.email ?? '',
@@ -54,7 +54,8 @@ export function AuthProvider({ children }) {
   };
 
   const logout = () => {
-    localStorage.removeItem('token');
+    // revoke server-side too; local state is cleared whether or not that call succeeds
+    authApi.logout().catch(() => {}).finally(clearTokens);
     setUser(null);
   };
 
@@ -4,11 +4,19 @@ import { useAuth } from '../context/AuthContext';
 import { applications as applicationsApi } from '../api/client';
 import './ApplicationDetailPage.css';
 
+// staff moves; mirrors Application.Status#canTransitionTo (the backend answers anything else with 409)
+const NEXT_STATUSES = {
+  SUBMITTED: [['UNDER_REVIEW', 'Under review']],
+  UNDER_REVIEW: [['APPROVED', 'Approved'], ['REJECTED', 'Rejected']],
+};
+
 export default function ApplicationDetailPage() {
   const { id } = useParams();
   const navigate = useNavigate();
   const { user } = useAuth();
   const [app, setApp] = useState(null);
+  const [applicant, setApplicant] = useState(null);
+  const [reviewer, setReviewer] = useState(null);
   const [documents, setDocuments] = useState([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState('');
@@ -18,8 +26,13 @@ export default function ApplicationDetailPage() {
   const [uploading, setUploading] = useState(false);
 
   const loadApp = () => {
-    applicationsApi.getById(id)
-      .then(setApp)
+    applicationsApi.getDetail(id, ['application', 'applicant', 'reviewer', 'documents'])
+      .then((detail) => {
+        setApp(detail.application);
+        setApplicant(detail.applicant ?? null);
+        setReviewer(detail.reviewer ?? null);
+        setDocuments(detail.documents ?? []);
+      })
       .catch((err) => setError(err.status === 404 ? 'Application not found' : (err.body || 'Failed to load')))
       .finally(() => setLoading(false));
   };
@@ -29,13 +42,6 @@ export default function ApplicationDetailPage() {
     loadApp();
   }, [user, id]);
 
-  useEffect(() => {
-    if (!app) return;
-    applicationsApi.getDocuments(id)
-      .then((list) => setDocuments(Array.isArray(list) ? list : []))
-      .catch(() => setDocuments([]));
-  }, [app, id]);
-
   const handleStaffUpdate = async (e) => {
     e.preventDefault();
     if (!staffStatus) return;
@@ -76,6 +82,7 @@ export default function ApplicationDetailPage() {
 
   const isStaff = user.role === 'STAFF';
   const canEditDraft = !isStaff && app.status === 'DRAFT';
+  const nextStatuses = NEXT_STATUSES[app.status] ?? [];
 
   return (
     <div className="application-detail-page">
@@ -87,9 +94,16 @@ export default function ApplicationDetailPage() {
 
       <section className="detail-section">
         <h2>Applicant</h2>
-        <p>{app.applicantName} – {app.applicantEmail}</p>
+        <p>{applicant?.name} – {app.applicantEmail}</p>
       </section>
 
+      {reviewer && (
+        <section className="detail-section">
+          <h2>Reviewer</h2>
+          <p>{reviewer.name}</p>
+        </section>
+      )}
+
       <section className="detail-section">
         <h2>Form data</h2>
         {app.formData && Object.keys(app.formData).length > 0 ? (
@@ -159,16 +173,16 @@ export default function ApplicationDetailPage() {
         </div>
       )}
 
-      {isStaff && (
+      {isStaff && nextStatuses.length > 0 && (
         <form onSubmit={handleStaffUpdate} className="staff-update-form">
           <h2>Update status</h2>
           <label>
             Status
             <select value={staffStatus} onChange={(e) => setStaffStatus(e.target.value)} required>
               <option value="">Select…</option>
-              <option value="UNDER_REVIEW">Under review</option>
-              <option value="APPROVED">Approved</option>
-              <option value="REJECTED">Rejected</option>
+              {nextStatuses.map(([value, label]) => (
+                <option key={value} value={value}>{label}</option>
+              ))}
             </select>
           </label>
           <label>
@@ -20,7 +20,7 @@ export default function ApplicationListPage() {
 
   useEffect(() => {
     if (!user) return;
-    applicationsApi.list()
+    applicationsApi.list(['id', 'permitTypeName', 'status', 'submittedAt'])
       .then(setList)
       .catch((err) => setError(err.body || 'Failed to load applications'))
       .finally(() => setLoading(false));
@@ -18,7 +18,7 @@ export default function LoginPage() {
     setLoading(true);
     try {
       const res = await authApi.login(email, password);
-      await login(res.token, { email: res.email, name: res.name, role: res.role });
+      await login(res.token, { email: res.email, name: res.name, role: res.role }, res.refreshToken);
       navigate('/applications');
     } catch (err) {
       const msg = err.json?.message || err.json?.error || (typeof err.body === 'string' && err.body.length < 200 ? err.body : 'Login failed');
@@ -19,7 +19,7 @@ export default function RegisterPage() {
     setLoading(true);
     try {
       const res = await authApi.register({ name, email, password });
-      await login(res.token, { email: res.email, name: res.name, role: res.role });
+      await login(res.token, { email: res.email, name: res.name, role: res.role }, res.refreshToken);
       navigate('/applications');
     } catch (err) {
       const msg = err.json?.message || err.json?.error || (typeof err.body === 'string' && err.body.length < 200 ? err.body : 'Registration failed');
@@ -1,18 +1,43 @@
-import { useEffect, useState } from 'react';
+import { useEffect, useRef, useState } from 'react';
 import { Link } from 'react-router-dom';
 import { useAuth } from '../context/AuthContext';
 import { applications as applicationsApi } from '../api/client';
 import './ApplicationListPage.css';
 
+// well inside the server's claim lease; claims left behind simply lapse back into the queue
+const HEARTBEAT_MS = 60_000;
+
 export default function StaffApplicationsPage() {
   const { user } = useAuth();
   const [list, setList] = useState([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState('');
+  const [claimed, setClaimed] = useState([]);
+  const claimedIds = useRef([]);
+
+  useEffect(() => {
+    claimedIds.current = claimed.map((app) => app.id);
+  }, [claimed]);
+
+  useEffect(() => {
+    const timer = setInterval(() => {
+      if (claimedIds.current.length === 0) return;
+      applicationsApi.heartbeat(claimedIds.current)
+        .then((held) => setClaimed((prev) => prev.filter((app) => held.includes(app.id))))
+        .catch(() => {});
+    }, HEARTBEAT_MS);
+    return () => clearInterval(timer);
+  }, []);
+
+  const claimNext = () => {
+    applicationsApi.claim(5)
+      .then((apps) => setClaimed((prev) => [...prev, ...apps]))
+      .catch((err) => setError(err.body || 'Failed to claim applications'));
+  };
 
   useEffect(() => {
     if (!user) return;
-    applicationsApi.listStaff()
+    applicationsApi.listStaff(['id', 'applicantEmail', 'permitTypeName', 'status', 'submittedAt'])
       .then(setList)
       .catch((err) => setError(err.body || 'Failed to load applications'))
       .finally(() => setLoading(false));
@@ -32,6 +57,18 @@ export default function StaffApplicationsPage() {
   return (
     <div className="application-list-page">
       <h1>All Applications (Staff)</h1>
+      <section className="review-queue">
+        <button type="button" onClick={claimNext}>Claim next 5 submissions</button>
+        {claimed.length > 0 && (
+          <ul>
+            {claimed.map((app) => (
+              <li key={app.id}>
+                <Link to={`/applications/${app.id}`}>{app.permitTypeName} #{app.id}</Link>
+              </li>
+            ))}
+          </ul>
+        )}
+      </section>
       {list.length === 0 ? (
         <p className="empty-message">No applications yet.</p>
       ) : (
@@ -48,7 +85,7 @@ export default function StaffApplicationsPage() {
           <tbody>
             {list.map((app) => (
               <tr key={app.id}>
-                <td>{app.applicantName}</td>
+                <td>{app.applicantEmail}</td>
                 <td>{app.permitTypeName}</td>
                 <td><span className={`status status-${app.status.toLowerCase()}`}>{app.status.replace('_', ' ')}</span></td>
                 <td>{app.submittedAt ? new Date(app.submittedAt).toLocaleDateString() : '—'}</td>
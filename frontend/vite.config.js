@@ -1,8 +1,15 @@
 import { defineConfig } from 'vite'
 import react from '@vitejs/plugin-react'
 
+// API_TARGET points the dev proxy at another backend, e.g. https://localhost:8443 for the
+// `http2` profile; its self-signed certificate is accepted here only.
+const apiTarget = process.env.API_TARGET ?? 'http://localhost:8080'
+
 // https://vite.dev/config/
 export default defineConfig({
   plugins: [react()],
-  server: { port: 5173, proxy: { '/api': 'http://localhost:8080' } },
+  server: {
+    port: 5173,
+    proxy: { '/api': { target: apiTarget, changeOrigin: true, secure: false } },
+  },
 })